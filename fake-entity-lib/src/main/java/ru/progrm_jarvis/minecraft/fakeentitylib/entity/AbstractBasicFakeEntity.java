@@ -7,11 +7,16 @@ import lombok.experimental.FieldDefaults;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.nms.NmsUtil;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
-import static java.util.Collections.singletonList;
+import static java.lang.Math.abs;
 
 /**
  * Base for most common implementations of {@link BasicFakeEntity} containing player logic base.
@@ -20,10 +25,27 @@ import static java.util.Collections.singletonList;
 @FieldDefaults(level = AccessLevel.PROTECTED)
 public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFakeEntity implements BasicFakeEntity {
 
+    /**
+     * Default value of {@link #movementResyncInterval}
+     */
+    public static final int DEFAULT_MOVEMENT_RESYNC_INTERVAL = 100;
+
     /**
      * Metadata of this fake entity
      */
-    @Getter @Nullable WrappedDataWatcher metadata;
+    final @NonNull FakeEntityMetadata metadata;
+
+    /**
+     * Whether metadata changes should be accumulated until {@link #flushMetadata()} rather than sent instantly
+     */
+    @Getter boolean coalescingMetadata;
+
+    /**
+     * Metadata overriding the shared one for specific players or {@code null} if there were no overrides,
+     * the override of a player being kept while the player is contained by this entity
+     * (including the time it is not rendered for the player) and re-sent to the player on each spawn
+     */
+    volatile @Nullable Map<Player, FakeEntityMetadata> metadataOverrides;
 
     /**
      * Velocity of this fake entity
@@ -35,6 +57,32 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
      */
     boolean compactMoving;
 
+    /**
+     * Whether movements should be accumulated until {@link #flushMovement()} rather than sent instantly
+     */
+    @Getter boolean bufferedMoving;
+
+    /**
+     * Minimal distance (in blocks) which should be accumulated for the buffered movement to be sent
+     */
+    @Getter @Setter double movementThreshold;
+
+    /**
+     * Amount of buffered movements after which the location gets resynchronized using teleportation,
+     * non-positive value disables periodic resynchronization
+     */
+    @Getter @Setter int movementResyncInterval = DEFAULT_MOVEMENT_RESYNC_INTERVAL;
+
+    /**
+     * Location known to the viewers of this entity while its moving is buffered
+     */
+    @Nullable Location sentLocation;
+
+    /**
+     * Amount of buffered movements sent since the last resynchronization
+     */
+    int bufferedMovements;
+
     public AbstractBasicFakeEntity(final boolean global, final int viewDistance,
                                    final @NonNull Location location,
                                    final @NonNull Map<Player, Boolean> players,
@@ -42,7 +90,8 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
         super(viewDistance, global, location, players);
 
         this.velocity = velocity == null ? new Vector() : velocity;
-        this.metadata = metadata;
+        this.metadata = metadata == null
+                ? new FakeEntityMetadata() : FakeEntityMetadata.of(metadata.getWatchableObjects());
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -50,76 +99,291 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
     ///////////////////////////////////////////////////////////////////////////
 
     /**
-     * Sends metadata to all players seeing this entity creating packet if it has not yet been initialized.
+     * Sends the changed metadata to all players seeing this entity.
+     *
+     * @param changes watchable objects which have changed since the last sending
+     */
+    protected abstract void sendMetadataChanges(@NotNull List<WrappedWatchableObject> changes);
+
+    /**
+     * Sends the changed metadata to the player.
+     *
+     * @param player player to whom the changes should be sent
+     * @param changes watchable objects which have changed for the player
+     */
+    protected abstract void sendMetadataChanges(@NotNull Player player,
+                                                @NotNull List<WrappedWatchableObject> changes);
+
+    /**
+     * Sets whether metadata changes should be accumulated until {@link #flushMetadata()} rather than sent instantly.
+     *
+     * @param coalescingMetadata whether metadata changes should be accumulated
+     *
+     * @apiNote disabling the coalescing flushes the accumulated changes
+     */
+    public void setCoalescingMetadata(final boolean coalescingMetadata) {
+        this.coalescingMetadata = coalescingMetadata;
+
+        if (!coalescingMetadata) flushMetadata();
+    }
+
+    /**
+     * Sends the metadata changed since the last flush to all players seeing this entity.
+     *
+     * @apiNote this is normally called once per tick by the code changing this entity's metadata
+     */
+    public void flushMetadata() {
+        final FakeEntityMetadata thisMetadata;
+        if ((thisMetadata = metadata).hasChanges()) {
+            final List<WrappedWatchableObject> changes;
+            if (!(changes = thisMetadata.drainChanges()).isEmpty()) sendMetadataChanges(changes);
+        }
+
+        final Map<Player, FakeEntityMetadata> thisMetadataOverrides;
+        // overrides are sent after the shared changes so that they take precedence
+        if ((thisMetadataOverrides = metadataOverrides) != null) for (val entry : thisMetadataOverrides.entrySet()) {
+            final FakeEntityMetadata override;
+            if (!(override = entry.getValue()).hasChanges()) continue;
+
+            final List<WrappedWatchableObject> changes = override.drainChanges();
+            final Player player;
+            if (!changes.isEmpty() && isRendered(player = entry.getKey())) sendMetadataChanges(player, changes);
+        }
+    }
+
+    /**
+     * Marks the metadata as changed sending the changes unless they are {@link #isCoalescingMetadata() coalesced}.
+     */
+    protected void onMetadataChanged() {
+        if (!coalescingMetadata) flushMetadata();
+    }
+
+    /**
+     * Marks the metadata overrides as changed sending the changes unless they are
+     * {@link #isCoalescingMetadata() coalesced}.
+     *
+     * @apiNote unlike {@link #onMetadataChanged()} this does not mean that the shared metadata has changed
+     */
+    protected void onMetadataOverrideChanged() {
+        if (!coalescingMetadata) flushMetadata();
+    }
+
+    /**
+     * Edits the metadata of this entity sending the changes made by the editor.
+     *
+     * @param editor function modifying the metadata of this entity
+     *
+     * @apiNote the metadata should not be used by the editor after it returns
+     */
+    public void editMetadata(final @NonNull Consumer<@NotNull FakeEntityMetadata> editor) {
+        editor.accept(metadata);
+
+        onMetadataChanged();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Metadata overrides
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Edits the metadata override of the player sending the changes made by the editor to the player.
+     * Values set in the override are seen by the player instead of the shared ones.
+     *
+     * @param player player whose metadata override should be edited
+     * @param editor function modifying the override
+     *
+     * @apiNote overrides are kept while the player is contained by this entity
+     * and are cleared once the player is removed from it or this entity is removed
+     */
+    public void editMetadataOverride(final @NonNull Player player,
+                                     final @NonNull Consumer<@NotNull FakeEntityMetadata> editor) {
+        // overrides normally contain a couple of values so they are allocated as small as possible
+        editor.accept(getOrCreateMetadataOverrides().computeIfAbsent(player, newPlayer -> new FakeEntityMetadata(0)));
+
+        onMetadataOverrideChanged();
+    }
+
+    /**
+     * Gets the metadata overrides creating them if they do not exist yet.
+     * Overrides of an entity supporting concurrent modification of its players are concurrent as well.
+     *
+     * @return metadata overrides of this entity
+     */
+    private @NotNull Map<Player, FakeEntityMetadata> getOrCreateMetadataOverrides() {
+        Map<Player, FakeEntityMetadata> thisMetadataOverrides;
+        if ((thisMetadataOverrides = metadataOverrides) == null) synchronized (this) {
+            if ((thisMetadataOverrides = metadataOverrides) == null) metadataOverrides = thisMetadataOverrides
+                    = players instanceof ConcurrentMap ? new ConcurrentHashMap<>() : new HashMap<>();
+        }
+
+        return thisMetadataOverrides;
+    }
+
+    /**
+     * Sets the values of the player's metadata override.
+     *
+     * @param player player whose metadata override should be set
+     * @param metadata values overriding the shared ones for the player
+     */
+    public void addMetadataOverride(final @NonNull Player player, final @NonNull WrappedWatchableObject... metadata) {
+        editMetadataOverride(player, override -> {
+            for (val metadatum : metadata) override.set(metadatum);
+        });
+    }
+
+    /**
+     * Removes the values of the player's metadata override so that the player sees the shared ones.
+     * If the shared metadata does not contain some of the removed values,
+     * this entity gets respawned for the player so that the player sees the entity type's default ones.
+     *
+     * @param player player whose metadata override should be removed
+     * @param indexes indices of the values which should no longer be overridden
+     */
+    public void removeMetadataOverride(final @NonNull Player player, final int... indexes) {
+        final Map<Player, FakeEntityMetadata> thisMetadataOverrides;
+        final FakeEntityMetadata override;
+        if ((thisMetadataOverrides = metadataOverrides) == null
+                || (override = thisMetadataOverrides.get(player)) == null) return;
+
+        final FakeEntityMetadata thisMetadata = metadata;
+        final List<WrappedWatchableObject> restored = new ArrayList<>(indexes.length);
+        boolean restoredDefaults = false;
+        for (val index : indexes) if (override.remove(index)) {
+            final WrappedWatchableObject watchable;
+            if ((watchable = thisMetadata.getWatchable(index)) == null) restoredDefaults = true;
+            else restored.add(watchable);
+        }
+        if (override.isEmpty()) thisMetadataOverrides.remove(player);
+
+        if (!isRendered(player)) return;
+        // default values are only known to the client so the entity is recreated for it
+        if (restoredDefaults) {
+            unrender(player);
+            render(player);
+        } else if (!restored.isEmpty()) sendMetadataChanges(player, restored);
+    }
+
+    /**
+     * Removes all values of the player's metadata override so that the player sees the shared ones.
+     *
+     * @param player player whose metadata override should be cleared
+     */
+    public void clearMetadataOverride(final @NonNull Player player) {
+        final Map<Player, FakeEntityMetadata> thisMetadataOverrides;
+        final FakeEntityMetadata override;
+        if ((thisMetadataOverrides = metadataOverrides) == null
+                || (override = thisMetadataOverrides.get(player)) == null) return;
+
+        removeMetadataOverride(player, override.indices());
+    }
+
+    /**
+     * Gets the metadata override of the player.
+     *
+     * @param player player whose metadata override should be got
+     * @return metadata override of the player or {@code null} if there is none
      */
-    protected abstract void sendMetadata();
+    protected @Nullable FakeEntityMetadata getMetadataOverride(final @NotNull Player player) {
+        final Map<Player, FakeEntityMetadata> thisMetadataOverrides;
+        return (thisMetadataOverrides = metadataOverrides) == null ? null : thisMetadataOverrides.get(player);
+    }
+
+    /**
+     * Gets the shared metadata changes which should be sent to the player.
+     *
+     * @param player player to whom the changes are sent
+     * @param changes shared metadata changes
+     * @return {@code changes} if none of them are overridden for the player
+     * or a new list of the changes which are not overridden otherwise
+     */
+    protected @NotNull List<WrappedWatchableObject> getViewerMetadataChanges(
+            final @NotNull Player player, final @NotNull List<WrappedWatchableObject> changes
+    ) {
+        final FakeEntityMetadata override;
+        if ((override = getMetadataOverride(player)) == null) return changes;
+
+        List<WrappedWatchableObject> viewerChanges = null;
+        for (int i = 0, size = changes.size(); i < size; i++) {
+            final WrappedWatchableObject change = changes.get(i);
+            if (override.has(change.getIndex())) {
+                if (viewerChanges == null) viewerChanges = new ArrayList<>(changes.subList(0, i));
+            } else if (viewerChanges != null) viewerChanges.add(change);
+        }
+
+        return viewerChanges == null ? changes : viewerChanges;
+    }
 
     @Override
-    public void setMetadata(final @NonNull WrappedDataWatcher metadata) {
-        this.metadata = metadata.deepClone();
+    public void removePlayer(final Player player) {
+        super.removePlayer(player);
 
-        sendMetadata();
+        final Map<Player, FakeEntityMetadata> thisMetadataOverrides;
+        if ((thisMetadataOverrides = metadataOverrides) != null) thisMetadataOverrides.remove(player);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return snapshot of this entity's metadata or {@code null} if it has no metadata
+     */
+    @Override
+    public @Nullable WrappedDataWatcher getMetadata() {
+        final FakeEntityMetadata thisMetadata;
+        return (thisMetadata = metadata).isEmpty() ? null : thisMetadata.toDataWatcher();
+    }
+
+    @Override
+    public void setMetadata(final @NonNull WrappedDataWatcher metadata) {
+        setMetadata(metadata.getWatchableObjects());
     }
 
     @Override
     public void setMetadata(final @NonNull List<WrappedWatchableObject> metadata) {
-        this.metadata = new WrappedDataWatcher(metadata);
+        this.metadata.replace(metadata);
 
-        sendMetadata();
+        onMetadataChanged();
     }
 
     @Override
     public void setMetadata(final @NonNull Collection<WrappedWatchableObject> metadata) {
-        setMetadata(new ArrayList<>(metadata));
+        this.metadata.replace(metadata);
 
-        sendMetadata();
+        onMetadataChanged();
     }
 
     @Override
     public void setMetadata(final @NonNull WrappedWatchableObject... metadata) {
         setMetadata(Arrays.asList(metadata));
-
-        sendMetadata();
     }
 
     @Override
     public void addMetadata(final Collection<WrappedWatchableObject> metadata) {
-        final WrappedDataWatcher thisMetadata;
-        if ((thisMetadata = this.metadata) == null) this.metadata = new WrappedDataWatcher(singletonList(metadata));
-        else for (val metadatum : metadata) thisMetadata
-                .setObject(metadatum.getWatcherObject(), metadatum.getRawValue());
+        final FakeEntityMetadata thisMetadata = this.metadata;
+        for (val metadatum : metadata) thisMetadata.set(metadatum);
 
-        sendMetadata();
+        onMetadataChanged();
     }
 
     @Override
     public void addMetadata(final WrappedWatchableObject... metadata) {
-        final WrappedDataWatcher thisMetadata;
-        if ((thisMetadata = this.metadata) == null) this.metadata = new WrappedDataWatcher(Arrays.asList(metadata));
-        else for (val metadatum : metadata) thisMetadata
-                .setObject(metadatum.getWatcherObject(), metadatum.getRawValue());
-
-        sendMetadata();
+        addMetadata(Arrays.asList(metadata));
     }
 
     @Override
     public void removeMetadata(final Iterable<Integer> indexes) {
-        final WrappedDataWatcher thisMetadata;
-        if ((thisMetadata = metadata) == null) return;
-
+        // the client keeps the values of removed indices so they only get excluded from the following spawns
+        final FakeEntityMetadata thisMetadata = metadata;
         for (val index : indexes) thisMetadata.remove(index);
 
-        sendMetadata();
+        onMetadataChanged();
     }
 
     @Override
     public void removeMetadata(final int... indexes) {
-        final WrappedDataWatcher thisMetadata;
-        if ((thisMetadata = metadata) == null) return;
-
+        final FakeEntityMetadata thisMetadata = metadata;
         for (val index : indexes) thisMetadata.remove(index);
 
-        sendMetadata();
+        onMetadataChanged();
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -172,12 +436,154 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
      */
     protected abstract void performLook(float yaw, float pitch);
 
+    /**
+     * Gets the location of this fake entity as it is known to its viewers.
+     *
+     * @return location known to the viewers which differs from the actual one
+     * only while there are unflushed buffered movements
+     *
+     * @apiNote the returned location should not be modified
+     */
+    protected @NotNull Location getViewedLocation() {
+        final Location thisSentLocation;
+        return (thisSentLocation = sentLocation) == null ? location : thisSentLocation;
+    }
+
+    /**
+     * Enables or disables the buffering of movements.
+     * While it is enabled movements only update the location of this entity and get sent on {@link #flushMovement()}.
+     *
+     * @param bufferedMoving whether movements should be buffered
+     *
+     * @apiNote disabling the buffering flushes the accumulated movement
+     */
+    public void setBufferedMoving(final boolean bufferedMoving) {
+        if (this.bufferedMoving == bufferedMoving) return;
+
+        if (bufferedMoving) {
+            sentLocation = location.clone();
+            bufferedMovements = 0;
+        } else {
+            flushMovement();
+            sentLocation = null;
+        }
+        this.bufferedMoving = bufferedMoving;
+    }
+
+    /**
+     * Sends the movement accumulated since the last flush as a single packet.
+     * Deltas are quantized to the protocol's fixed-point resolution so that the location known to the viewers
+     * does not drift from the one used for computing the next delta,
+     * deltas below {@link #getMovementThreshold() threshold} are kept accumulated.
+     *
+     * @apiNote this is normally called once per tick by the code animating this entity
+     */
+    public void flushMovement() {
+        final Location thisSentLocation;
+        if ((thisSentLocation = sentLocation) == null) return;
+
+        final Location thisLocation;
+        final double quantum = movementQuantum(),
+                dx = quantize((thisLocation = location).getX() - thisSentLocation.getX(), quantum),
+                dy = quantize(thisLocation.getY() - thisSentLocation.getY(), quantum),
+                dz = quantize(thisLocation.getZ() - thisSentLocation.getZ(), quantum);
+        final float yaw = thisLocation.getYaw(), pitch = thisLocation.getPitch();
+
+        final double threshold;
+        final boolean moved = (dx != 0 || dy != 0 || dz != 0)
+                && dx * dx + dy * dy + dz * dz >= (threshold = movementThreshold) * threshold,
+                looked = isAngleChanged(thisSentLocation.getYaw(), yaw)
+                        || isAngleChanged(thisSentLocation.getPitch(), pitch);
+        if (!moved && !looked) return;
+
+        final int resyncInterval;
+        if (abs(dx) >= 8 || abs(dy) >= 8 || abs(dz) >= 8
+                || (resyncInterval = movementResyncInterval) > 0 && ++bufferedMovements >= resyncInterval) {
+            final double x = thisLocation.getX(), y = thisLocation.getY(), z = thisLocation.getZ();
+            performTeleportation(x, y, z, yaw, pitch, false);
+
+            thisSentLocation.setX(x);
+            thisSentLocation.setY(y);
+            thisSentLocation.setZ(z);
+            bufferedMovements = 0;
+        } else if (moved) {
+            if (looked) performMoveLook(dx, dy, dz, yaw, pitch, false);
+            else performMove(dx, dy, dz, false);
+
+            // the viewers' location gets moved by quantized delta so that the rounding error is not lost
+            thisSentLocation.setX(thisSentLocation.getX() + dx);
+            thisSentLocation.setY(thisSentLocation.getY() + dy);
+            thisSentLocation.setZ(thisSentLocation.getZ() + dz);
+        } else performLook(yaw, pitch);
+
+        thisSentLocation.setYaw(yaw);
+        thisSentLocation.setPitch(pitch);
+    }
+
+    /**
+     * Gets the resolution of relative movement in the current protocol version.
+     *
+     * @return minimal non-zero relative movement distance in blocks
+     */
+    protected static double movementQuantum() {
+        // 1.8 sends deltas as 1/32 of a block in a byte while newer versions use 1/4096 of a block in a short
+        return NmsUtil.getVersion().getGeneration() < 9 ? 1D / 32 : 1D / 4096;
+    }
+
+    /**
+     * Rounds the value to the given quantum.
+     *
+     * @param value value to round
+     * @param quantum quantum to which the value should be rounded
+     * @return value rounded to the quantum
+     */
+    protected static double quantize(final double value, final double quantum) {
+        return Math.rint(value / quantum) * quantum;
+    }
+
+    /**
+     * Checks whether the angle change is visible to the client which receives angles as 1/256 of a full turn.
+     *
+     * @param oldAngle angle known to the client
+     * @param newAngle new angle
+     * @return {@code true} if the angles differ after being converted to the protocol's representation
+     */
+    protected static boolean isAngleChanged(final float oldAngle, final float newAngle) {
+        return (byte) (int) (oldAngle * 256F / 360F) != (byte) (int) (newAngle * 256F / 360F);
+    }
+
     @Override
     public void move(final double dx, final double dy, final double dz, final float dYaw, final float dPitch) {
-        if (compactMoving) performCompactMove(dx, dy, dz, dYaw, dPitch);
+        if (bufferedMoving) {
+            final Location thisLocation;
+            (thisLocation = location).setX(thisLocation.getX() + dx);
+            thisLocation.setY(thisLocation.getY() + dy);
+            thisLocation.setZ(thisLocation.getZ() + dz);
+            thisLocation.setYaw(thisLocation.getYaw() + dYaw);
+            thisLocation.setPitch(thisLocation.getPitch() + dPitch);
+        } else if (compactMoving) performCompactMove(dx, dy, dz, dYaw, dPitch);
         else performNonCompactMove(dx, dy, dz, dYaw, dPitch);
     }
 
+    /**
+     * Updates the location of this entity so that the movement gets sent on {@link #flushMovement()}.
+     *
+     * @param x new location on X-axis
+     * @param y new location on Y-axis
+     * @param z new location on Z-axis
+     * @param yaw new yaw
+     * @param pitch new pitch
+     */
+    protected void performBufferedTeleportation(final double x, final double y, final double z,
+                                                final float yaw, final float pitch) {
+        final Location thisLocation;
+        (thisLocation = location).setX(x);
+        thisLocation.setY(y);
+        thisLocation.setZ(z);
+        thisLocation.setYaw(yaw);
+        thisLocation.setPitch(pitch);
+    }
+
     protected void performCompactMove(final double dx, final double dy, final double dz,
                                       final float dYaw, final float dPitch) {
         val thisLocation = location;
@@ -197,11 +603,11 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
             thisVelocity.setY(dy);
             thisVelocity.setZ(dz);
             // use teleportation if any of axises is above 8 blocks limit
-            if (dx > 8 || dy > 8 || dz > 8) {
+            if (abs(dx) >= 8 || abs(dy) >= 8 || abs(dz) >= 8) {
                 final double x = thisLocation.getX() + dx, y = thisLocation.getY() + dy, z = thisLocation.getZ() + dz;
                 final float yaw = thisLocation.getYaw() + dYaw, pitch = thisLocation.getPitch() + dPitch;
 
-                performTeleportation(x, y, z, pitch, yaw, true);
+                performTeleportation(x, y, z, yaw, pitch, true);
 
                 thisLocation.setX(x);
                 thisLocation.setY(y);
@@ -273,13 +679,15 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
 
     @Override
     public void moveTo(final double x, final double y, final double z, final float yaw, final float pitch) {
-        if (compactMoving) performCompactTeleportation(x, y, z, yaw, pitch, true);
+        if (bufferedMoving) performBufferedTeleportation(x, y, z, yaw, pitch);
+        else if (compactMoving) performCompactTeleportation(x, y, z, yaw, pitch, true);
         else performNonCompactTeleportation(x, y, z, yaw, pitch);
     }
 
     @Override
     public void teleport(final double x, final double y, final double z, final float yaw, final float pitch) {
-        if (compactMoving) performCompactTeleportation(x, y, z, yaw, pitch, false);
+        if (bufferedMoving) performBufferedTeleportation(x, y, z, yaw, pitch);
+        else if (compactMoving) performCompactTeleportation(x, y, z, yaw, pitch, false);
         else performNonCompactTeleportation(x, y, z, yaw, pitch);
     }
 
@@ -304,7 +712,7 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
             thisVelocity.setY(dy);
             thisVelocity.setZ(dz);
 
-            if (dx > 8 || dy > 8 || dz > 8) performTeleportation(x, y, z, yaw, pitch, sendVelocity);
+            if (abs(dx) >= 8 || abs(dy) >= 8 || abs(dz) >= 8) performTeleportation(x, y, z, yaw, pitch, sendVelocity);
             else if (yaw != thisLocation.getYaw() || pitch != thisLocation.getPitch()) {
                 performMoveLook(dx, dy, dz, yaw, pitch, sendVelocity);
 
@@ -358,6 +766,48 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
         else if (changeLook) performLook(yaw, pitch);
     }
 
+    /**
+     * Resets the state of this fake entity so that it can be reused as a newly created one.
+     *
+     * @param location new location of this entity
+     * @param velocity new velocity of this entity or {@code null} if it should have none
+     * @param metadata new metadata of this entity or {@code null} if it should have none
+     *
+     * @apiNote this method does not send any packets so it should only be called
+     * while this entity is not rendered for any player,
+     * the settings of this entity (such as {@link #isBufferedMoving() buffered moving}) are reset to their defaults
+     */
+    protected void reset(final @NonNull Location location, final @Nullable Vector velocity,
+                         final @Nullable Iterable<WrappedWatchableObject> metadata) {
+        final Location thisLocation;
+        (thisLocation = this.location).setWorld(location.getWorld());
+        thisLocation.setX(location.getX());
+        thisLocation.setY(location.getY());
+        thisLocation.setZ(location.getZ());
+        thisLocation.setYaw(location.getYaw());
+        thisLocation.setPitch(location.getPitch());
+
+        final Vector thisVelocity = this.velocity;
+        if (velocity == null) thisVelocity.setX(0).setY(0).setZ(0);
+        else thisVelocity.copy(velocity);
+
+        final FakeEntityMetadata thisMetadata;
+        (thisMetadata = this.metadata).clear();
+        if (metadata != null) {
+            for (val watchable : metadata) thisMetadata.set(watchable);
+            thisMetadata.clearChanges();
+        }
+        metadataOverrides = null;
+        coalescingMetadata = false;
+
+        compactMoving = false;
+        bufferedMoving = false;
+        movementThreshold = 0;
+        movementResyncInterval = DEFAULT_MOVEMENT_RESYNC_INTERVAL;
+        sentLocation = null;
+        bufferedMovements = 0;
+    }
+
     @Override
     public void syncLocation() {
         final Location thisLocation;
@@ -365,5 +815,10 @@ public abstract class AbstractBasicFakeEntity extends AbstractPlayerContainingFa
                 (thisLocation = location).getX(), thisLocation.getY(), thisLocation.getZ(),
                 thisLocation.getYaw(), thisLocation.getPitch(), false
         );
+
+        if (sentLocation != null) {
+            sentLocation = thisLocation.clone();
+            bufferedMovements = 0;
+        }
     }
 }
@@ -15,7 +15,10 @@ import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ru.progrm_jarvis.javacommons.ownership.annotation.Own;
+import ru.progrm_jarvis.minecraft.commons.math.FastTrigonometry;
 import ru.progrm_jarvis.minecraft.commons.nms.NmsUtil;
+import ru.progrm_jarvis.minecraft.commons.nms.protocol.misc.PacketSender;
+import ru.progrm_jarvis.minecraft.commons.nms.protocol.misc.WirePacketCache;
 import ru.progrm_jarvis.minecraft.commons.nms.metadata.MetadataGenerator.ArmorStand.ArmorStandFlag;
 
 import java.util.ArrayList;
@@ -24,7 +27,6 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
-import static java.lang.Math.*;
 import static ru.progrm_jarvis.minecraft.commons.nms.metadata.MetadataGenerator.ArmorStand.ArmorStandFlag.*;
 import static ru.progrm_jarvis.minecraft.commons.nms.metadata.MetadataGenerator.ArmorStand.armorStandFlags;
 import static ru.progrm_jarvis.minecraft.commons.nms.metadata.MetadataGenerator.ArmorStand.headRotation;
@@ -65,6 +67,11 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
      */
     WrapperPlayServerEntityEquipment equipmentPacket;
 
+    /**
+     * Cache of the serialized {@link #equipmentPacket}
+     */
+    final @NonNull WirePacketCache equipmentPacketCache = new WirePacketCache();
+
     /**
      * Initializes a newly created armor stand block-item from parameters given.
      *
@@ -80,16 +87,19 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
      * @param small whether this block-item is small
      * @param marker whether this block-item is marker
      * @param item item to be displayed by this block-item
+     * @param packetSender sender to be used for sending this block-item's packets or {@code null} to send them directly
      */
     protected ArmorStandBlockItem(final @Nullable UUID uuid,
                                   final @NotNull Map<@NotNull Player, @NotNull Boolean> playersMap,
                                   final boolean global, final int viewDistance, final boolean visible,
                                   final @NotNull Location location, final @NotNull Vector3F rotation,
                                   final double itemCenterYOffset, final @NotNull Offset offset,
-                                  final boolean small, final boolean marker, final @NotNull ItemStack item) {
+                                  final boolean small, final boolean marker, final @NotNull ItemStack item,
+                                  final @Nullable PacketSender packetSender) {
         super(
                 NmsUtil.nextEntityId(), uuid, EntityType.ARMOR_STAND,
-                playersMap, global, viewDistance, visible, location, 0, null, createMetadata(rotation, small, marker)
+                playersMap, global, viewDistance, visible, location, 0, null, createMetadata(rotation, small, marker),
+                packetSender
         );
 
         this.small = small;
@@ -119,6 +129,7 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
      * @param small whether created block-item is small
      * @param marker whether created block-item is marker
      * @param item item to be displayed by this block-item
+     * @param packetSender sender to be used for sending the packets or {@code null} to send them directly
      * @return newly created armor stand block-item
      */
     public static ArmorStandBlockItem create(final @Nullable UUID uuid,
@@ -126,7 +137,8 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
                                              final boolean global, final int viewDistance, final boolean visible,
                                              final @Own @NonNull Location location,
                                              final @Own @NonNull Vector3F rotation,
-                                             final boolean small, final boolean marker, final @NonNull ItemStack item) {
+                                             final boolean small, final boolean marker, final @NonNull ItemStack item,
+                                             final @Nullable PacketSender packetSender) {
         final double itemCenterYOffset;
         final Offset offset;
         (offset = rotationOffsets(
@@ -137,10 +149,34 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
                 uuid, concurrent ? new ConcurrentHashMap<>() : new HashMap<>(),
                 global, viewDistance, visible,
                 location.add(0, -(small ? ARMOR_STAND_HEAD_ROOT_OFFSET / 2 : ARMOR_STAND_HEAD_ROOT_OFFSET), 0),
-                rotation, itemCenterYOffset, offset, small, marker, item
+                rotation, itemCenterYOffset, offset, small, marker, item, packetSender
         );
     }
 
+    /**
+     * Creates new armor stand block-item by parameters specified which sends its packets directly.
+     *
+     * @param uuid unique ID of the created entity
+     * @param concurrent whether created block-item supports concurrent modification of players related to it
+     * @param global whether created block-item is global (the value returned by {@link #isGlobal()})
+     * @param viewDistance view distance of created block-item
+     * @param visible whether created block-item should be visible
+     * @param location location of created block-item
+     * @param rotation rotation of created block item
+     * @param small whether created block-item is small
+     * @param marker whether created block-item is marker
+     * @param item item to be displayed by this block-item
+     * @return newly created armor stand block-item
+     */
+    public static ArmorStandBlockItem create(final @Nullable UUID uuid,
+                                             final boolean concurrent,
+                                             final boolean global, final int viewDistance, final boolean visible,
+                                             final @Own @NonNull Location location,
+                                             final @Own @NonNull Vector3F rotation,
+                                             final boolean small, final boolean marker, final @NonNull ItemStack item) {
+        return create(uuid, concurrent, global, viewDistance, visible, location, rotation, small, marker, item, null);
+    }
+
     @Override
     public @NonNull Location getLocation() {
         final Location location;
@@ -158,12 +194,30 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
 
         // for non-optimized implementation see commit 58899ac9450afb1e11e4a3b1ab923c139f4c7a29
 
-        double angle;
-        val z = -yOffset * sin(angle = toRadians(rotation.getX()));
+        final MutableOffset offset;
+        rotationOffsets(rotation, yOffset, offset = new MutableOffset());
+
+        return offset;
+    }
+
+    /**
+     * Computes the offset of the entity from its logical center writing it to the given offset.
+     *
+     * @param rotation rotation of the block
+     * @param yOffset offset of the item center on Y-axis
+     * @param output offset to which the result should be written
+     *
+     * @see #rotationOffsets(Vector3F, double) for the non-reusing version
+     */
+    protected static void rotationOffsets(final @NotNull Vector3F rotation, double yOffset /* => y */,
+                                          final @NotNull MutableOffset output) {
+        // see the non-reusing overload for the math behind it
+        int step;
+        output.z = -yOffset * FastTrigonometry.sinStep(step = FastTrigonometry.step(rotation.getX()));
         // minuses are used as we need to go to center instead of going from it
-        return SimpleOffset.create(
-                (yOffset *= cos(angle)) * sin(angle = toRadians(rotation.getZ())), -yOffset * cos(angle), z
-        );
+        yOffset *= FastTrigonometry.cosStep(step);
+        output.x = yOffset * FastTrigonometry.sinStep(step = FastTrigonometry.step(rotation.getZ()));
+        output.y = -yOffset * FastTrigonometry.cosStep(step);
     }
 
     /**
@@ -202,7 +256,7 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
     @Override
     protected void performSpawnNoChecks(final @NotNull Player player) {
         super.performSpawnNoChecks(player);
-        equipmentPacket.sendPacket(player);
+        sendPacket(player, equipmentPacket, equipmentPacketCache);
     }
 
     /**
@@ -211,16 +265,19 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
      * @param rotation new rotation of this block
      */
     protected void setRotationNoChecks(final @Own @NotNull Vector3F rotation) {
-        { // overwrite the head's offset
-            final Offset oldOffset = offset, newOffset;
-            move(
-                    (newOffset = offset = rotationOffsets(rotation, itemCenterYOffset)).x() - oldOffset.x(),
-                    newOffset.y() - oldOffset.y(),
-                    newOffset.z() - oldOffset.z()
-            );
+        { // overwrite the head's offset reusing its object when possible
+            final Offset oldOffset = offset;
+            final double oldX = oldOffset.x(), oldY = oldOffset.y(), oldZ = oldOffset.z();
+
+            final MutableOffset newOffset;
+            if (oldOffset instanceof MutableOffset) newOffset = (MutableOffset) oldOffset;
+            else offset = newOffset = new MutableOffset();
+
+            rotationOffsets(rotation, itemCenterYOffset, newOffset);
+            move(newOffset.x - oldX, newOffset.y - oldY, newOffset.z - oldZ);
         }
         // overwrite the head's rotation
-        addMetadata(headRotation(rotation));
+        addMetadata(headRotation(this.rotation = rotation));
     }
 
     /**
@@ -252,8 +309,13 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
     }
 
     public void setItem(final @Own @NonNull ItemStack item) {
-        equipmentPacket.setItem(this.item = item);
-        for (val entry : players.entrySet()) if (entry.getValue()) equipmentPacket.sendPacket(entry.getKey());
+        final WrapperPlayServerEntityEquipment thisEquipmentPacket;
+        (thisEquipmentPacket = equipmentPacket).setItem(this.item = item);
+        equipmentPacketCache.invalidate();
+
+        for (val entry : players.entrySet()) if (entry.getValue()) sendPacket(
+                entry.getKey(), thisEquipmentPacket, equipmentPacketCache
+        );
     }
 
     protected interface Offset {
@@ -266,6 +328,36 @@ public class ArmorStandBlockItem extends SimpleLivingFakeEntity {
         void applyTo(@NotNull Location location);
     }
 
+    /**
+     * Offset whose coordinates can be overwritten so that it can be reused on rotation.
+     */
+    @ToString
+    @EqualsAndHashCode
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    protected static final class MutableOffset implements Offset {
+        double x, y, z;
+
+        @Override
+        public double x() {
+            return x;
+        }
+
+        @Override
+        public double y() {
+            return y;
+        }
+
+        @Override
+        public double z() {
+            return z;
+        }
+
+        @Override
+        public void applyTo(final @NotNull Location location) {
+            location.add(x, y, z);
+        }
+    }
+
     @Value
     @Accessors(fluent = true)
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
@@ -6,6 +6,7 @@ import lombok.NonNull;
 import org.bukkit.Location;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.List;
@@ -73,7 +74,16 @@ public interface BasicFakeEntity extends ObservableFakeEntity {
     // Metadata
     ///////////////////////////////////////////////////////////////////////////
 
-    WrappedDataWatcher getMetadata();
+    /**
+     * Gets the snapshot of this entity's metadata.
+     *
+     * @return snapshot of this entity's metadata or {@code null} if it has no metadata
+     *
+     * @apiNote the returned data watcher is a copy so changes to it do not affect this entity,
+     * {@link #setMetadata(WrappedDataWatcher)}, {@link #addMetadata(WrappedWatchableObject...)}
+     * and {@link #removeMetadata(int...)} should be used for changing the metadata instead
+     */
+    @Nullable WrappedDataWatcher getMetadata();
 
     void setMetadata(WrappedDataWatcher metadata);
 
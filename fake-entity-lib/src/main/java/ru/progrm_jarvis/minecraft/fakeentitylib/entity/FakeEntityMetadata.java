@@ -0,0 +1,531 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity;
+
+import com.comphenix.protocol.wrappers.WrappedDataWatcher;
+import com.comphenix.protocol.wrappers.WrappedWatchableObject;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.nms.NmsUtil;
+import ru.progrm_jarvis.minecraft.commons.nms.metadata.DataWatcherFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Lightweight container of fake entity's metadata storing its values in slots indexed by metadata indices.</p>
+ * <p>Primitive values are stored unboxed and get converted to {@link WrappedWatchableObject watchable objects}
+ * only when they are needed for a packet, the converted objects are cached until the slot's value changes.
+ * Setting the value which is equal to the current one does not mark the slot as changed.</p>
+ *
+ * @apiNote this class is not thread-safe
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class FakeEntityMetadata {
+
+    /**
+     * Maximal metadata index, {@code 0xFF} is reserved for the end-of-metadata marker
+     */
+    public static final int MAX_INDEX = 0xFE;
+
+    private static final byte
+            EMPTY = 0,
+            BYTE = 1,
+            INT = 2,
+            FLOAT = 3,
+            BOOLEAN = 4,
+            OBJECT = 5;
+
+    /**
+     * Kinds of the slots' values
+     */
+    @ToString.Exclude byte[] kinds;
+
+    /**
+     * Primitive values of the slots stored as raw bits
+     */
+    @ToString.Exclude long[] primitives;
+
+    /**
+     * Raw values of non-primitive slots
+     */
+    @ToString.Exclude Object[] objects;
+
+    /**
+     * Watchable objects of the slots, {@code null} if the watchable should be (re)created
+     */
+    @ToString.Exclude WrappedWatchableObject[] watchables;
+
+    /**
+     * Bit set of the slots changed since the last {@link #drainChanges()}
+     */
+    @ToString.Exclude final long[] changed = new long[(MAX_INDEX >> 6) + 1];
+
+    /**
+     * Amount of non-empty slots
+     */
+    int size;
+
+    /**
+     * Creates new empty metadata.
+     */
+    public FakeEntityMetadata() {
+        this(16);
+    }
+
+    /**
+     * Creates new empty metadata with the specified initial capacity.
+     *
+     * @param capacity amount of slots initially allocated, normally the maximal expected index plus one
+     */
+    public FakeEntityMetadata(final int capacity) {
+        checkArgument(capacity >= 0, "capacity should be non-negative");
+
+        kinds = new byte[capacity];
+        primitives = new long[capacity];
+        objects = new Object[capacity];
+        watchables = new WrappedWatchableObject[capacity];
+    }
+
+    /**
+     * Creates new metadata containing the specified watchable objects without marking them as changed.
+     *
+     * @param watchables watchable objects of the created metadata
+     * @return created metadata
+     */
+    public static @NotNull FakeEntityMetadata of(final @NonNull Iterable<WrappedWatchableObject> watchables) {
+        final FakeEntityMetadata metadata = new FakeEntityMetadata();
+        for (final WrappedWatchableObject watchable : watchables) metadata.set(watchable);
+        metadata.clearChanges();
+
+        return metadata;
+    }
+
+    private static @NotNull DataWatcherFactory dataWatcherFactory() {
+        return DataWatcherFactoryHolder.INSTANCE;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Slots
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void ensureCapacity(final int index) {
+        checkArgument(index >= 0 && index <= MAX_INDEX, "index should be in range [0; %s]", MAX_INDEX);
+
+        final int capacity;
+        if (index < (capacity = kinds.length)) return;
+
+        final int newCapacity = Math.min(Math.max(capacity << 1, index + 1), MAX_INDEX + 1);
+        kinds = Arrays.copyOf(kinds, newCapacity);
+        primitives = Arrays.copyOf(primitives, newCapacity);
+        objects = Arrays.copyOf(objects, newCapacity);
+        watchables = Arrays.copyOf(watchables, newCapacity);
+    }
+
+    private boolean setPrimitive(final int index, final byte kind, final long value,
+                                 final @Nullable WrappedWatchableObject watchable) {
+        ensureCapacity(index);
+
+        final byte oldKind;
+        if ((oldKind = kinds[index]) == kind && primitives[index] == value) return false;
+
+        if (oldKind == EMPTY) size++;
+        kinds[index] = kind;
+        primitives[index] = value;
+        objects[index] = null;
+        watchables[index] = watchable;
+        markChanged(index);
+
+        return true;
+    }
+
+    /**
+     * Sets the {@code byte} value of the slot.
+     *
+     * @param index index of the slot
+     * @param value new value of the slot
+     * @return {@code true} if the value of the slot has changed and {@code false} otherwise
+     */
+    public boolean setByte(final int index, final byte value) {
+        return setPrimitive(index, BYTE, value, null);
+    }
+
+    /**
+     * Sets the {@code int} value of the slot.
+     *
+     * @param index index of the slot
+     * @param value new value of the slot
+     * @return {@code true} if the value of the slot has changed and {@code false} otherwise
+     */
+    public boolean setInt(final int index, final int value) {
+        return setPrimitive(index, INT, value, null);
+    }
+
+    /**
+     * Sets the {@code float} value of the slot.
+     *
+     * @param index index of the slot
+     * @param value new value of the slot
+     * @return {@code true} if the value of the slot has changed and {@code false} otherwise
+     */
+    public boolean setFloat(final int index, final float value) {
+        return setPrimitive(index, FLOAT, Float.floatToIntBits(value), null);
+    }
+
+    /**
+     * Sets the {@code boolean} value of the slot.
+     *
+     * @param index index of the slot
+     * @param value new value of the slot
+     * @return {@code true} if the value of the slot has changed and {@code false} otherwise
+     */
+    public boolean setBoolean(final int index, final boolean value) {
+        return setPrimitive(index, BOOLEAN, value ? 1 : 0, null);
+    }
+
+    /**
+     * Sets or clears the bits of the {@code byte} slot used as a bit mask.
+     *
+     * @param index index of the slot
+     * @param mask bits to be set or cleared
+     * @param enabled {@code true} if the bits should be set and {@code false} if they should be cleared
+     * @return {@code true} if the value of the slot has changed and {@code false} otherwise
+     */
+    public boolean setFlags(final int index, final byte mask, final boolean enabled) {
+        final byte value = getByte(index);
+
+        return setByte(index, (byte) (enabled ? value | mask : value & ~mask));
+    }
+
+    /**
+     * Sets the value of the slot whose index is the one of the watchable object.
+     *
+     * @param watchable watchable object whose value should be stored
+     * @return {@code true} if the value of the slot has changed and {@code false} otherwise
+     *
+     * @apiNote the watchable object should not be modified after being passed to this method
+     */
+    public boolean set(final @NonNull WrappedWatchableObject watchable) {
+        final int index = watchable.getIndex();
+        final Object value = watchable.getRawValue();
+
+        // primitive values are stored unboxed, the watchable itself is reused so that it does not get recreated
+        if (value instanceof Byte) return setPrimitive(index, BYTE, (Byte) value, watchable);
+        if (value instanceof Integer) return setPrimitive(index, INT, (Integer) value, watchable);
+        if (value instanceof Float) return setPrimitive(
+                index, FLOAT, Float.floatToIntBits((Float) value), watchable
+        );
+        if (value instanceof Boolean) return setPrimitive(index, BOOLEAN, (Boolean) value ? 1 : 0, watchable);
+
+        ensureCapacity(index);
+
+        final byte oldKind;
+        if ((oldKind = kinds[index]) == OBJECT && Objects.equals(objects[index], value)) return false;
+
+        if (oldKind == EMPTY) size++;
+        kinds[index] = OBJECT;
+        primitives[index] = 0;
+        objects[index] = value;
+        watchables[index] = watchable;
+        markChanged(index);
+
+        return true;
+    }
+
+    /**
+     * Removes the value of the slot.
+     *
+     * @param index index of the slot
+     * @return {@code true} if the slot was not empty and {@code false} otherwise
+     */
+    public boolean remove(final int index) {
+        if (index < 0 || index >= kinds.length || kinds[index] == EMPTY) return false;
+
+        size--;
+        kinds[index] = EMPTY;
+        primitives[index] = 0;
+        objects[index] = null;
+        watchables[index] = null;
+        changed[index >> 6] &= ~(1L << index);
+
+        return true;
+    }
+
+    /**
+     * Removes all values of this metadata.
+     */
+    public void clear() {
+        Arrays.fill(kinds, EMPTY);
+        Arrays.fill(primitives, 0);
+        Arrays.fill(objects, null);
+        Arrays.fill(watchables, null);
+        clearChanges();
+        size = 0;
+    }
+
+    /**
+     * Replaces the values of this metadata with the ones of the specified watchable objects
+     * so that only the slots whose values differ are marked as changed.
+     *
+     * @param watchables watchable objects whose values should be stored
+     */
+    public void replace(final @NonNull Iterable<WrappedWatchableObject> watchables) {
+        final long[] retained = new long[changed.length];
+        for (final WrappedWatchableObject watchable : watchables) {
+            final int index = watchable.getIndex();
+            set(watchable);
+            retained[index >> 6] |= 1L << index;
+        }
+
+        final byte[] thisKinds = kinds;
+        for (int index = 0, length = thisKinds.length; index < length; index++) if (
+                thisKinds[index] != EMPTY && (retained[index >> 6] & 1L << index) == 0
+        ) remove(index);
+    }
+
+    /**
+     * Checks whether the slot contains a value.
+     *
+     * @param index index of the slot
+     * @return {@code true} if the slot contains a value and {@code false} otherwise
+     */
+    public boolean has(final int index) {
+        return index >= 0 && index < kinds.length && kinds[index] != EMPTY;
+    }
+
+    /**
+     * Gets the {@code byte} value of the slot.
+     *
+     * @param index index of the slot
+     * @return value of the slot or {@code 0} if it is not a {@code byte} slot
+     */
+    public byte getByte(final int index) {
+        return has(index) && kinds[index] == BYTE ? (byte) primitives[index] : 0;
+    }
+
+    /**
+     * Gets the {@code int} value of the slot.
+     *
+     * @param index index of the slot
+     * @return value of the slot or {@code 0} if it is not an {@code int} slot
+     */
+    public int getInt(final int index) {
+        return has(index) && kinds[index] == INT ? (int) primitives[index] : 0;
+    }
+
+    /**
+     * Gets the {@code float} value of the slot.
+     *
+     * @param index index of the slot
+     * @return value of the slot or {@code 0} if it is not a {@code float} slot
+     */
+    public float getFloat(final int index) {
+        return has(index) && kinds[index] == FLOAT ? Float.intBitsToFloat((int) primitives[index]) : 0;
+    }
+
+    /**
+     * Gets the {@code boolean} value of the slot.
+     *
+     * @param index index of the slot
+     * @return value of the slot or {@code false} if it is not a {@code boolean} slot
+     */
+    public boolean getBoolean(final int index) {
+        return has(index) && kinds[index] == BOOLEAN && primitives[index] != 0;
+    }
+
+    /**
+     * Gets the raw value of the slot boxing it if it is primitive.
+     *
+     * @param index index of the slot
+     * @return raw value of the slot or {@code null} if it is empty
+     */
+    public @Nullable Object getRaw(final int index) {
+        if (!has(index)) return null;
+
+        switch (kinds[index]) {
+            case BYTE: return (byte) primitives[index];
+            case INT: return (int) primitives[index];
+            case FLOAT: return Float.intBitsToFloat((int) primitives[index]);
+            case BOOLEAN: return primitives[index] != 0;
+            default: return objects[index];
+        }
+    }
+
+    /**
+     * Gets the indices of the non-empty slots of this metadata.
+     *
+     * @return indices of the non-empty slots in ascending order
+     */
+    public int @NotNull [] indices() {
+        final int[] indices = new int[size];
+
+        final byte[] thisKinds = kinds;
+        for (int index = 0, i = 0, length = thisKinds.length; index < length; index++) if (
+                thisKinds[index] != EMPTY
+        ) indices[i++] = index;
+
+        return indices;
+    }
+
+    /**
+     * Gets the amount of non-empty slots of this metadata.
+     *
+     * @return amount of non-empty slots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether this metadata has no values.
+     *
+     * @return {@code true} if all slots of this metadata are empty and {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Changes
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void markChanged(final int index) {
+        changed[index >> 6] |= 1L << index;
+    }
+
+    /**
+     * Checks whether any slot has changed since the last {@link #drainChanges()}.
+     *
+     * @return {@code true} if there are changed slots and {@code false} otherwise
+     */
+    public boolean hasChanges() {
+        for (final long bits : changed) if (bits != 0) return true;
+
+        return false;
+    }
+
+    /**
+     * Marks all non-empty slots as changed.
+     */
+    public void markAllChanged() {
+        final byte[] thisKinds = kinds;
+        for (int index = 0, length = thisKinds.length; index < length; index++) if (
+                thisKinds[index] != EMPTY
+        ) markChanged(index);
+    }
+
+    /**
+     * Marks all slots as not changed.
+     */
+    public void clearChanges() {
+        Arrays.fill(changed, 0);
+    }
+
+    /**
+     * Gets the watchable objects of the slots changed since the last call to this method marking them as not changed.
+     *
+     * @return watchable objects of the changed slots
+     */
+    public @NotNull List<WrappedWatchableObject> drainChanges() {
+        final List<WrappedWatchableObject> changes = new ArrayList<>();
+
+        final long[] thisChanged = changed;
+        for (int word = 0; word < thisChanged.length; word++) {
+            long bits = thisChanged[word];
+            while (bits != 0) {
+                final int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                changes.add(watchable(index));
+            }
+            thisChanged[word] = 0;
+        }
+
+        return changes;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Conversion
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Gets the watchable object of the slot.
+     *
+     * @param index index of the slot
+     * @return watchable object of the slot or {@code null} if it is empty
+     */
+    public @Nullable WrappedWatchableObject getWatchable(final int index) {
+        return has(index) ? watchable(index) : null;
+    }
+
+    private @NotNull WrappedWatchableObject watchable(final int index) {
+        WrappedWatchableObject watchable;
+        if ((watchable = watchables[index]) != null) return watchable;
+
+        final long primitive = primitives[index];
+        final DataWatcherFactory factory = dataWatcherFactory();
+        switch (kinds[index]) {
+            case BYTE: {
+                watchable = factory.createWatchable(index, (byte) primitive);
+                break;
+            }
+            case INT: {
+                watchable = factory.createWatchable(index, (int) primitive);
+                break;
+            }
+            case FLOAT: {
+                watchable = factory.createWatchable(index, Float.intBitsToFloat((int) primitive));
+                break;
+            }
+            case BOOLEAN: {
+                watchable = factory.createWatchable(index, primitive != 0);
+                break;
+            }
+            // object slots always have their watchables stored
+            default: throw new IllegalStateException("Slot " + index + " is empty");
+        }
+
+        return watchables[index] = watchable;
+    }
+
+    /**
+     * Gets the watchable objects of all non-empty slots of this metadata.
+     *
+     * @return watchable objects of this metadata ordered by their indices
+     */
+    public @NotNull List<WrappedWatchableObject> toWatchables() {
+        final List<WrappedWatchableObject> watchableObjects = new ArrayList<>(size);
+
+        final byte[] thisKinds = kinds;
+        for (int index = 0, length = thisKinds.length; index < length; index++) if (
+                thisKinds[index] != EMPTY
+        ) watchableObjects.add(watchable(index));
+
+        return watchableObjects;
+    }
+
+    /**
+     * Creates a data watcher containing the values of this metadata.
+     *
+     * @return created data watcher not backed by this metadata
+     */
+    public @NotNull WrappedDataWatcher toDataWatcher() {
+        return new WrappedDataWatcher(toWatchables());
+    }
+
+    /**
+     * Holder of the factory used for creating watchable objects of primitive slots
+     * lazily initialized on first access.
+     */
+    private static final class DataWatcherFactoryHolder {
+
+        private static final @NotNull DataWatcherFactory INSTANCE = NmsUtil.getDataWatcherFactory();
+    }
+}
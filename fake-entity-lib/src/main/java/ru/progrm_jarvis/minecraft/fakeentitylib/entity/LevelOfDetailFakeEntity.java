@@ -0,0 +1,374 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.commons.player.registry.PlayerRegistryRegistration;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Fake entity consisting of other fake entities (its elements) shown to each player
+ * at the level of detail depending on the distance from the player to this entity.</p>
+ * <p>Each {@link Level level} is a subset of the elements so that simplified representations
+ * (fewer elements, merged blocks or a single marker) are expressed by elements
+ * only present at the farther levels. When the player moves from one level to another
+ * only the elements which differ between the levels get spawned or despawned for them.</p>
+ * <p>This entity is meant to be managed by a fake entity observer
+ * (such as {@link ru.progrm_jarvis.minecraft.fakeentitylib.entity.observer.PeriodicFakeEntityObserver})
+ * while its elements should not be managed by anything else
+ * and should have view distances not less than the one of this entity.</p>
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+@PlayerRegistryRegistration(PlayerRegistryRegistration.Policy.MANUAL)
+public class LevelOfDetailFakeEntity extends AbstractObservableFakeEntity {
+
+    /**
+     * Level of players to whom no elements are shown
+     */
+    public static final int NOT_RENDERED = -1;
+
+    /**
+     * Empty array of elements' IDs
+     */
+    private static final int[] NO_ELEMENTS = new int[0];
+
+    /**
+     * Elements of this entity whose indices are their IDs
+     */
+    @ToString.Exclude @NonNull BasicFakeEntity[] elements;
+
+    /**
+     * Squared maximal distances of the levels ordered from the nearest level to the farthest one
+     */
+    @ToString.Exclude @NonNull double[] levelDistancesSquared;
+
+    /**
+     * Sorted IDs of the elements of each level
+     */
+    @ToString.Exclude @NonNull int[][] levelElements;
+
+    /**
+     * Levels shown to the players associated with this entity
+     */
+    @NonNull Map<Player, Integer> players;
+
+    /**
+     * Unmodifiable view of the players associated with this entity
+     */
+    @ToString.Exclude @NonNull Set<Player> playersView;
+
+    /**
+     * Initializes a newly created level-of-detail entity from parameters given.
+     *
+     * @param players map to be used as backend for this entity
+     * @param global whether this entity is global (the value returned by {@link #isGlobal()})
+     * @param location location of this entity from which the distances to the players are measured
+     * @param elements elements of this entity whose indices are their IDs
+     * @param levels levels of this entity
+     *
+     * @throws IllegalArgumentException if there are no levels or any of them references an unknown element
+     */
+    protected LevelOfDetailFakeEntity(final @NonNull Map<Player, Integer> players, final boolean global,
+                                      final @NonNull Location location,
+                                      final @NonNull List<? extends BasicFakeEntity> elements,
+                                      final @NonNull List<Level> levels) {
+        super(global, viewDistance(levels), location);
+
+        final int elementCount;
+        this.elements = elements.toArray(new BasicFakeEntity[elementCount = elements.size()]);
+
+        val orderedLevels = new ArrayList<Level>(levels);
+        orderedLevels.sort(Comparator.comparingDouble(Level::getDistance));
+
+        final int levelCount;
+        levelDistancesSquared = new double[levelCount = orderedLevels.size()];
+        levelElements = new int[levelCount][];
+        for (int i = 0; i < levelCount; i++) {
+            final Level level;
+            final double distance = (level = orderedLevels.get(i)).distance;
+            levelDistancesSquared[i] = distance * distance;
+
+            final int[] ids = level.elements;
+            for (final int id : ids) checkArgument(id < elementCount, "Unknown element ID %s", id);
+            levelElements[i] = ids;
+        }
+
+        if (!players.isEmpty()) players.clear();
+        this.players = players;
+        playersView = Collections.unmodifiableSet(players.keySet());
+    }
+
+    /**
+     * Creates a new level-of-detail entity.
+     *
+     * @param concurrent whether created entity supports concurrent modification of players related to it
+     * @param global whether created entity is global (the value returned by {@link #isGlobal()})
+     * @param location location of created entity from which the distances to the players are measured
+     * @param elements elements of created entity whose indices are their IDs
+     * @param levels levels of created entity
+     * @return created level-of-detail entity
+     *
+     * @throws IllegalArgumentException if there are no levels or any of them references an unknown element
+     */
+    public static @NotNull LevelOfDetailFakeEntity create(final boolean concurrent, final boolean global,
+                                                          final @NonNull Location location,
+                                                          final @NonNull List<? extends BasicFakeEntity> elements,
+                                                          final @NonNull List<Level> levels) {
+        return new LevelOfDetailFakeEntity(
+                concurrent ? new ConcurrentHashMap<>() : new HashMap<>(), global, location, elements, levels
+        );
+    }
+
+    private static int viewDistance(final @NonNull List<Level> levels) {
+        checkArgument(!levels.isEmpty(), "There should be at least one level");
+
+        double maxDistance = 0;
+        for (val level : levels) maxDistance = Math.max(maxDistance, level.distance);
+
+        return (int) Math.ceil(maxDistance);
+    }
+
+    /**
+     * Gets the entity ID of this entity.
+     *
+     * @return {@code -1} as this entity is only displayed by its elements
+     */
+    @Override
+    public int getEntityId() {
+        return -1;
+    }
+
+    /**
+     * Gets the amount of elements of this entity.
+     *
+     * @return amount of elements
+     */
+    public int getElementCount() {
+        return elements.length;
+    }
+
+    /**
+     * Gets the element of this entity.
+     *
+     * @param id ID of the element
+     * @return element by the given ID
+     */
+    public @NotNull BasicFakeEntity getElement(final int id) {
+        return elements[id];
+    }
+
+    /**
+     * Gets the amount of levels of this entity.
+     *
+     * @return amount of levels
+     */
+    public int getLevelCount() {
+        return levelElements.length;
+    }
+
+    /**
+     * Gets the level shown to the player.
+     *
+     * @param player player whose level should be got
+     * @return index of the level (starting from the nearest one) shown to the player
+     * or {@link #NOT_RENDERED} if none is shown or the player is not associated with this entity
+     */
+    public int getLevel(final @NonNull Player player) {
+        final Integer level;
+        return (level = players.get(player)) == null ? NOT_RENDERED : level;
+    }
+
+    /**
+     * Computes the level which should be shown to the player.
+     *
+     * @param player player for whom the level is computed
+     * @return index of the level or {@link #NOT_RENDERED} if the player should not see this entity
+     */
+    protected int computeLevel(final @NonNull Player player) {
+        if (!visible) return NOT_RENDERED;
+
+        final Location thisLocation;
+        if (player.getWorld() != (thisLocation = location).getWorld()) return NOT_RENDERED;
+
+        final double distanceSquared = player.getEyeLocation().distanceSquared(thisLocation);
+        final double[] thisLevelDistancesSquared = levelDistancesSquared;
+        final int levelCount = thisLevelDistancesSquared.length;
+        for (int level = 0; level < levelCount; level++) if (distanceSquared <= thisLevelDistancesSquared[level]) {
+            return level;
+        }
+
+        return NOT_RENDERED;
+    }
+
+    /**
+     * Switches the level shown to the player by spawning and despawning only the elements which differ.
+     *
+     * @param player player for whom the level is switched
+     * @param oldLevel level shown to the player or {@link #NOT_RENDERED} if there is none
+     * @param newLevel level which should be shown to the player or {@link #NOT_RENDERED} if none should be
+     */
+    protected void switchLevel(final @NonNull Player player, final int oldLevel, final int newLevel) {
+        if (oldLevel == newLevel) return;
+
+        final int[] oldElements = oldLevel == NOT_RENDERED ? NO_ELEMENTS : levelElements[oldLevel],
+                newElements = newLevel == NOT_RENDERED ? NO_ELEMENTS : levelElements[newLevel];
+        final int oldLength = oldElements.length, newLength = newElements.length;
+        final BasicFakeEntity[] thisElements = elements;
+
+        // both arrays are sorted so the difference is found in a single merge-like pass
+        int oldIndex = 0, newIndex = 0;
+        while (oldIndex < oldLength || newIndex < newLength) {
+            if (newIndex == newLength || oldIndex < oldLength && oldElements[oldIndex] < newElements[newIndex]) {
+                thisElements[oldElements[oldIndex++]].removePlayer(player);
+            } else if (oldIndex == oldLength || newElements[newIndex] < oldElements[oldIndex]) {
+                thisElements[newElements[newIndex++]].addPlayer(player);
+            } else { // the element is shown at both levels
+                oldIndex++;
+                newIndex++;
+            }
+        }
+    }
+
+    @Override
+    public Collection<? extends Player> getPlayers() {
+        return playersView;
+    }
+
+    @Override
+    public boolean containsPlayer(final Player player) {
+        return players.containsKey(player);
+    }
+
+    @Override
+    public void addPlayer(final Player player) {
+        final Map<Player, Integer> thisPlayers;
+        if ((thisPlayers = players).containsKey(player)) return;
+
+        final int level;
+        switchLevel(player, NOT_RENDERED, level = computeLevel(player));
+        thisPlayers.put(player, level);
+    }
+
+    @Override
+    public void removePlayer(final Player player) {
+        final Integer level;
+        if ((level = players.remove(player)) != null) switchLevel(player, level, NOT_RENDERED);
+    }
+
+    @Override
+    public boolean isRendered(final @NonNull Player player) {
+        return getLevel(player) != NOT_RENDERED;
+    }
+
+    @Override
+    public Collection<Player> getSeeingPlayers() {
+        val seeingPlayers = new HashSet<Player>();
+        for (val entry : players.entrySet()) if (entry.getValue() != NOT_RENDERED) seeingPlayers.add(entry.getKey());
+
+        return seeingPlayers;
+    }
+
+    @Override
+    public Collection<Player> getNotSeeingPlayers() {
+        val notSeeingPlayers = new HashSet<Player>();
+        for (val entry : players.entrySet()) if (entry.getValue() == NOT_RENDERED) notSeeingPlayers
+                .add(entry.getKey());
+
+        return notSeeingPlayers;
+    }
+
+    @Override
+    public void attemptRerender(final Player player) {
+        final Map<Player, Integer> thisPlayers;
+        final Integer oldLevel;
+        if ((oldLevel = (thisPlayers = players).get(player)) == null) return;
+
+        final int newLevel;
+        if ((newLevel = computeLevel(player)) != oldLevel) {
+            switchLevel(player, oldLevel, newLevel);
+            thisPlayers.put(player, newLevel);
+        }
+    }
+
+    @Override
+    public void attemptRerenderForAll() {
+        for (val entry : players.entrySet()) {
+            final Player player;
+            final int oldLevel = entry.getValue(), newLevel = computeLevel(player = entry.getKey());
+            if (newLevel != oldLevel) {
+                switchLevel(player, oldLevel, newLevel);
+                entry.setValue(newLevel);
+            }
+        }
+    }
+
+    @Override
+    public void setVisible(final boolean visible) {
+        if (this.visible == visible) return;
+
+        this.visible = visible;
+        attemptRerenderForAll();
+    }
+
+    @Override
+    public void remove() {
+        for (val entry : players.entrySet()) switchLevel(entry.getKey(), entry.getValue(), NOT_RENDERED);
+        players.clear();
+
+        for (val element : elements) element.remove();
+    }
+
+    /**
+     * Level of detail of a {@link LevelOfDetailFakeEntity}.
+     */
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Level {
+
+        /**
+         * Maximal distance from the player to the entity at which this level is shown
+         * unless a nearer level is also applicable
+         */
+        double distance;
+
+        /**
+         * Sorted unique IDs of the elements shown at this level
+         */
+        @Getter(AccessLevel.NONE) @NonNull int[] elements;
+
+        /**
+         * Creates a new level.
+         *
+         * @param distance maximal distance from the player to the entity at which the level is shown
+         * @param elements IDs of the elements shown at the level
+         * @return created level
+         *
+         * @throws IllegalArgumentException if the distance or any of the IDs is negative
+         */
+        public static @NotNull Level of(final double distance, final int... elements) {
+            checkArgument(distance >= 0, "distance should be non-negative");
+
+            final int[] ids = Arrays.stream(elements).distinct().sorted().toArray();
+            checkArgument(ids.length == 0 || ids[0] >= 0, "Element IDs should be non-negative");
+
+            return new Level(distance, ids);
+        }
+
+        /**
+         * Gets the IDs of the elements shown at this level.
+         *
+         * @return sorted unique IDs of the elements
+         */
+        public int @NotNull [] getElements() {
+            return elements.clone();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity;
+
+import com.comphenix.protocol.wrappers.WrappedDataWatcher;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.nms.NmsUtil;
+import ru.progrm_jarvis.minecraft.commons.nms.protocol.misc.PacketSender;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Factory of {@link SimpleLivingFakeEntity living fake entities} of a single type
+ * which recycles the entities (along with their packets) once they are {@link FakeEntity#remove() removed}.</p>
+ * <p>Pooled entities use IDs from a reserved range, which is not used by the server,
+ * and each entity keeps its ID so that the range bounds the amount of pooled entities.
+ * Removed entities are only reused after the despawn delay so that the packets still referring
+ * to the old entity (such as interactions sent by the clients before the despawn) do not affect the new one.
+ * Once the whole range is in use the entities get regular IDs and are not pooled.</p>
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class PooledLivingFakeEntityFactory {
+
+    /**
+     * First entity ID of the default reserved range
+     */
+    public static final int DEFAULT_FIRST_ENTITY_ID = 0x7FF00000;
+
+    /**
+     * Default amount of entity IDs in the reserved range
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Default delay after which removed entities can be reused
+     */
+    public static final long DEFAULT_DESPAWN_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @NonNull EntityType type;
+    boolean concurrent;
+    boolean global;
+    int viewDistance;
+    @Nullable PacketSender packetSender;
+
+    /**
+     * Last entity ID (exclusive) of the reserved range
+     */
+    int entityIdsEnd;
+
+    /**
+     * Delay (in nanoseconds) after which removed entities can be reused
+     */
+    long despawnDelay;
+
+    /**
+     * Source of time (in nanoseconds) used for the despawn delay
+     */
+    @ToString.Exclude @NonNull LongSupplier clock;
+
+    /**
+     * Entities ready to be reused
+     */
+    @ToString.Exclude @NonNull Deque<PooledLivingFakeEntity> idle = new ArrayDeque<>();
+
+    /**
+     * Removed entities waiting for the despawn delay ordered by their removal time
+     */
+    @ToString.Exclude @NonNull Deque<PooledLivingFakeEntity> cooling = new ArrayDeque<>();
+
+    /**
+     * Lock guarding the state of this pool
+     */
+    @ToString.Exclude @NonNull Object lock = new Object();
+
+    /**
+     * Next unused entity ID of the reserved range
+     */
+    @NonFinal int nextEntityId;
+
+    @NonFinal long created, reused, overflowed, released;
+
+    /**
+     * Creates a new pooled fake entity factory.
+     *
+     * @param type type of the created entities
+     * @param concurrent whether created entities support concurrent modification of players related to them
+     * @param global whether created entities are global
+     * @param viewDistance view distance of created entities
+     * @param packetSender sender to be used for sending the packets or {@code null} to send them directly
+     * @param firstEntityId first entity ID of the reserved range
+     * @param capacity amount of entity IDs in the reserved range
+     * @param despawnDelayNanos delay (in nanoseconds) after which removed entities can be reused
+     * @param clock source of time (in nanoseconds) or {@code null} to use {@link System#nanoTime()}
+     *
+     * @throws IllegalArgumentException if the range is invalid or the delay is negative
+     */
+    @Builder
+    private PooledLivingFakeEntityFactory(final @NonNull EntityType type, final boolean concurrent,
+                                          final boolean global, final int viewDistance,
+                                          final @Nullable PacketSender packetSender,
+                                          final Integer firstEntityId, final Integer capacity,
+                                          final Long despawnDelayNanos, final @Nullable LongSupplier clock) {
+        final int first = firstEntityId == null ? DEFAULT_FIRST_ENTITY_ID : firstEntityId,
+                size = capacity == null ? DEFAULT_CAPACITY : capacity;
+        checkArgument(size >= 0, "capacity should be non-negative");
+        checkArgument((long) first + size <= Integer.MAX_VALUE, "Entity ID range should fit into int");
+
+        this.type = type;
+        this.concurrent = concurrent;
+        this.global = global;
+        this.viewDistance = viewDistance;
+        this.packetSender = packetSender;
+
+        nextEntityId = first;
+        entityIdsEnd = first + size;
+
+        checkArgument((despawnDelay = despawnDelayNanos == null ? DEFAULT_DESPAWN_DELAY_NANOS : despawnDelayNanos)
+                >= 0, "despawnDelayNanos should be non-negative");
+        this.clock = clock == null ? System::nanoTime : clock;
+    }
+
+    /**
+     * Gets a fake entity reusing a removed one if possible.
+     *
+     * @param visible whether the entity should be visible
+     * @param location location of the entity
+     * @param headPitch head pitch of the entity
+     * @param velocity velocity of the entity or {@code null} if it should have none
+     * @param metadata metadata of the entity or {@code null} if it should have none
+     * @return fake entity which will be returned to this pool once it is removed
+     */
+    public @NotNull SimpleLivingFakeEntity acquire(final boolean visible, final @NonNull Location location,
+                                                   final float headPitch, final @Nullable Vector velocity,
+                                                   final @Nullable WrappedDataWatcher metadata) {
+        final PooledLivingFakeEntity entity;
+        synchronized (lock) {
+            final long now = clock.getAsLong();
+            final Deque<PooledLivingFakeEntity> thisIdle = idle, thisCooling = cooling;
+            PooledLivingFakeEntity cooled;
+            while ((cooled = thisCooling.peekFirst()) != null && now - cooled.releaseTime >= despawnDelay) {
+                thisIdle.addLast(thisCooling.pollFirst());
+            }
+
+            if ((entity = thisIdle.pollLast()) != null) {
+                reused++;
+                entity.released = false;
+            } else if (nextEntityId < entityIdsEnd) {
+                created++;
+
+                return new PooledLivingFakeEntity(
+                        this, true, nextEntityId++, visible, location, headPitch, velocity, metadata
+                );
+            } else overflowed++;
+        }
+
+        if (entity == null) return new PooledLivingFakeEntity(
+                this, false, NmsUtil.nextEntityId(), visible, location, headPitch, velocity, metadata
+        );
+
+        entity.reset(
+                visible, location, headPitch, velocity, metadata == null ? null : metadata.getWatchableObjects()
+        );
+
+        return entity;
+    }
+
+    /**
+     * Returns the removed entity to this pool.
+     *
+     * @param entity removed entity
+     */
+    private void release(final @NotNull PooledLivingFakeEntity entity) {
+        synchronized (lock) {
+            if (entity.released) return;
+
+            entity.released = true;
+            entity.releaseTime = clock.getAsLong();
+            cooling.addLast(entity);
+            released++;
+        }
+    }
+
+    /**
+     * Gets the statistics of this pool.
+     *
+     * @return snapshot of this pool's statistics
+     */
+    public @NotNull Statistics getStatistics() {
+        synchronized (lock) {
+            return new Statistics(created, reused, overflowed, released, idle.size(), cooling.size());
+        }
+    }
+
+    /**
+     * Statistics of a {@link PooledLivingFakeEntityFactory}.
+     */
+    @Value
+    public static class Statistics {
+
+        /**
+         * Amount of entities created with IDs from the reserved range
+         */
+        long created;
+
+        /**
+         * Amount of entities reused after their removal
+         */
+        long reused;
+
+        /**
+         * Amount of entities created with regular IDs as the reserved range was exhausted
+         */
+        long overflowed;
+
+        /**
+         * Amount of pooled entities returned to the pool
+         */
+        long released;
+
+        /**
+         * Amount of entities ready to be reused
+         */
+        int idle;
+
+        /**
+         * Amount of removed entities waiting for the despawn delay
+         */
+        int cooling;
+    }
+
+    @ToString(callSuper = true)
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class PooledLivingFakeEntity extends SimpleLivingFakeEntity {
+
+        final @NotNull PooledLivingFakeEntityFactory pool;
+        final boolean pooled;
+        boolean released;
+        long releaseTime;
+
+        private PooledLivingFakeEntity(final @NotNull PooledLivingFakeEntityFactory pool, final boolean pooled,
+                                       final int entityId, final boolean visible, final @NotNull Location location,
+                                       final float headPitch, final @Nullable Vector velocity,
+                                       final @Nullable WrappedDataWatcher metadata) {
+            super(
+                    entityId, UUID.randomUUID(), pool.type, createPlayersMap(pool.concurrent),
+                    pool.global, pool.viewDistance, visible, location.clone(), headPitch,
+                    velocity == null ? null : velocity.clone(), metadata, pool.packetSender
+            );
+
+            this.pool = pool;
+            this.pooled = pooled;
+        }
+
+        private static @NotNull Map<Player, Boolean> createPlayersMap(final boolean concurrent) {
+            return concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        }
+
+        @Override
+        public void remove() {
+            super.remove();
+
+            if (pooled) pool.release(this);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.progrm_jarvis.minecraft.fakeentitylib.entity;
 
 import com.comphenix.packetwrapper.*;
 import com.comphenix.protocol.wrappers.WrappedDataWatcher;
+import com.comphenix.protocol.wrappers.WrappedWatchableObject;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
@@ -12,7 +13,10 @@ import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ru.progrm_jarvis.minecraft.commons.nms.NmsUtil;
+import ru.progrm_jarvis.minecraft.commons.nms.protocol.misc.PacketSender;
+import ru.progrm_jarvis.minecraft.commons.nms.protocol.misc.WirePacketCache;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -67,6 +71,11 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
      */
     @Getter final int viewDistance;
 
+    /**
+     * Sender used for sending this fake entity's packets
+     */
+    final @NonNull PacketSender packetSender;
+
     ///////////////////////////////////////////////////////////////////////////
     // Entity changing parameters
     ///////////////////////////////////////////////////////////////////////////
@@ -76,11 +85,6 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
      */
     float headPitch;
 
-    /**
-     * Metadata of this fake entity
-     */
-    @Getter @Nullable WrappedDataWatcher metadata;
-
     // packets should not be created before id is generated
 
     /**
@@ -125,6 +129,58 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
      */
     WrapperPlayServerEntityVelocity velocityPacket;
 
+    /**
+     * Packet used for sending changed metadata of this fake entity
+     */
+    WrapperPlayServerEntityMetadata metadataChangesPacket;
+
+    /**
+     * Packet used for sending changed metadata of this fake entity to a specific player
+     */
+    WrapperPlayServerEntityMetadata viewerMetadataChangesPacket;
+
+    ///////////////////////////////////////////////////////////////////////////
+    // Packet caching
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Whether or not spawn-related packets of this fake entity are sent in pre-serialized form
+     * so that each of them gets serialized once per its state rather than once per each receiver.
+     *
+     * @apiNote pre-serialized packets are not passed through the packet listeners
+     */
+    @Getter @Setter boolean cachingPackets;
+
+    /**
+     * Cache of the serialized {@link #spawnPacket}
+     */
+    final @NonNull WirePacketCache spawnPacketCache = new WirePacketCache();
+
+    /**
+     * Cache of the serialized {@link #metadataPacket}
+     */
+    final @NonNull WirePacketCache metadataPacketCache = new WirePacketCache();
+
+    /**
+     * Location written to {@link #spawnPacket} on its last actualization
+     */
+    @Nullable Location spawnPacketLocation;
+
+    /**
+     * Velocity written to {@link #spawnPacket} on its last actualization
+     */
+    @Nullable Vector spawnPacketVelocity;
+
+    /**
+     * Head pitch written to {@link #spawnPacket} on its last actualization
+     */
+    float spawnPacketHeadPitch;
+
+    /**
+     * Whether or not {@link #metadataPacket} does not reflect the current metadata
+     */
+    boolean metadataPacketOutdated = true;
+
     @Builder
     public SimpleLivingFakeEntity(final int entityId, final @Nullable UUID uuid,
                                   // Start of entities properties, TODO specific class
@@ -133,7 +189,8 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
                                   final @NonNull Map<Player, Boolean> players,
                                   final boolean global, final int viewDistance,
                                   boolean visible, final @NonNull Location location, float headPitch,
-                                  final @Nullable Vector velocity, final @Nullable WrappedDataWatcher metadata) {
+                                  final @Nullable Vector velocity, final @Nullable WrappedDataWatcher metadata,
+                                  final @Nullable PacketSender packetSender) {
         super(global, viewDistance, location, players, velocity, metadata);
 
         // setup fields
@@ -150,7 +207,7 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
 
         this.headPitch = headPitch;
 
-        this.metadata = metadata;
+        this.packetSender = packetSender == null ? PacketSender.direct() : packetSender;
 
         // setup packets
 
@@ -176,8 +233,38 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
      * @param player player to whom to spawn this entity
      */
     protected void performSpawnNoChecks(final Player player) {
-        spawnPacket.sendPacket(player);
-        metadataPacket.sendPacket(player);
+        sendPacket(player, spawnPacket, spawnPacketCache);
+
+        final WrapperPlayServerEntityMetadata thisMetadataPacket;
+        if ((thisMetadataPacket = metadataPacket) != null) sendPacket(player, thisMetadataPacket, metadataPacketCache);
+
+        sendMetadataOverride(player);
+    }
+
+    /**
+     * Sends the player's metadata override to the player if there is one.
+     *
+     * @param player player to whom the metadata override should be sent
+     */
+    protected void sendMetadataOverride(final @NotNull Player player) {
+        // the shared metadata packet is sent as is and the override is applied above it
+        final FakeEntityMetadata override;
+        if ((override = getMetadataOverride(player)) != null && !override.isEmpty()) sendMetadataChanges(
+                player, override.toWatchables()
+        );
+    }
+
+    /**
+     * Sends the packet to the player using its serialized form if {@link #cachingPackets packet caching} is enabled.
+     *
+     * @param player player to whom the packet should be sent
+     * @param packet packet to send
+     * @param cache cache of the packet's serialized form
+     */
+    protected void sendPacket(final @NotNull Player player, final @NotNull AbstractPacket packet,
+                              final @NotNull WirePacketCache cache) {
+        if (cachingPackets) packetSender.send(player, cache.get(packet));
+        else packetSender.send(player, packet);
     }
 
     /**
@@ -187,42 +274,89 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
      * @param player player to whom to despawn this entity
      */
     protected void performDespawnNoChecks(final Player player) {
-        despawnPacket.sendPacket(player);
+        packetSender.send(player, despawnPacket);
     }
 
     protected void actualizeSpawnPacket() {
-        final WrapperPlayServerSpawnEntityLiving thisSpawnPacket;
-        {
-            final Location thisLocation;
-            (thisSpawnPacket = spawnPacket).setX((thisLocation = location).getX());
-            thisSpawnPacket.setY(thisLocation.getY());
-            thisSpawnPacket.setZ(thisLocation.getZ());
-
-            thisSpawnPacket.setPitch(thisLocation.getPitch());
-            thisSpawnPacket.setYaw(thisLocation.getYaw());
-            thisSpawnPacket.setHeadPitch(headPitch);
-        }
+        // new viewers should see the entity where the others do so that the buffered movement is valid for them too
+        final Location thisLocation = getViewedLocation(), actualizedLocation;
+        final Vector thisVelocity = velocity, actualizedVelocity;
+        // the packet (and its cache) should only be updated if the state has changed since the last actualization
+        if ((actualizedLocation = spawnPacketLocation) != null && actualizedLocation.equals(thisLocation)
+                && spawnPacketHeadPitch == headPitch
+                && (actualizedVelocity = spawnPacketVelocity) != null
+                && actualizedVelocity.equals(thisVelocity)) return;
 
-        {
-            final Vector thisVelocity;
-            thisSpawnPacket.setVelocityX((thisVelocity = velocity).getX());
-            thisSpawnPacket.setVelocityY(thisVelocity.getY());
-            thisSpawnPacket.setVelocityZ(thisVelocity.getZ());
-        }
+        final WrapperPlayServerSpawnEntityLiving thisSpawnPacket;
+        (thisSpawnPacket = spawnPacket).setX(thisLocation.getX());
+        thisSpawnPacket.setY(thisLocation.getY());
+        thisSpawnPacket.setZ(thisLocation.getZ());
+
+        thisSpawnPacket.setPitch(thisLocation.getPitch());
+        thisSpawnPacket.setYaw(thisLocation.getYaw());
+        thisSpawnPacket.setHeadPitch(headPitch);
+
+        thisSpawnPacket.setVelocityX(thisVelocity.getX());
+        thisSpawnPacket.setVelocityY(thisVelocity.getY());
+        thisSpawnPacket.setVelocityZ(thisVelocity.getZ());
+
+        spawnPacketLocation = thisLocation.clone();
+        spawnPacketVelocity = thisVelocity.clone();
+        spawnPacketHeadPitch = headPitch;
+        spawnPacketCache.invalidate();
     }
 
-    protected void actualizeMetadataPacket(final @NotNull WrappedDataWatcher metadata) {
+    protected void actualizeMetadataPacket(final @NotNull FakeEntityMetadata metadata) {
         WrapperPlayServerEntityMetadata thisMetadataPacket;
         if ((thisMetadataPacket = metadataPacket) == null) {
             metadataPacket = thisMetadataPacket = new WrapperPlayServerEntityMetadata();
             thisMetadataPacket.setEntityID(entityId);
         }
-        thisMetadataPacket.setMetadata(metadata.getWatchableObjects());
+        thisMetadataPacket.setMetadata(metadata.toWatchables());
+
+        metadataPacketOutdated = false;
+        metadataPacketCache.invalidate();
     }
 
     protected void actualizeMetadataPacket() {
-        final WrappedDataWatcher thisMetadata;
-        if ((thisMetadata = metadata) != null) actualizeMetadataPacket(thisMetadata);
+        // metadata can only be modified via this entity's methods so the packet is only updated once it is outdated
+        if (!metadataPacketOutdated) return;
+
+        final FakeEntityMetadata thisMetadata;
+        if ((thisMetadata = metadata).isEmpty()) {
+            metadataPacket = null;
+            metadataPacketOutdated = false;
+            metadataPacketCache.invalidate();
+        } else actualizeMetadataPacket(thisMetadata);
+    }
+
+    /**
+     * Resets the state of this fake entity so that it can be reused as a newly created one
+     * keeping its entity ID and packet objects.
+     *
+     * @param visible whether this entity should be visible
+     * @param location new location of this entity
+     * @param headPitch new head pitch of this entity
+     * @param velocity new velocity of this entity or {@code null} if it should have none
+     * @param metadata new metadata of this entity or {@code null} if it should have none
+     *
+     * @apiNote this method does not send any packets so it should only be called
+     * while this entity is not rendered for any player,
+     * the settings of this entity (such as {@link #isCachingPackets() packet caching}) are reset to their defaults
+     */
+    protected void reset(final boolean visible, final @NonNull Location location, final float headPitch,
+                         final @Nullable Vector velocity, final @Nullable Iterable<WrappedWatchableObject> metadata) {
+        reset(location, velocity, metadata);
+
+        this.visible = visible;
+        this.headPitch = headPitch;
+        cachingPackets = false;
+
+        // packets get actualized on the next spawn
+        spawnPacketLocation = null;
+        spawnPacketCache.invalidate();
+        metadataPacketOutdated = true;
+        metadataPacketCache.invalidate();
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -301,12 +435,13 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
             final Set<Map.Entry<Player, Boolean>> entries;
             if ((!(entries = players.entrySet()).isEmpty())) {
                 val thisVelocityPacket = sendVelocity ? velocityPacket : null;
+                val thisPacketSender = packetSender;
 
                 for (val entry : entries) if (entry.getValue()) {
                     val player = entry.getKey();
 
-                    if (sendVelocity) thisVelocityPacket.sendPacket(player);
-                    thisMoveLookPacket.sendPacket(player);
+                    if (sendVelocity) thisPacketSender.send(player, thisVelocityPacket);
+                    thisPacketSender.send(player, thisMoveLookPacket);
                 }
             }
         }
@@ -333,12 +468,13 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
             final Set<Map.Entry<Player, Boolean>> entries;
             if ((!(entries = players.entrySet()).isEmpty())) {
                 val thisVelocityPacket = sendVelocity ? velocityPacket : null;
+                val thisPacketSender = packetSender;
 
                 for (val entry : entries) if (entry.getValue()) {
                     val player = entry.getKey();
 
-                    if (sendVelocity) thisVelocityPacket.sendPacket(player);
-                    thisMovePacket.sendPacket(player);
+                    if (sendVelocity) thisPacketSender.send(player, thisVelocityPacket);
+                    thisPacketSender.send(player, thisMovePacket);
                 }
             }
         }
@@ -368,12 +504,13 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
             final Set<Map.Entry<Player, Boolean>> entries;
             if ((!(entries = players.entrySet()).isEmpty())) {
                 val thisVelocityPacket = sendVelocity ? velocityPacket : null;
+                val thisPacketSender = packetSender;
 
                 for (val entry : entries) if (entry.getValue()) {
                     val player = entry.getKey();
 
-                    if (sendVelocity) thisVelocityPacket.sendPacket(player);
-                    thisTeleportPacket.sendPacket(player);
+                    if (sendVelocity) thisPacketSender.send(player, thisVelocityPacket);
+                    thisPacketSender.send(player, thisTeleportPacket);
                 }
             }
         }
@@ -392,7 +529,9 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
             thisLookPacket.setPitch(pitch);
             thisLookPacket.setOnGround(isOnGround());
 
-            for (val entry : players.entrySet()) if (entry.getValue()) thisLookPacket.sendPacket(entry.getKey());
+            val thisPacketSender = packetSender;
+            for (val entry : players.entrySet()) if (entry.getValue()) thisPacketSender
+                    .send(entry.getKey(), thisLookPacket);
         }
     }
 
@@ -400,21 +539,52 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
     // Metadata
     ///////////////////////////////////////////////////////////////////////////
 
-    /**
-     * Sends metadata to all players seeing this entity creating packet if it has not yet been initialized.
-     */
     @Override
-    protected void sendMetadata() {
+    protected void sendMetadataChanges(final @NotNull List<WrappedWatchableObject> changes) {
         if (visible) {
-            final WrappedDataWatcher thisMetadata;
-            if ((thisMetadata = metadata) == null) return;
+            WrapperPlayServerEntityMetadata thisMetadataChangesPacket;
+            if ((thisMetadataChangesPacket = metadataChangesPacket) == null) {
+                metadataChangesPacket = thisMetadataChangesPacket = new WrapperPlayServerEntityMetadata();
+                thisMetadataChangesPacket.setEntityID(entityId);
+            }
+            thisMetadataChangesPacket.setMetadata(changes);
+
+            val thisPacketSender = packetSender;
+            for (val entry : players.entrySet()) if (entry.getValue()) {
+                final Player player = entry.getKey();
+                final List<WrappedWatchableObject> viewerChanges;
+                // players whose overrides intersect with the changes get their own packet without the overridden ones
+                if ((viewerChanges = getViewerMetadataChanges(player, changes)) == changes) thisPacketSender
+                        .send(player, thisMetadataChangesPacket);
+                else if (!viewerChanges.isEmpty()) sendMetadataChanges(player, viewerChanges);
+            }
+        }
+    }
 
-            actualizeMetadataPacket(thisMetadata);
+    @Override
+    protected void sendMetadataChanges(final @NotNull Player player,
+                                       final @NotNull List<WrappedWatchableObject> changes) {
+        if (visible) {
+            // the packet may be reused as packet senders do not rely on the packet after sending it
+            WrapperPlayServerEntityMetadata thisViewerMetadataChangesPacket;
+            if ((thisViewerMetadataChangesPacket = viewerMetadataChangesPacket) == null) {
+                viewerMetadataChangesPacket = thisViewerMetadataChangesPacket = new WrapperPlayServerEntityMetadata();
+                thisViewerMetadataChangesPacket.setEntityID(entityId);
+            }
+            thisViewerMetadataChangesPacket.setMetadata(changes);
 
-            for (val entry : players.entrySet()) if (entry.getValue()) metadataPacket.sendPacket(entry.getKey());
+            packetSender.send(player, thisViewerMetadataChangesPacket);
         }
     }
 
+    @Override
+    protected void onMetadataChanged() {
+        // spawn packets should contain the actual metadata even if the changes are not yet flushed
+        metadataPacketOutdated = true;
+
+        super.onMetadataChanged();
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // Rendering
     ///////////////////////////////////////////////////////////////////////////
@@ -454,5 +624,6 @@ public class SimpleLivingFakeEntity extends AbstractBasicFakeEntity {
         despawn();
 
         players.clear();
+        metadataOverrides = null;
     }
 }
@@ -0,0 +1,30 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity.behaviour;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
+
+/**
+ * Dispatcher responsible for delivering interactions to {@link InteractableFakeEntity fake entities}.
+ *
+ * @param <E> type of entities to which the interactions are dispatched
+ *
+ * @see FakeEntityInteractionDispatchers for standard implementations
+ */
+@FunctionalInterface
+public interface FakeEntityInteractionDispatcher<E extends InteractableFakeEntity> extends Shutdownable {
+
+    /**
+     * Dispatches the interaction of the player with the entity.
+     *
+     * @param entity entity with which the player has interacted
+     * @param player player who has interacted with the entity
+     * @param interaction interaction performed by the player
+     *
+     * @apiNote this method may be called from any thread, normally the one on which the packet was received
+     */
+    void dispatch(@NotNull E entity, @NotNull Player player, @NotNull FakeEntityInteraction interaction);
+
+    @Override
+    default void shutdown() {}
+}
@@ -0,0 +1,261 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity.behaviour;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.UtilityClass;
+import lombok.extern.java.Log;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.management.FakeEntityManager;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Standard implementations of {@link FakeEntityInteractionDispatcher}.
+ */
+@Log
+@UtilityClass
+public class FakeEntityInteractionDispatchers {
+
+    /**
+     * Creates a dispatcher which calls {@link InteractableFakeEntity#handleInteraction(Player, FakeEntityInteraction)}
+     * directly on the thread on which the interaction was dispatched.
+     *
+     * @param <E> type of entities to which the interactions are dispatched
+     * @return direct dispatcher
+     */
+    public <E extends InteractableFakeEntity> FakeEntityInteractionDispatcher<E> direct() {
+        return (entity, player, interaction) -> entity.handleInteraction(player, interaction);
+    }
+
+    /**
+     * Creates a dispatcher which queues the interactions and handles them on the main thread
+     * in a single batch per tick preserving the order in which they were dispatched.
+     *
+     * @param plugin plugin whose task will handle the queued interactions
+     * @param <E> type of entities to which the interactions are dispatched
+     * @return main thread dispatcher
+     */
+    public <E extends InteractableFakeEntity> FakeEntityInteractionDispatcher<E> mainThread(
+            final @NonNull Plugin plugin
+    ) {
+        return new MainThreadDispatcher<>(plugin);
+    }
+
+    /**
+     * Creates a dispatcher which handles the interactions using the specified executor.
+     * Interactions with the same entity are handled sequentially in the order in which they were dispatched
+     * while interactions with different entities may be handled concurrently.
+     *
+     * @param executor executor to be used for handling the interactions
+     * @param <E> type of entities to which the interactions are dispatched
+     * @return executor-based dispatcher
+     */
+    public <E extends InteractableFakeEntity> FakeEntityInteractionDispatcher<E> executor(
+            final @NonNull Executor executor
+    ) {
+        return new ExecutorDispatcher<>(executor);
+    }
+
+    /**
+     * Creates a dispatcher which drops the interactions of players exceeding the specified rate
+     * delegating all others to the specified dispatcher.
+     *
+     * @param dispatcher dispatcher to which the non-dropped interactions get delegated
+     * @param maxInteractions maximal amount of interactions of a single player per period
+     * @param period period in which the interactions are counted
+     * @param unit time unit of the period
+     * @param <E> type of entities to which the interactions are dispatched
+     * @return rate-limiting dispatcher
+     */
+    public <E extends InteractableFakeEntity> FakeEntityInteractionDispatcher<E> rateLimited(
+            final @NonNull FakeEntityInteractionDispatcher<E> dispatcher,
+            final int maxInteractions, final long period, final @NonNull TimeUnit unit
+    ) {
+        checkArgument(maxInteractions > 0, "maxInteractions should be positive");
+        checkArgument(period > 0, "period should be positive");
+
+        return new RateLimitingDispatcher<>(dispatcher, maxInteractions, unit.toNanos(period));
+    }
+
+    private void handleInteraction(final @NotNull InteractableFakeEntity entity, final @NotNull Player player,
+                                   final @NotNull FakeEntityInteraction interaction) {
+        try {
+            entity.handleInteraction(player, interaction);
+        } catch (final Throwable e) {
+            log.log(Level.SEVERE, "An exception occurred while handling " + interaction + " of " + player
+                    + " with " + entity, e);
+        }
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class PendingInteraction<E extends InteractableFakeEntity> {
+
+        @NonNull E entity;
+        @NonNull Player player;
+        @NonNull FakeEntityInteraction interaction;
+    }
+
+    @ToString
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class MainThreadDispatcher<E extends InteractableFakeEntity>
+            implements FakeEntityInteractionDispatcher<E>, Runnable {
+
+        @ToString.Exclude @NonNull Queue<PendingInteraction<E>> interactions = new ConcurrentLinkedQueue<>();
+        @NonNull BukkitTask task;
+
+        private MainThreadDispatcher(final @NonNull Plugin plugin) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1, 1);
+        }
+
+        @Override
+        public void dispatch(final @NotNull E entity, final @NotNull Player player,
+                             final @NotNull FakeEntityInteraction interaction) {
+            interactions.add(new PendingInteraction<>(entity, player, interaction));
+        }
+
+        @Override
+        public void run() {
+            val thisInteractions = interactions;
+            PendingInteraction<E> interaction;
+            while ((interaction = thisInteractions.poll()) != null) handleInteraction(
+                    interaction.getEntity(), interaction.getPlayer(), interaction.getInteraction()
+            );
+        }
+
+        @Override
+        public void shutdown() {
+            task.cancel();
+            interactions.clear();
+        }
+    }
+
+    @ToString
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class ExecutorDispatcher<E extends InteractableFakeEntity>
+            implements FakeEntityInteractionDispatcher<E> {
+
+        @NonNull Executor executor;
+        /**
+         * Queues of interactions by entities, a queue is present only while its draining is scheduled
+         */
+        @ToString.Exclude @NonNull Map<E, EntityQueue> queues = new ConcurrentHashMap<>();
+
+        private ExecutorDispatcher(final @NonNull Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void dispatch(final @NotNull E entity, final @NotNull Player player,
+                             final @NotNull FakeEntityInteraction interaction) {
+            // the queue is only created (and thus scheduled) if there is no queue being drained at the moment
+            val created = new boolean[1];
+            val queue = queues.compute(entity, (key, entityQueue) -> {
+                if (entityQueue == null) {
+                    entityQueue = new EntityQueue(key);
+                    created[0] = true;
+                }
+                entityQueue.interactions.add(new PendingInteraction<>(key, player, interaction));
+
+                return entityQueue;
+            });
+
+            if (created[0]) executor.execute(queue);
+        }
+
+        @Override
+        public void shutdown() {
+            queues.clear();
+        }
+
+        @RequiredArgsConstructor
+        @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+        private final class EntityQueue implements Runnable {
+
+            @NonNull E entity;
+            @NonNull Queue<PendingInteraction<E>> interactions = new ConcurrentLinkedQueue<>();
+
+            @Override
+            public void run() {
+                val thisInteractions = interactions;
+                do {
+                    PendingInteraction<E> interaction;
+                    while ((interaction = thisInteractions.poll()) != null) handleInteraction(
+                            interaction.getEntity(), interaction.getPlayer(), interaction.getInteraction()
+                    );
+                    // the queue gets removed atomically with the check so that no interaction gets lost
+                } while (queues.computeIfPresent(
+                        entity, (key, queue) -> queue == this && queue.interactions.isEmpty() ? null : queue
+                ) == this);
+            }
+        }
+    }
+
+    @ToString
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class RateLimitingDispatcher<E extends InteractableFakeEntity>
+            implements FakeEntityInteractionDispatcher<E> {
+
+        @NonNull FakeEntityInteractionDispatcher<E> dispatcher;
+        int maxInteractions;
+        long periodNanos;
+        /**
+         * Rates of players, players are stored weakly as they are unique per session
+         */
+        @ToString.Exclude @NonNull Map<Player, PlayerRate> rates = FakeEntityManager.concurrentWeakEntityMap();
+
+        private RateLimitingDispatcher(final @NonNull FakeEntityInteractionDispatcher<E> dispatcher,
+                                       final int maxInteractions, final long periodNanos) {
+            this.dispatcher = dispatcher;
+            this.maxInteractions = maxInteractions;
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public void dispatch(final @NotNull E entity, final @NotNull Player player,
+                             final @NotNull FakeEntityInteraction interaction) {
+            if (rates.computeIfAbsent(player, newPlayer -> new PlayerRate()).tryAcquire(
+                    System.nanoTime(), maxInteractions, periodNanos
+            )) dispatcher.dispatch(entity, player, interaction);
+        }
+
+        @Override
+        public void shutdown() {
+            rates.clear();
+            dispatcher.shutdown();
+        }
+
+        @FieldDefaults(level = AccessLevel.PRIVATE)
+        private static final class PlayerRate {
+
+            long periodStart;
+            int interactions;
+
+            private synchronized boolean tryAcquire(final long now, final int maxInteractions,
+                                                    final long periodNanos) {
+                if (interactions == 0 || now - periodStart >= periodNanos) {
+                    periodStart = now;
+                    interactions = 1;
+
+                    return true;
+                }
+
+                if (interactions >= maxInteractions) return false;
+
+                interactions++;
+                return true;
+            }
+        }
+    }
+}
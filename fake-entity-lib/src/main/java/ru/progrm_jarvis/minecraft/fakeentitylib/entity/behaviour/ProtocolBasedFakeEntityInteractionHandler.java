@@ -5,17 +5,25 @@ import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.ProtocolManager;
 import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
 import com.comphenix.protocol.wrappers.EnumWrappers;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import lombok.*;
 import lombok.experimental.Delegate;
 import lombok.experimental.FieldDefaults;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 import ru.progrm_jarvis.minecraft.commons.util.shutdown.ShutdownHooks;
 import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
 import ru.progrm_jarvis.minecraft.fakeentitylib.entity.behaviour.FakeEntityInteraction.Hand;
 import ru.progrm_jarvis.minecraft.fakeentitylib.entity.management.FakeEntityManager;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.management.FakeEntityRegistry;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
@@ -33,9 +41,39 @@ public class ProtocolBasedFakeEntityInteractionHandler<E extends InteractableFak
     @NonNull Set<E> entities;
     @NonNull Set<E> entitiesView;
 
+    /**
+     * Registry of managed entities used for fast lookup of the packet target
+     * or {@code null} if the entities are stored weakly and are looked up using {@link #entitiesById}
+     */
+    @Nullable FakeEntityRegistry<E> registry;
+
+    /**
+     * Index of managed entities by their entity IDs used for fast lookup of the packet target
+     * or {@code null} if the entities are stored in {@link #registry}.
+     * Entities are referenced weakly so that the index does not prevent them from being collected.
+     */
+    @Nullable Int2ObjectMap<Reference<E>> entitiesById;
+
+    /**
+     * Dispatcher used for delivering the interactions to the entities
+     */
+    @ToString.Include @NonNull FakeEntityInteractionDispatcher<E> dispatcher;
+
     @Delegate(types = Shutdownable.class) @NonNull ShutdownHooks shutdownHooks;
 
-    public ProtocolBasedFakeEntityInteractionHandler(final @NonNull Plugin plugin, final boolean concurrent) {
+    /**
+     * Creates a new interaction handler.
+     *
+     * @param plugin plugin owning this interaction handler
+     * @param concurrent whether or not this interaction handler should be thread-safe
+     * @param explicitLifecycle whether the entities are stored in a {@link FakeEntityRegistry}
+     * so that they have to be {@link #unmanageEntity(InteractableFakeEntity) unmanaged} explicitly
+     * rather than being referenced weakly
+     * @param dispatcher dispatcher to be used for delivering the interactions to the entities
+     */
+    public ProtocolBasedFakeEntityInteractionHandler(final @NonNull Plugin plugin, final boolean concurrent,
+                                                     final boolean explicitLifecycle,
+                                                     final @NonNull FakeEntityInteractionDispatcher<E> dispatcher) {
         super(
                 checkNotNull(plugin, "plugin should not be null"),
                 PacketType.Play.Client.USE_ENTITY
@@ -44,16 +82,50 @@ public class ProtocolBasedFakeEntityInteractionHandler<E extends InteractableFak
         protocolManager = ProtocolLibrary.getProtocolManager();
 
         this.plugin = plugin;
-        entities = concurrent ? FakeEntityManager.concurrentWeakEntitySet() : FakeEntityManager.weakEntitySet();
+        this.dispatcher = dispatcher;
+        if (explicitLifecycle) {
+            // the registry itself is indexed by the entity IDs
+            entities = registry = concurrent ? FakeEntityRegistry.createConcurrent() : FakeEntityRegistry.create();
+            entitiesById = null;
+        } else {
+            entities = concurrent ? FakeEntityManager.concurrentWeakEntitySet() : FakeEntityManager.weakEntitySet();
+            registry = null;
+            entitiesById = concurrent
+                    ? Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>())
+                    : new Int2ObjectOpenHashMap<>();
+        }
         entitiesView = Collections.unmodifiableSet(entities);
 
         protocolManager.addPacketListener(this);
 
         shutdownHooks = (concurrent ? ShutdownHooks.createConcurrent(this) : ShutdownHooks.create(this))
                 .add(() -> protocolManager.removePacketListener(this))
+                .add(dispatcher::shutdown)
                 .registerBukkitShutdownHook(plugin);
     }
 
+    /**
+     * Creates a new interaction handler referencing its entities weakly.
+     *
+     * @param plugin plugin owning this interaction handler
+     * @param concurrent whether or not this interaction handler should be thread-safe
+     * @param dispatcher dispatcher to be used for delivering the interactions to the entities
+     */
+    public ProtocolBasedFakeEntityInteractionHandler(final @NonNull Plugin plugin, final boolean concurrent,
+                                                     final @NonNull FakeEntityInteractionDispatcher<E> dispatcher) {
+        this(plugin, concurrent, false, dispatcher);
+    }
+
+    /**
+     * Creates a new interaction handler which handles the interactions directly on the packet-receiving thread.
+     *
+     * @param plugin plugin owning this interaction handler
+     * @param concurrent whether or not this interaction handler should be thread-safe
+     */
+    public ProtocolBasedFakeEntityInteractionHandler(final @NonNull Plugin plugin, final boolean concurrent) {
+        this(plugin, concurrent, false, FakeEntityInteractionDispatchers.direct());
+    }
+
     @Override
     public Plugin getBukkitPlugin() {
         return plugin;
@@ -63,28 +135,51 @@ public class ProtocolBasedFakeEntityInteractionHandler<E extends InteractableFak
         return packet.getHandle().getHands().read(0) == EnumWrappers.Hand.MAIN_HAND ? Hand.MAIN : Hand.OFF;
     }
 
+    /**
+     * Gets the managed entity by its entity ID.
+     *
+     * @param entityId ID of the entity
+     * @return managed entity with the specified ID or {@code null} if there is none
+     */
+    protected @Nullable E getEntity(final int entityId) {
+        final FakeEntityRegistry<E> thisRegistry;
+        if ((thisRegistry = registry) != null) return thisRegistry.get(entityId);
+
+        final Int2ObjectMap<Reference<E>> thisEntitiesById;
+        final Reference<E> reference;
+        //noinspection ConstantConditions there is always an index if there is no registry
+        if ((reference = (thisEntitiesById = entitiesById).get(entityId)) == null) return null;
+
+        final E entity;
+        if ((entity = reference.get()) == null) thisEntitiesById.remove(entityId, reference); // cleanup collected
+
+        return entity;
+    }
+
     @Override
     public void onPacketReceiving(final PacketEvent event) {
-        val packet = new WrapperPlayClientUseEntity(event.getPacket());
-        val id = packet.getTargetID();
+        final PacketContainer handle;
+        final int id;
+        final E entity;
+        // target ID is read directly so that packets targeting non-fake entities are not wrapped
+        if ((entity = getEntity(id = (handle = event.getPacket()).getIntegers().read(0))) == null) return;
 
-        InteractableFakeEntity entity = null;
-        for (val checkedEntity : entities) if (checkedEntity.getEntityId() == id) entity = checkedEntity;
-        if (entity == null) return;
+        val packet = new WrapperPlayClientUseEntity(handle);
 
+        final FakeEntityInteractionDispatcher<E> thisDispatcher = dispatcher;
         switch (packet.getType()) {
             case INTERACT: {
-                entity.handleInteraction(event.getPlayer(), FakeEntityInteraction.interact(id, hand(packet)));
+                thisDispatcher.dispatch(entity, event.getPlayer(), FakeEntityInteraction.interact(id, hand(packet)));
 
                 break;
             }
             case ATTACK: {
-                entity.handleInteraction(event.getPlayer(), FakeEntityInteraction.attack(id));
+                thisDispatcher.dispatch(entity, event.getPlayer(), FakeEntityInteraction.attack(id));
 
                 break;
             }
             case INTERACT_AT: {
-                entity.handleInteraction(event.getPlayer(), FakeEntityInteraction
+                thisDispatcher.dispatch(entity, event.getPlayer(), FakeEntityInteraction
                         .exactInteract(id, hand(packet), packet.getTargetVector())
                 );
 
@@ -113,10 +208,22 @@ public class ProtocolBasedFakeEntityInteractionHandler<E extends InteractableFak
     @Override
     public void manageEntity(@NonNull E entity) {
         entities.add(entity);
+
+        final Int2ObjectMap<Reference<E>> thisEntitiesById;
+        if ((thisEntitiesById = entitiesById) != null) thisEntitiesById
+                .put(entity.getEntityId(), new WeakReference<>(entity));
     }
 
     @Override
     public void unmanageEntity(@NonNull E entity) {
         entities.remove(entity);
+
+        final Int2ObjectMap<Reference<E>> thisEntitiesById;
+        if ((thisEntitiesById = entitiesById) == null) return;
+
+        final int entityId;
+        final Reference<E> reference;
+        if ((reference = thisEntitiesById.get(entityId = entity.getEntityId())) != null
+                && reference.get() == entity) thisEntitiesById.remove(entityId, reference);
     }
 }
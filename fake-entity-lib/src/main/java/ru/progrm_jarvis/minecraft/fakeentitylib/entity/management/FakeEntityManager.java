@@ -41,6 +41,31 @@ public interface FakeEntityManager<E extends FakeEntity> extends BukkitPluginCon
         return ConcurrentCollections.concurrentSetFromMap(new WeakHashMap<>());
     }
 
+    /**
+     * Creates a new {@link FakeEntityRegistry} storing entities strongly so that they should be unmanaged explicitly.
+     *
+     * @param <E> type of entities stored
+     * @return new registry for storing entities
+     *
+     * @see #weakEntitySet() for the set which does not require entities to be unmanaged
+     */
+    static <E extends FakeEntity> Set<E> entityRegistry() {
+        return FakeEntityRegistry.create();
+    }
+
+    /**
+     * Creates a new concurrent {@link FakeEntityRegistry} storing entities strongly
+     * so that they should be unmanaged explicitly.
+     *
+     * @param <E> type of entities stored
+     * @return new concurrent registry for storing entities
+     *
+     * @see #concurrentWeakEntitySet() for the set which does not require entities to be unmanaged
+     */
+    static <E extends FakeEntity> Set<E> concurrentEntityRegistry() {
+        return FakeEntityRegistry.createConcurrent();
+    }
+
     /**
      * Creates a new weak {@link Set} valid (and <i>recommended</i>) for storing entities
      *
@@ -0,0 +1,333 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity.management;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.FakeEntity;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Set of fake entities keyed by their {@link FakeEntity#getEntityId() entity IDs}.</p>
+ * <p>Unlike {@link FakeEntityManager#weakEntitySet() weak entity sets} this registry references its entities strongly
+ * so that they should be explicitly removed from it once they are no longer used. In return its operations
+ * do not purge any reference queues and are guarded by locks of independent stripes rather than a global one.</p>
+ * <p>Iteration happens over a snapshot of the entities which is only rebuilt once the registry gets modified
+ * so that periodically iterating an unchanged registry does not copy it.</p>
+ *
+ * @param <E> type of entities stored
+ *
+ * @apiNote entities stored in this registry should have unique entity IDs
+ * and should not change them while being stored
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class FakeEntityRegistry<E extends FakeEntity> extends AbstractSet<E> {
+
+    /**
+     * Default amount of stripes of concurrent registries
+     */
+    private static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * Empty snapshot of entities
+     */
+    private static final Object[] NO_ENTITIES = new Object[0];
+
+    /**
+     * Entities by their IDs split into stripes
+     */
+    @NonNull Int2ObjectMap<E>[] stripes;
+
+    /**
+     * Locks guarding the corresponding stripes
+     */
+    @NonNull StampedLock[] locks;
+
+    /**
+     * Mask used to get the stripe of the entity ID
+     */
+    int stripeMask;
+
+    /**
+     * Amount of stored entities
+     */
+    @NonNull AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Version of the contents incremented on each modification
+     */
+    @NonNull AtomicInteger version = new AtomicInteger();
+
+    /**
+     * The latest built snapshot which is only valid while its version matches the current one
+     */
+    @NonFinal volatile @Nullable Snapshot snapshot;
+
+    @SuppressWarnings("unchecked")
+    private FakeEntityRegistry(final int stripeCount) {
+        stripes = new Int2ObjectMap[stripeCount];
+        locks = new StampedLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Int2ObjectOpenHashMap<>();
+            locks[i] = new StampedLock();
+        }
+        stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Creates a new registry meant to be used by a single thread at a time.
+     *
+     * @param <E> type of entities stored
+     * @return created registry
+     */
+    public static <E extends FakeEntity> @NotNull FakeEntityRegistry<E> create() {
+        return new FakeEntityRegistry<>(1);
+    }
+
+    /**
+     * Creates a new thread-safe registry.
+     *
+     * @param stripes amount of independently locked stripes, should be a power of two
+     * @param <E> type of entities stored
+     * @return created registry
+     *
+     * @throws IllegalArgumentException if the amount of stripes is not a positive power of two
+     */
+    public static <E extends FakeEntity> @NotNull FakeEntityRegistry<E> createConcurrent(final int stripes) {
+        checkArgument(stripes > 0 && (stripes & stripes - 1) == 0, "stripes should be a positive power of two");
+
+        return new FakeEntityRegistry<>(stripes);
+    }
+
+    /**
+     * Creates a new thread-safe registry with the default amount of stripes.
+     *
+     * @param <E> type of entities stored
+     * @return created registry
+     */
+    public static <E extends FakeEntity> @NotNull FakeEntityRegistry<E> createConcurrent() {
+        return new FakeEntityRegistry<>(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Gets the entity by its entity ID.
+     *
+     * @param entityId entity ID of the entity
+     * @return entity with the given ID or {@code null} if there is none in this registry
+     */
+    public @Nullable E get(final int entityId) {
+        final int stripe;
+        final StampedLock lock;
+        final long stamp = (lock = locks[stripe = entityId & stripeMask]).readLock();
+        try {
+            return stripes[stripe].get(entityId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if another entity with the same entity ID is already stored
+     */
+    @Override
+    public boolean add(final @NonNull E entity) {
+        final int entityId, stripe;
+        final StampedLock lock;
+        final long stamp = (lock = locks[stripe = (entityId = entity.getEntityId()) & stripeMask]).writeLock();
+        try {
+            final Int2ObjectMap<E> entities;
+            final E existing;
+            if ((existing = (entities = stripes[stripe]).get(entityId)) != null) {
+                if (existing == entity) return false;
+
+                throw new IllegalArgumentException("Another entity with ID " + entityId + " is already stored");
+            }
+
+            entities.put(entityId, entity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        onModified(1);
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object object) {
+        if (!(object instanceof FakeEntity)) return false;
+
+        final int entityId, stripe;
+        final StampedLock lock;
+        final long stamp = (lock = locks[stripe = (entityId = ((FakeEntity) object).getEntityId()) & stripeMask])
+                .writeLock();
+        try {
+            final Int2ObjectMap<E> entities;
+            if ((entities = stripes[stripe]).get(entityId) != object) return false;
+
+            entities.remove(entityId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        onModified(-1);
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return object instanceof FakeEntity && get(((FakeEntity) object).getEntityId()) == object;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    @Override
+    public void clear() {
+        final Int2ObjectMap<E>[] thisStripes = stripes;
+        final StampedLock[] thisLocks = locks;
+        for (int stripe = 0; stripe < thisStripes.length; stripe++) {
+            final int removed;
+            final StampedLock lock;
+            final long stamp = (lock = thisLocks[stripe]).writeLock();
+            try {
+                final Int2ObjectMap<E> entities;
+                removed = (entities = thisStripes[stripe]).size();
+                entities.clear();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+
+            if (removed != 0) onModified(-removed);
+        }
+    }
+
+    /**
+     * Updates the size and invalidates the snapshot after a modification.
+     *
+     * @param sizeDelta change of the size
+     */
+    private void onModified(final int sizeDelta) {
+        size.addAndGet(sizeDelta);
+        // version is incremented after the stripe gets modified so that a snapshot built concurrently is invalidated
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gets the snapshot of the entities of this registry rebuilding it if this registry has been modified.
+     *
+     * @return array of the entities which should not be modified
+     */
+    private @NotNull Object[] snapshot() {
+        final int currentVersion = version.get();
+        final Snapshot currentSnapshot;
+        if ((currentSnapshot = snapshot) != null && currentSnapshot.version == currentVersion) {
+            return currentSnapshot.entities;
+        }
+
+        final Int2ObjectMap<E>[] thisStripes = stripes;
+        final StampedLock[] thisLocks = locks;
+        Object[] entities = NO_ENTITIES;
+        int size = 0;
+        for (int stripe = 0; stripe < thisStripes.length; stripe++) {
+            final StampedLock lock;
+            final long stamp = (lock = thisLocks[stripe]).readLock();
+            try {
+                final Int2ObjectMap<E> stripeEntities;
+                final int stripeSize;
+                if ((stripeSize = (stripeEntities = thisStripes[stripe]).size()) == 0) continue;
+
+                if (size + stripeSize > entities.length) entities = Arrays.copyOf(
+                        entities, Math.max(size + stripeSize, entities.length << 1)
+                );
+                for (final E entity : stripeEntities.values()) entities[size++] = entity;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (size != entities.length) entities = Arrays.copyOf(entities, size);
+
+        // the snapshot may already be outdated in which case its version will not match the current one
+        snapshot = new Snapshot(currentVersion, entities);
+
+        return entities;
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return new SnapshotIterator(snapshot());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final @NonNull Consumer<? super E> action) {
+        for (final Object entity : snapshot()) action.accept((E) entity);
+    }
+
+    @Override
+    public @NotNull Object @NotNull [] toArray() {
+        return snapshot().clone();
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Snapshot {
+
+        int version;
+        @NotNull Object @NotNull [] entities;
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private final class SnapshotIterator implements Iterator<E> {
+
+        final @NotNull Object @NotNull [] entities;
+        int index;
+        @Nullable E last;
+
+        @Override
+        public boolean hasNext() {
+            return index < entities.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            final Object[] thisEntities;
+            if (index >= (thisEntities = entities).length) throw new NoSuchElementException();
+
+            return last = (E) thisEntities[index++];
+        }
+
+        @Override
+        public void remove() {
+            final E thisLast;
+            if ((thisLast = last) == null) throw new IllegalStateException();
+
+            FakeEntityRegistry.this.remove(thisLast);
+            last = null;
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package ru.progrm_jarvis.minecraft.fakeentitylib.entity.observer;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.chunk.ChunkUtil;
+import ru.progrm_jarvis.minecraft.commons.schedule.affine.AffineScheduler;
+import ru.progrm_jarvis.minecraft.commons.schedule.load.AdaptiveSchedulingPolicy;
+import ru.progrm_jarvis.minecraft.commons.schedule.load.Criticality;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.SchedulerMetrics;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.TaskMetrics;
 import ru.progrm_jarvis.minecraft.commons.schedule.task.AbstractSchedulerRunnable;
 import ru.progrm_jarvis.minecraft.commons.util.shutdown.ShutdownHooks;
 import ru.progrm_jarvis.minecraft.fakeentitylib.entity.ObservableFakeEntity;
 import ru.progrm_jarvis.minecraft.fakeentitylib.entity.management.AbstractSetBasedEntityManager;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -41,11 +54,49 @@ public class PeriodicFakeEntityObserver<E extends ObservableFakeEntity>
 
     Supplier<Set<E>> entitiesSetSupplier;
 
+    /**
+     * Executor to which the redraws are passed instead of being performed directly by the timers
+     * or {@code null} if they should be performed directly
+     */
+    @Nullable Executor executor;
+
+    /**
+     * Scheduler whose location lanes perform the redraws of the entities
+     * or {@code null} if they should be performed by the thread redrawing them all
+     */
+    @Nullable AffineScheduler affineScheduler;
+
+    /**
+     * Policy stretching the interval of the redraws according to the server's load
+     * or {@code null} if they should always happen at the normal interval
+     */
+    @Nullable AdaptiveSchedulingPolicy adaptiveSchedulingPolicy;
+
+    /**
+     * Criticality of the redraws used by {@link #adaptiveSchedulingPolicy}
+     */
+    @NonNull Criticality criticality;
+
+    /**
+     * Metrics of the redraws of the entities
+     */
+    @ToString.Exclude TaskMetrics redrawMetrics;
+
+    /**
+     * Amount of managed entities published for the gauge
+     * as the non-concurrent set of the entities cannot be read from the metrics' thread
+     */
+    @NonFinal volatile int publishedEntitiesSize;
+
     @Builder
     public PeriodicFakeEntityObserver(final @NonNull Plugin plugin, final boolean concurrent,
                                       boolean global, final long interval, final boolean async,
                                       final int minEntitiesForNewThread, final int maxThreads,
-                                      final @NonNull Supplier<Set<E>> entitiesSetSupplier) {
+                                      final @NonNull Supplier<Set<E>> entitiesSetSupplier,
+                                      final @Nullable Executor executor,
+                                      final @Nullable AffineScheduler affineScheduler,
+                                      final @Nullable AdaptiveSchedulingPolicy adaptiveSchedulingPolicy,
+                                      final @Nullable Criticality criticality) {
         super(plugin, beforeSuper(concurrent,
                 () -> checkArgument(interval > 0, "interval should be positive"),
                 () -> checkArgument(minEntitiesForNewThread > 0, "minEntitiesForNewThread should be positive"),
@@ -59,6 +110,13 @@ public class PeriodicFakeEntityObserver<E extends ObservableFakeEntity>
         this.maxThreads = maxThreads;
 
         this.entitiesSetSupplier = entitiesSetSupplier;
+        this.executor = executor;
+        this.affineScheduler = affineScheduler;
+        this.adaptiveSchedulingPolicy = adaptiveSchedulingPolicy;
+        this.criticality = criticality == null ? Criticality.NORMAL : criticality;
+
+        val pluginName = plugin.getName();
+        redrawMetrics = SchedulerMetrics.task(pluginName, "PeriodicFakeEntityObserver:redraw");
 
         final ShutdownHooks shutdownHooks;
         (shutdownHooks = this.shutdownHooks).add(() -> {
@@ -69,6 +127,10 @@ public class PeriodicFakeEntityObserver<E extends ObservableFakeEntity>
                 lock.unlock();
             }
         });
+        shutdownHooks.add(SchedulerMetrics.gauge(
+                pluginName, "PeriodicFakeEntityObserver:entities",
+                concurrent ? entities::size : () -> publishedEntitiesSize
+        ));
 
         if (global) shutdownHooks
                 .add(on(PlayerJoinEvent.class)
@@ -135,12 +197,14 @@ public class PeriodicFakeEntityObserver<E extends ObservableFakeEntity>
     @Override
     public void manageEntity(final @NonNull E entity) {
         super.manageEntity(entity);
+        publishedEntitiesSize = entities.size();
         getRedrawEntitiesRunnable().addEntity(entity);
     }
 
     @Override
     public void unmanageEntity(final @NonNull E entity) {
         super.unmanageEntity(entity);
+        publishedEntitiesSize = entities.size();
         lock.lock();
         try {
             val iterator = tasks.iterator();
@@ -166,6 +230,15 @@ public class PeriodicFakeEntityObserver<E extends ObservableFakeEntity>
 
         protected final Collection<E> entities = entitiesSetSupplier.get();
         private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        /**
+         * Flag indicating that a redraw has been passed to the executor but has not started yet
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude private final AtomicBoolean redrawPending = new AtomicBoolean();
+        @ToString.Exclude @EqualsAndHashCode.Exclude private final Runnable redraw = () -> {
+            redrawPending.set(false);
+            redraw();
+        };
+        @ToString.Exclude @EqualsAndHashCode.Exclude private int skippedRuns;
 
         public int size() {
             return entities.size();
@@ -196,12 +269,81 @@ public class PeriodicFakeEntityObserver<E extends ObservableFakeEntity>
 
         @Override
         public void run() {
+            final AdaptiveSchedulingPolicy policy;
+            if ((policy = adaptiveSchedulingPolicy) != null && ++skippedRuns < policy.stretch(criticality)) return;
+            skippedRuns = 0;
+
+            final Executor thisExecutor;
+            if ((thisExecutor = executor) == null) redraw();
+            // the redraw which is still queued will draw the current state so there is no need in another one
+            else if (redrawPending.compareAndSet(false, true)) thisExecutor.execute(redraw);
+        }
+
+        /**
+         * Redraws the entities of this runnable.
+         */
+        protected void redraw() {
+            final TaskMetrics metrics;
+            final long start = (metrics = redrawMetrics).start();
             lock.readLock().lock();
             try {
-                for (val entity : entities) entity.attemptRerenderForAll();
+                final AffineScheduler thisAffineScheduler;
+                if ((thisAffineScheduler = affineScheduler) == null) {
+                    for (val entity : entities) entity.attemptRerenderForAll();
+                } else {
+                    // entities of other regions are redrawn by the threads owning them using a task per chunk
+                    Map<World, Long2ObjectMap<ChunkRedraw>> chunkRedraws = null;
+                    for (val entity : entities) {
+                        final Location location;
+                        if ((location = entity.getLocation()) == null
+                                || thisAffineScheduler.isOwnedByCurrentThread(location)) entity.attemptRerenderForAll();
+                        else {
+                            if (chunkRedraws == null) chunkRedraws = new HashMap<>();
+                            final World world = location.getWorld();
+                            Long2ObjectMap<ChunkRedraw> worldChunkRedraws;
+                            if ((worldChunkRedraws = chunkRedraws.get(world)) == null) chunkRedraws
+                                    .put(world, worldChunkRedraws = new Long2ObjectOpenHashMap<>());
+
+                            final long chunk = ChunkUtil.chunkAt(location.getBlockX(), location.getBlockZ());
+                            ChunkRedraw chunkRedraw;
+                            if ((chunkRedraw = worldChunkRedraws.get(chunk)) == null) worldChunkRedraws
+                                    .put(chunk, chunkRedraw = new ChunkRedraw(location));
+                            chunkRedraw.entities.add(entity);
+                        }
+                    }
+
+                    if (chunkRedraws != null) for (val worldChunkRedraws : chunkRedraws.values()) {
+                        for (val chunkRedraw : worldChunkRedraws.values()) thisAffineScheduler
+                                .runAt(chunkRedraw.location, chunkRedraw);
+                    }
+                }
             } finally {
                 lock.readLock().unlock();
+                metrics.stop(start);
             }
         }
     }
+
+    /**
+     * Redraw of the entities of a single chunk performed by the thread owning it.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private final class ChunkRedraw implements Runnable {
+
+        /**
+         * Location in the chunk used for scheduling the redraw
+         */
+        @NotNull Location location;
+
+        /**
+         * Entities of the chunk to redraw
+         */
+        @NotNull List<E> entities = new ArrayList<>();
+
+        @Override
+        public void run() {
+            for (val entity : entities) entity.attemptRerenderForAll();
+        }
+    }
 }
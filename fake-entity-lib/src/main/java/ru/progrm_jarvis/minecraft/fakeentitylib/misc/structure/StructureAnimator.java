@@ -0,0 +1,163 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Animator of {@link Structure structures} playing the same {@link StructureTimeline timeline}.</p>
+ * <p>All structures are advanced in a single loop on each {@link #tick()}
+ * and their elements are only updated when their state differs from the one of the previous frame.</p>
+ *
+ * @apiNote this class is not thread-safe and is normally ticked by a task on the main thread
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class StructureAnimator implements Runnable {
+
+    /**
+     * Timeline played by this animator
+     */
+    @Getter @NonNull StructureTimeline timeline;
+
+    /**
+     * Structures animated by this animator
+     */
+    @ToString.Exclude @NonNull List<Instance> instances = new ArrayList<>();
+
+    /**
+     * Buffer to which the sampled state is written
+     */
+    @ToString.Exclude @NonNull double[] sample = new double[StructureTimeline.STRIDE];
+
+    public StructureAnimator(final @NonNull StructureTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    /**
+     * Adds the structure to this animator so that it is animated starting from the first tick.
+     *
+     * @param structure structure to animate
+     */
+    public void add(final @NonNull Structure structure) {
+        add(structure, 0);
+    }
+
+    /**
+     * Adds the structure to this animator so that it is animated starting from the specified tick.
+     *
+     * @param structure structure to animate
+     * @param tick tick of the timeline from which the structure should be animated
+     */
+    public void add(final @NonNull Structure structure, final int tick) {
+        final StructureTimeline thisTimeline;
+        final int elementCount = (thisTimeline = timeline).getElements();
+
+        final Structure.Element[] elements = new Structure.Element[elementCount];
+        // elements are resolved once so that they are not looked up on each frame
+        for (int id = 0; id < elementCount; id++) if (thisTimeline.isAnimated(id)) elements[id] = structure
+                .getElement(id);
+
+        final double[] state = new double[elementCount * StructureTimeline.STRIDE];
+        // NaN is not equal to any value so that the first frame gets applied completely
+        Arrays.fill(state, Double.NaN);
+
+        instances.add(new Instance(structure, elements, state, new byte[elementCount], Math.floorMod(
+                tick, Math.max(thisTimeline.getLength(), 1)
+        )));
+    }
+
+    /**
+     * Removes the structure from this animator.
+     *
+     * @param structure structure which should no longer be animated
+     * @return {@code true} if the structure was animated by this animator and {@code false} otherwise
+     */
+    public boolean remove(final @NonNull Structure structure) {
+        return instances.removeIf(instance -> instance.structure == structure);
+    }
+
+    /**
+     * Gets the amount of structures animated by this animator.
+     *
+     * @return amount of animated structures
+     */
+    public int size() {
+        return instances.size();
+    }
+
+    /**
+     * Applies the current frame to all structures and advances them to the next one.
+     * Once the last frame is reached the animation starts from the beginning.
+     */
+    public void tick() {
+        final StructureTimeline thisTimeline;
+        final int elementCount = (thisTimeline = timeline).getElements(),
+                length = Math.max(thisTimeline.getLength(), 1);
+        final double[] thisSample = sample;
+
+        for (final Instance instance : instances) {
+            final int tick = instance.tick;
+            final Structure.Element[] elements = instance.elements;
+            final double[] state = instance.state;
+            final byte[] visibility = instance.visibility;
+
+            for (int id = 0; id < elementCount; id++) {
+                final Structure.Element element;
+                if ((element = elements[id]) == null) continue;
+
+                final boolean visible = thisTimeline.sample(id, tick, thisSample, 0);
+                final int offset = id * StructureTimeline.STRIDE;
+
+                final double x = thisSample[0], y = thisSample[1], z = thisSample[2];
+                if (x != state[offset] || y != state[offset + 1] || z != state[offset + 2]) {
+                    element.setPosition(x, y, z);
+
+                    state[offset] = x;
+                    state[offset + 1] = y;
+                    state[offset + 2] = z;
+                }
+
+                final double xRotation = thisSample[3], yRotation = thisSample[4], zRotation = thisSample[5];
+                if (xRotation != state[offset + 3] || yRotation != state[offset + 4]
+                        || zRotation != state[offset + 5]) {
+                    element.setRotation(xRotation, yRotation, zRotation);
+
+                    state[offset + 3] = xRotation;
+                    state[offset + 4] = yRotation;
+                    state[offset + 5] = zRotation;
+                }
+
+                // visibility is stored as 0 for unknown, 1 for hidden and 2 for visible
+                final byte visibilityState = (byte) (visible ? 2 : 1);
+                if (visibility[id] != visibilityState) {
+                    element.setVisible(visible);
+
+                    visibility[id] = visibilityState;
+                }
+            }
+
+            instance.tick = tick + 1 == length ? 0 : tick + 1;
+        }
+    }
+
+    @Override
+    public void run() {
+        tick();
+    }
+
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Instance {
+
+        final @NotNull Structure structure;
+        final Structure.Element @NotNull [] elements;
+        final double @NotNull [] state;
+        final byte @NotNull [] visibility;
+        int tick;
+    }
+}
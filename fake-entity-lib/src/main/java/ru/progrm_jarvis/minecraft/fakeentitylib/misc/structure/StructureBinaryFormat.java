@@ -0,0 +1,191 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.NonNull;
+import lombok.val;
+import lombok.experimental.UtilityClass;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Compact binary format of {@link StructureDescriptor structure descriptors}.</p>
+ * <p>Unlike the JSON format it contains elements in their final order with their materials resolved
+ * and keyframes compiled into a {@link StructureTimeline timeline} so that loading it only reads primitive arrays.
+ * Materials are stored by their names in a palette (rather than by their ordinals which differ between versions)
+ * so that each distinct material is resolved once.</p>
+ */
+@UtilityClass
+public class StructureBinaryFormat {
+
+    /**
+     * Magic number at the beginning of binary structure files
+     */
+    private final int MAGIC = 0x4D435344; // "MCSD"
+
+    /**
+     * Version of the binary format
+     */
+    private final int VERSION = 1;
+
+    /**
+     * Compiles the JSON representation of a structure into the binary form.
+     *
+     * @param jsonRepresentation JSON representation of the structure
+     * @param output output to which the binary form should be written
+     * @throws IOException if an I/O exception occurs while writing
+     * @throws IllegalArgumentException if any of the elements' materials cannot be resolved
+     */
+    public void compile(final @NonNull StructureDescriptor.JsonRepresentation jsonRepresentation,
+                        final @NonNull DataOutput output) throws IOException {
+        val elementNames = jsonRepresentation.getElementNames();
+        val objects = jsonRepresentation.getObjects();
+
+        // distinct materials are stored once and referenced by the elements
+        final List<String> palette = new ArrayList<>();
+        final Object2IntMap<String> paletteIndices = new Object2IntOpenHashMap<>();
+        paletteIndices.defaultReturnValue(-1);
+        final int[] materials = new int[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            val rawId = objects[i].getUserData().getRawId();
+            final Material material;
+            if ((material = Material.matchMaterial(rawId)) == null) throw new IllegalArgumentException(
+                    "Unknown material " + rawId + " of element " + elementNames.get(i)
+            );
+
+            final String materialName = material.name();
+            int paletteIndex;
+            if ((paletteIndex = paletteIndices.getInt(materialName)) == -1) {
+                paletteIndices.put(materialName, paletteIndex = palette.size());
+                palette.add(materialName);
+            }
+            materials[i] = paletteIndex;
+        }
+
+        val keyframes = jsonRepresentation.getKeyframes();
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        output.writeInt(palette.size());
+        for (val materialName : palette) {
+            final byte[] bytes = materialName.getBytes(StandardCharsets.UTF_8);
+            output.writeShort(bytes.length);
+            output.write(bytes);
+        }
+
+        output.writeInt(objects.length);
+        for (int i = 0; i < objects.length; i++) {
+            val element = objects[i].getUserData();
+            output.writeInt(materials[i]);
+            output.writeByte(StructureDescriptor.JsonRepresentation.ElementData.Element
+                    .sizeFromName(element.getSize()).ordinal());
+            output.writeBoolean(element.isVisible());
+        }
+
+        val hasKeyframes = keyframes != null && keyframes.length != 0;
+        output.writeBoolean(hasKeyframes);
+        if (hasKeyframes) StructureTimeline.compile(elementNames, keyframes, 0).write(output);
+    }
+
+    /**
+     * Compiles the JSON representation of a structure into the binary file.
+     * The file is replaced atomically so that its readers never see it partially written.
+     *
+     * @param jsonRepresentation JSON representation of the structure
+     * @param file file to which the binary form should be written
+     * @throws IOException if an I/O exception occurs while writing
+     */
+    public void compile(final @NonNull StructureDescriptor.JsonRepresentation jsonRepresentation,
+                        final @NonNull Path file) throws IOException {
+        val absoluteFile = file.toAbsolutePath();
+        // the temporary file is created in the same directory so that it can be moved atomically
+        val temporaryFile = Files.createTempFile(
+                absoluteFile.getParent(), '.' + absoluteFile.getFileName().toString() + '.', ".tmp"
+        );
+        try {
+            try (val output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                compile(jsonRepresentation, output);
+            }
+
+            try {
+                Files.move(
+                        temporaryFile, absoluteFile,
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING
+                );
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Loads the structure descriptor from its binary form.
+     *
+     * @param buffer buffer containing the binary form of the structure descriptor
+     * @return loaded structure descriptor
+     *
+     * @throws IllegalArgumentException if the buffer does not contain a supported binary structure
+     */
+    public @NotNull StructureDescriptor load(final @NonNull ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) throw new IllegalArgumentException("Not a binary structure");
+        final int version;
+        if ((version = buffer.getInt()) != VERSION) throw new IllegalArgumentException(
+                "Unsupported binary structure version " + version
+        );
+
+        final int paletteSize = buffer.getInt();
+        final Material[] palette = new Material[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+
+            final String materialName = new String(bytes, StandardCharsets.UTF_8);
+            if ((palette[i] = Material.getMaterial(materialName)) == null) throw new IllegalArgumentException(
+                    "Unknown material " + materialName
+            );
+        }
+
+        val sizes = Structure.Element.Size.values();
+        final int elementCount = buffer.getInt();
+        val descriptor = StructureDescriptor.builder();
+        for (int i = 0; i < elementCount; i++) descriptor.element(StructureDescriptor.Element.builder()
+                .item(new ItemStack(palette[buffer.getInt()]))
+                .size(sizes[buffer.get()])
+                .visible(buffer.get() != 0)
+                .build()
+        );
+
+        if (buffer.get() != 0) {
+            val timeline = StructureTimeline.read(buffer);
+            descriptor.timeline(timeline).keyframes(timeline.toFrameUpdaters());
+        }
+
+        return descriptor.build();
+    }
+
+    /**
+     * Loads the structure descriptor from the binary file.
+     *
+     * @param file binary file of the structure descriptor
+     * @return loaded structure descriptor
+     * @throws IOException if an I/O exception occurs while reading the file
+     */
+    public @NotNull StructureDescriptor load(final @NonNull Path file) throws IOException {
+        // the file is read fully rather than mapped as it is small and mapping would keep it locked on some systems
+        return load(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+}
@@ -4,13 +4,14 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.primitives.Ints;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.stream.JsonReader;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.bukkit.Material;
@@ -42,15 +43,31 @@ public class StructureDescriptor {
      */
     Int2ObjectMap<FrameUpdater> keyframes;
 
+    /**
+     * Keyframes of the structure compiled into a timeline which can be played by {@link StructureAnimator}.
+     */
+    StructureTimeline timeline;
+
     private static final Gson gson = new Gson();
 
+    /**
+     * Creates a structure descriptor from its JSON representation.
+     *
+     * @param jsonRepresentation JSON representation of the structure descriptor
+     * @return created structure descriptor
+     *
+     * @throws IllegalStateException if there are elements with the same name
+     *
+     * @apiNote IDs of the elements are their indices in the source, while previously they used to follow
+     * the iteration order of {@link JsonRepresentation#getElements()};
+     * elements equal by their data but differing in their names are no longer rejected
+     */
     public static StructureDescriptor from(final @NonNull JsonRepresentation jsonRepresentation) {
-        val elementNames = new ArrayList<String>();
-        val elementList = new ArrayList<Element>();
-        jsonRepresentation.getElements().forEach((name, element) -> {
-            elementNames.add(name);
-            elementList.add(element);
-        });
+        // elements are ordered as in the source so that their IDs are stable
+        val elementNames = jsonRepresentation.getElementNames();
+        val elementIds = JsonRepresentation.toIds(elementNames);
+        val elementList = new ArrayList<Element>(elementNames.size());
+        for (val element : jsonRepresentation.getObjects()) elementList.add(element.getUserData().toElement());
 
         val descriptor = builder().elements(elementList); // add elements to descriptor
         val keyframesList = jsonRepresentation.getOrderedKeyframes();
@@ -58,9 +75,10 @@ public class StructureDescriptor {
             val keyframes = new Int2ObjectOpenHashMap<FrameUpdater>();
 
             for (val keyframe : keyframesList) keyframes
-                    .put(keyframe.tick, keyframe.toFrameUpdaterByElementNames(elementNames));
+                    .put(keyframe.tick, keyframe.toFrameUpdaterByElementIds(elementIds));
 
             descriptor.keyframes(keyframes);
+            descriptor.timeline(StructureTimeline.compile(elementNames, jsonRepresentation.getKeyframes(), 0));
         }
 
         return descriptor.build();
@@ -89,6 +107,40 @@ public class StructureDescriptor {
         }
     }
 
+    /**
+     * Reads the JSON representation of the structure descriptor without creating the descriptor itself.
+     *
+     * @param jsonReader reader of the JSON
+     * @return read JSON representation
+     *
+     * @see StructureBinaryFormat#compile(JsonRepresentation, java.nio.file.Path) for compiling it
+     */
+    public static JsonRepresentation jsonRepresentationFrom(final @NonNull Reader jsonReader) {
+        return gson.fromJson(jsonReader, JsonRepresentation.class);
+    }
+
+    /**
+     * Creates an updater setting the element's position, rotation and visibility to the ones specified.
+     *
+     * @param x position on X-axis
+     * @param y position on Y-axis
+     * @param z position on Z-axis
+     * @param xRotation rotation around X-axis
+     * @param yRotation rotation around Y-axis
+     * @param zRotation rotation around Z-axis
+     * @param visible visibility
+     * @return created element updater
+     */
+    static Structure.Element.Updater elementUpdater(final double x, final double y, final double z,
+                                                    final double xRotation, final double yRotation,
+                                                    final double zRotation, final boolean visible) {
+        return element -> {
+            element.setPosition(x, y, z);
+            element.setRotation(xRotation, yRotation, zRotation);
+            element.setVisible(visible);
+        };
+    }
+
     @FunctionalInterface
     public interface FrameUpdater {
 
@@ -122,7 +174,7 @@ public class StructureDescriptor {
     @Value
     @Builder
     @FieldDefaults(level = AccessLevel.PRIVATE)
-    private static class Element {
+    static class Element {
 
         ItemStack item;
         Structure.Element.Size size;
@@ -147,6 +199,41 @@ public class StructureDescriptor {
                     );
         }
 
+        /**
+         * Gets the names of the elements in the order in which they are specified.
+         *
+         * @return names of the elements whose indices are their IDs
+         *
+         * @throws IllegalStateException if there are elements with the same name
+         */
+        public List<String> getElementNames() {
+            val names = new ArrayList<String>(objects.length);
+            val uniqueNames = new HashSet<String>(objects.length);
+            for (val object : objects) {
+                val name = object.getUserData().getCustomName();
+                if (!uniqueNames.add(name)) throw new IllegalStateException("Duplicate element " + name);
+
+                names.add(name);
+            }
+
+            return names;
+        }
+
+        /**
+         * Creates a map of elements' IDs by their names.
+         *
+         * @param elementNames names of the elements whose indices are their IDs
+         * @return map of IDs by names whose default value is {@code -1}
+         */
+        public static Object2IntMap<String> toIds(final @NonNull List<String> elementNames) {
+            final int size = elementNames.size();
+            final Object2IntMap<String> ids = new Object2IntOpenHashMap<>(size);
+            ids.defaultReturnValue(-1);
+            for (int id = 0; id < size; id++) ids.put(elementNames.get(id), id);
+
+            return ids;
+        }
+
         public List<Keyframe> getOrderedKeyframes() {
             return ImmutableList.copyOf(Arrays.stream(keyframes)
                     .sorted(Comparator.comparing(keyframe -> keyframe.tick))
@@ -241,41 +328,57 @@ public class StructureDescriptor {
             Element[] objects;
 
             public FrameUpdater toFrameUpdaterByElements(final @NonNull List<Element> elements) {
-                final Map<Integer, Element> elementMap = Arrays.stream(objects)
-                        .collect(Collectors.toMap(element -> {
-                            val index = elements.indexOf(element);
-
-                            if (index == -1) throw new IllegalArgumentException(
-                                    "No element " + element + " in elements list"
-                            );
-
-                            return index;
-                        }, element -> element));
-
-                val ids = Ints.toArray(elementMap.keySet());
-                return FastFrameUpdater.from(ids, Arrays.stream(ids)
-                        .mapToObj(elementMap::get)
-                        .map(Element::toElementUpdater)
-                        .toArray(Structure.Element.Updater[]::new));
+                // indices are computed once rather than looked up linearly per element
+                final int size = elements.size();
+                final Object2IntMap<Element> indices = new Object2IntOpenHashMap<>(size);
+                indices.defaultReturnValue(-1);
+                for (int index = size - 1; index >= 0; index--) indices.put(elements.get(index), index);
+
+                final int length;
+                final int[] ids = new int[length = objects.length];
+                final Structure.Element.Updater[] updaters = new Structure.Element.Updater[length];
+                for (int i = 0; i < length; i++) {
+                    final Element element;
+                    final int index;
+                    if ((index = indices.getInt(element = objects[i])) == -1) throw new IllegalArgumentException(
+                            "No element " + element + " in elements list"
+                    );
+
+                    ids[i] = index;
+                    updaters[i] = element.toElementUpdater();
+                }
+
+                return FastFrameUpdater.from(ids, updaters);
             }
 
             public FrameUpdater toFrameUpdaterByElementNames(final @NonNull List<String> elementNames) {
-                final Map<Integer, Element> elementMap = Arrays.stream(objects)
-                        .collect(Collectors.toMap(element -> {
-                            val index = elementNames.indexOf(element.customName);
-
-                            if (index == -1) throw new IllegalArgumentException(
-                                    "No element name " + element.customName + " in elements' names list"
-                            );
-
-                            return index;
-                        }, element -> element));
-
-                val ids = Ints.toArray(elementMap.keySet());
-                return FastFrameUpdater.from(ids, Arrays.stream(ids)
-                        .mapToObj(elementMap::get)
-                        .map(Element::toElementUpdater)
-                        .toArray(Structure.Element.Updater[]::new));
+                return toFrameUpdaterByElementIds(toIds(elementNames));
+            }
+
+            /**
+             * Creates a frame updater applying this keyframe.
+             *
+             * @param elementIds IDs of the elements by their names, {@code -1} for unknown names
+             * @return created frame updater
+             *
+             * @throws IllegalArgumentException if this keyframe contains an element whose name is unknown
+             */
+            public FrameUpdater toFrameUpdaterByElementIds(final @NonNull Object2IntMap<String> elementIds) {
+                final int length;
+                final int[] ids = new int[length = objects.length];
+                final Structure.Element.Updater[] updaters = new Structure.Element.Updater[length];
+                for (int i = 0; i < length; i++) {
+                    final Element element = objects[i];
+                    final int id;
+                    if ((id = elementIds.getInt(element.customName)) == -1) throw new IllegalArgumentException(
+                            "No element name " + element.customName + " in elements' names list"
+                    );
+
+                    ids[i] = id;
+                    updaters[i] = element.toElementUpdater();
+                }
+
+                return FastFrameUpdater.from(ids, updaters);
             }
 
             @Data
@@ -290,16 +393,11 @@ public class StructureDescriptor {
                 boolean visible;
 
                 public Structure.Element.Updater toElementUpdater() {
-                    // lambda parameters are stored locally not to store reference to parent Element
-                    final double posX = position.getX(), posY = position.getY(), posZ = position.getZ(),
-                            rotX = rotation.getX(), rotY = rotation.getY(), rotZ = rotation.getZ();
-                    final boolean visible = this.visible;
-
-                    return (element) -> {
-                        element.setRotation(posX, posY, posZ);
-                        element.setRotation(rotX, rotY, rotZ);
-                        element.setVisible(visible);
-                    };
+                    // values are passed so that the updater does not store reference to parent Element
+                    return elementUpdater(
+                            position.getX(), position.getY(), position.getZ(),
+                            rotation.getX(), rotation.getY(), rotation.getZ(), visible
+                    );
                 }
             }
         }
@@ -0,0 +1,101 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Cache of {@link StructureDescriptor structure descriptors} loaded from
+ * {@link StructureBinaryFormat binary structure files}.</p>
+ * <p>Cached descriptors are reloaded once their files get modified
+ * and binary files are (re)compiled from their JSON sources when they are missing or outdated.</p>
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class StructureDescriptorCache {
+
+    /**
+     * Cached descriptors by the normalized paths of their binary files
+     */
+    @NonNull Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the structure descriptor from the binary file loading it if it is not cached or outdated.
+     *
+     * @param binaryFile binary file of the structure descriptor
+     * @return structure descriptor loaded from the file
+     * @throws IOException if an I/O exception occurs while loading the file
+     */
+    public @NotNull StructureDescriptor get(final @NonNull Path binaryFile) throws IOException {
+        val path = binaryFile.toAbsolutePath().normalize();
+        val lastModified = Files.getLastModifiedTime(path).toMillis();
+
+        Entry entry;
+        if ((entry = entries.get(path)) == null || entry.lastModified != lastModified) {
+            entry = new Entry(StructureBinaryFormat.load(path), lastModified);
+            entries.put(path, entry);
+        }
+
+        return entry.descriptor;
+    }
+
+    /**
+     * Gets the structure descriptor compiling its JSON file into the binary one
+     * if the latter is missing or is older than the former.
+     *
+     * @param jsonFile JSON file of the structure descriptor
+     * @param binaryFile binary file of the structure descriptor
+     * @return structure descriptor loaded from the binary file
+     * @throws IOException if an I/O exception occurs while compiling or loading the file
+     */
+    public @NotNull StructureDescriptor get(final @NonNull Path jsonFile,
+                                            final @NonNull Path binaryFile) throws IOException {
+        if (!Files.exists(binaryFile) || Files.getLastModifiedTime(binaryFile)
+                .compareTo(Files.getLastModifiedTime(jsonFile)) < 0) {
+            final StructureDescriptor.JsonRepresentation jsonRepresentation;
+            try (final BufferedReader reader = Files.newBufferedReader(jsonFile, StandardCharsets.UTF_8)) {
+                jsonRepresentation = StructureDescriptor.jsonRepresentationFrom(reader);
+            }
+
+            StructureBinaryFormat.compile(jsonRepresentation, binaryFile);
+        }
+
+        return get(binaryFile);
+    }
+
+    /**
+     * Removes the structure descriptor of the binary file from this cache.
+     *
+     * @param binaryFile binary file of the structure descriptor
+     */
+    public void invalidate(final @NonNull Path binaryFile) {
+        entries.remove(binaryFile.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Removes all structure descriptors from this cache.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Entry {
+
+        @NotNull StructureDescriptor descriptor;
+        long lastModified;
+    }
+}
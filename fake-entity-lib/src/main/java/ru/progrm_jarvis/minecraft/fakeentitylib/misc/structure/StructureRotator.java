@@ -0,0 +1,100 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+import ru.progrm_jarvis.minecraft.commons.math.RotationMatrix;
+
+/**
+ * <p>Rotator of whole {@link Structure structures} around a common pivot.</p>
+ * <p>The rotation matrix is computed once per rotation and then applied to the positions of all elements
+ * in a single pass. Orientations of the elements are composed with the rotation as matrices
+ * (as angles around multiple axes do not simply add up) and are converted back to angles
+ * in the convention of {@link RotationMatrix}.</p>
+ *
+ * @apiNote this class is not thread-safe as it reuses its matrices,
+ * so a separate rotator should be used by each thread
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class StructureRotator {
+
+    /**
+     * Matrix reused for each rotation
+     */
+    @NonNull RotationMatrix matrix = new RotationMatrix();
+
+    /**
+     * Matrix reused for the orientation of each element
+     */
+    @NonNull RotationMatrix elementMatrix = new RotationMatrix();
+
+    /**
+     * Vector reused for the angles of each element
+     */
+    @NonNull Vector elementAngles = new Vector();
+
+    /**
+     * Rotates all elements of the structure around the pivot.
+     *
+     * @param structure structure whose elements should be rotated
+     * @param pivotX <i>x</i> coordinate of the pivot
+     * @param pivotY <i>y</i> coordinate of the pivot
+     * @param pivotZ <i>z</i> coordinate of the pivot
+     * @param xRotation rotation around <i>x</i>-axis in degrees
+     * @param yRotation rotation around <i>y</i>-axis in degrees
+     * @param zRotation rotation around <i>z</i>-axis in degrees
+     */
+    public void rotate(final @NonNull Structure structure,
+                       final double pivotX, final double pivotY, final double pivotZ,
+                       final double xRotation, final double yRotation, final double zRotation) {
+        rotate(
+                structure, structure.getDescriptor().getElements().size(),
+                pivotX, pivotY, pivotZ, xRotation, yRotation, zRotation
+        );
+    }
+
+    /**
+     * Rotates the first elements of the structure around the pivot.
+     *
+     * @param structure structure whose elements should be rotated
+     * @param elementCount amount of elements (starting from the one with ID {@code 0}) to rotate
+     * @param pivotX <i>x</i> coordinate of the pivot
+     * @param pivotY <i>y</i> coordinate of the pivot
+     * @param pivotZ <i>z</i> coordinate of the pivot
+     * @param xRotation rotation around <i>x</i>-axis in degrees
+     * @param yRotation rotation around <i>y</i>-axis in degrees
+     * @param zRotation rotation around <i>z</i>-axis in degrees
+     */
+    public void rotate(final @NonNull Structure structure, final int elementCount,
+                       final double pivotX, final double pivotY, final double pivotZ,
+                       final double xRotation, final double yRotation, final double zRotation) {
+        if (xRotation == 0 && yRotation == 0 && zRotation == 0) return; // no-op
+
+        final RotationMatrix thisMatrix, thisElementMatrix = elementMatrix;
+        (thisMatrix = matrix).set(xRotation, yRotation, zRotation);
+        final Vector thisElementAngles = elementAngles;
+
+        for (int id = 0; id < elementCount; id++) {
+            final Structure.Element element;
+            if ((element = structure.getElement(id)) == null) continue;
+
+            final Location position = element.getPosition();
+            final double x = position.getX() - pivotX, y = position.getY() - pivotY, z = position.getZ() - pivotZ;
+            element.setPosition(
+                    pivotX + thisMatrix.transformX(x, y, z),
+                    pivotY + thisMatrix.transformY(x, y, z),
+                    pivotZ + thisMatrix.transformZ(x, y, z)
+            );
+
+            final Vector rotation = element.getRotation();
+            thisElementMatrix.set(rotation.getX(), rotation.getY(), rotation.getZ())
+                    .multiply(thisMatrix, thisElementMatrix)
+                    .toAngles(thisElementAngles);
+            element.setRotation(thisElementAngles.getX(), thisElementAngles.getY(), thisElementAngles.getZ());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure.StructureDescriptor.JsonRepresentation.Keyframe;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>Keyframe timeline of a {@link Structure} compiled into flat primitive arrays.</p>
+ * <p>Keyframes of each element are stored contiguously ordered by their ticks,
+ * position and rotation of the element between its keyframes are interpolated linearly
+ * while its visibility is the one of the latest keyframe.</p>
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class StructureTimeline {
+
+    /**
+     * Amount of values stored per keyframe: <i>x</i>, <i>y</i>, <i>z</i>
+     * and rotations around <i>x</i>, <i>y</i> and <i>z</i> axes
+     */
+    public static final int STRIDE = 6;
+
+    /**
+     * Amount of elements of this timeline
+     */
+    @Getter int elements;
+
+    /**
+     * Amount of ticks after which the timeline repeats
+     */
+    @Getter int length;
+
+    /**
+     * Offsets of the elements' keyframes where the keyframes of element {@code i}
+     * are in range from {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive)
+     */
+    @ToString.Exclude int[] offsets;
+
+    /**
+     * Ticks of the keyframes
+     */
+    @ToString.Exclude int[] ticks;
+
+    /**
+     * Values of the keyframes, {@link #STRIDE} per keyframe
+     */
+    @ToString.Exclude double[] values;
+
+    /**
+     * Visibility of the elements at the keyframes
+     */
+    @ToString.Exclude boolean[] visible;
+
+    private StructureTimeline(final int elements, final int length,
+                              final @NonNull int[] offsets, final @NonNull int[] ticks,
+                              final @NonNull double[] values, final @NonNull boolean[] visible) {
+        this.elements = elements;
+        this.length = length;
+        this.offsets = offsets;
+        this.ticks = ticks;
+        this.values = values;
+        this.visible = visible;
+    }
+
+    /**
+     * Compiles the keyframes into a timeline.
+     *
+     * @param elementNames names of the elements whose indices are the IDs of the elements
+     * @param keyframes keyframes to compile
+     * @param frames minimal length of the timeline, {@code 0} to make it end at the last keyframe
+     * @return compiled timeline
+     *
+     * @throws IllegalArgumentException if a keyframe contains an element which is not in the names list
+     */
+    public static @NotNull StructureTimeline compile(
+            final @NonNull List<String> elementNames,
+            final @NonNull Keyframe[] keyframes,
+            final int frames
+    ) {
+        final int elementCount = elementNames.size();
+        final Object2IntMap<String> elementIds = new Object2IntOpenHashMap<>(elementCount);
+        elementIds.defaultReturnValue(-1);
+        for (int id = 0; id < elementCount; id++) elementIds.put(elementNames.get(id), id);
+
+        val orderedKeyframes = keyframes.clone();
+        Arrays.sort(orderedKeyframes, Comparator.comparingInt(Keyframe::getTick));
+
+        // first pass counts the keyframes of each element so that they can be laid out contiguously
+        final int[] offsets = new int[elementCount + 1];
+        int length = Math.max(frames, 0);
+        for (val keyframe : orderedKeyframes) {
+            length = Math.max(length, keyframe.getTick() + 1);
+
+            for (val element : keyframe.getObjects()) {
+                final int id;
+                if ((id = elementIds.getInt(element.getCustomName())) == -1) throw new IllegalArgumentException(
+                        "No element name " + element.getCustomName() + " in elements' names list"
+                );
+                offsets[id + 1]++;
+            }
+        }
+        for (int id = 0; id < elementCount; id++) offsets[id + 1] += offsets[id];
+
+        final int total = offsets[elementCount];
+        final int[] ticks = new int[total];
+        final double[] values = new double[total * STRIDE];
+        final boolean[] visible = new boolean[total];
+
+        final int[] positions = Arrays.copyOf(offsets, elementCount);
+        for (val keyframe : orderedKeyframes) {
+            final int tick = keyframe.getTick();
+            for (val element : keyframe.getObjects()) {
+                final int index = positions[elementIds.getInt(element.getCustomName())]++;
+
+                ticks[index] = tick;
+                visible[index] = element.isVisible();
+
+                final int valueIndex = index * STRIDE;
+                final Vector position = element.getPosition(), rotation = element.getRotation();
+                values[valueIndex] = position.getX();
+                values[valueIndex + 1] = position.getY();
+                values[valueIndex + 2] = position.getZ();
+                values[valueIndex + 3] = rotation.getX();
+                values[valueIndex + 4] = rotation.getY();
+                values[valueIndex + 5] = rotation.getZ();
+            }
+        }
+
+        return new StructureTimeline(elementCount, length, offsets, ticks, values, visible);
+    }
+
+    /**
+     * Checks whether the element has any keyframes.
+     *
+     * @param element ID of the element
+     * @return {@code true} if the element is animated by this timeline and {@code false} otherwise
+     */
+    public boolean isAnimated(final int element) {
+        return offsets[element] != offsets[element + 1];
+    }
+
+    /**
+     * Samples the state of the element at the tick.
+     *
+     * @param element ID of the element
+     * @param tick tick at which the state should be sampled
+     * @param output array to which {@link #STRIDE} values (position and rotation) of the element should be written
+     * @param outputOffset index from which the values should be written
+     * @return visibility of the element at the tick
+     *
+     * @throws IllegalStateException if the element is not {@link #isAnimated(int) animated}
+     */
+    public boolean sample(final int element, final int tick, final @NonNull double[] output, final int outputOffset) {
+        final int from = offsets[element], to = offsets[element + 1];
+        if (from == to) throw new IllegalStateException("Element " + element + " has no keyframes");
+
+        final int[] thisTicks = ticks;
+        int index;
+        if ((index = Arrays.binarySearch(thisTicks, from, to, tick)) < 0) {
+            // index of the keyframe preceding the tick
+            index = -index - 2;
+
+            // the state is held before the first and after the last keyframe
+            if (index < from) index = from;
+            else if (index < to - 1) {
+                final int startTick = thisTicks[index];
+                final double progress = (double) (tick - startTick) / (thisTicks[index + 1] - startTick);
+
+                final double[] thisValues = values;
+                final int start = index * STRIDE, end = start + STRIDE;
+                for (int i = 0; i < STRIDE; i++) {
+                    final double startValue = thisValues[start + i];
+                    output[outputOffset + i] = startValue + (thisValues[end + i] - startValue) * progress;
+                }
+
+                return visible[index];
+            }
+        }
+
+        System.arraycopy(values, index * STRIDE, output, outputOffset, STRIDE);
+
+        return visible[index];
+    }
+
+    /**
+     * Creates frame updaters applying the keyframes of this timeline.
+     *
+     * @return frame updaters by the ticks of the keyframes
+     */
+    @NotNull Int2ObjectMap<StructureDescriptor.FrameUpdater> toFrameUpdaters() {
+        val ids = new Int2ObjectOpenHashMap<IntArrayList>();
+        val updaters = new Int2ObjectOpenHashMap<List<Structure.Element.Updater>>();
+
+        final int[] thisOffsets = offsets, thisTicks = ticks;
+        final double[] thisValues = values;
+        for (int element = 0; element < elements; element++) for (
+                int index = thisOffsets[element], to = thisOffsets[element + 1]; index < to; index++
+        ) {
+            final int tick = thisTicks[index], valueIndex = index * STRIDE;
+
+            IntArrayList tickIds;
+            List<Structure.Element.Updater> tickUpdaters;
+            if ((tickIds = ids.get(tick)) == null) {
+                ids.put(tick, tickIds = new IntArrayList());
+                updaters.put(tick, tickUpdaters = new ArrayList<>());
+            } else tickUpdaters = updaters.get(tick);
+
+            tickIds.add(element);
+            tickUpdaters.add(StructureDescriptor.elementUpdater(
+                    thisValues[valueIndex], thisValues[valueIndex + 1], thisValues[valueIndex + 2],
+                    thisValues[valueIndex + 3], thisValues[valueIndex + 4], thisValues[valueIndex + 5],
+                    visible[index]
+            ));
+        }
+
+        final Int2ObjectMap<StructureDescriptor.FrameUpdater> frameUpdaters = new Int2ObjectOpenHashMap<>(ids.size());
+        for (val entry : ids.int2ObjectEntrySet()) {
+            final int tick = entry.getIntKey();
+            frameUpdaters.put(tick, StructureDescriptor.FastFrameUpdater.from(
+                    entry.getValue().toIntArray(), updaters.get(tick).toArray(new Structure.Element.Updater[0])
+            ));
+        }
+
+        return frameUpdaters;
+    }
+
+    /**
+     * Writes this timeline in the binary form.
+     *
+     * @param output output to which this timeline should be written
+     * @throws IOException if an I/O exception occurs while writing
+     *
+     * @see #read(ByteBuffer) for reading the written timeline
+     */
+    void write(final @NonNull DataOutput output) throws IOException {
+        output.writeInt(elements);
+        output.writeInt(length);
+        output.writeInt(ticks.length);
+
+        for (final int offset : offsets) output.writeInt(offset);
+        for (final int tick : ticks) output.writeInt(tick);
+        for (final double value : values) output.writeDouble(value);
+        for (final boolean elementVisible : visible) output.writeBoolean(elementVisible);
+    }
+
+    /**
+     * Reads the timeline from its binary form.
+     *
+     * @param buffer buffer from which the timeline should be read
+     * @return read timeline
+     *
+     * @see #write(DataOutput) for writing the timeline
+     */
+    static @NotNull StructureTimeline read(final @NonNull ByteBuffer buffer) {
+        final int elements = buffer.getInt(), length = buffer.getInt(), total = buffer.getInt();
+
+        final int[] offsets = new int[elements + 1];
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+
+        final int[] ticks = new int[total];
+        buffer.asIntBuffer().get(ticks);
+        buffer.position(buffer.position() + total * Integer.BYTES);
+
+        final double[] values = new double[total * STRIDE];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+
+        final boolean[] visible = new boolean[total];
+        for (int i = 0; i < total; i++) visible[i] = buffer.get() != 0;
+
+        return new StructureTimeline(elements, length, offsets, ticks, values, visible);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FakeEntityMetadataTest {
+
+    @Test
+    void testPrimitiveSlots() {
+        val metadata = new FakeEntityMetadata();
+        assertTrue(metadata.isEmpty());
+
+        assertTrue(metadata.setByte(0, (byte) 0x20));
+        assertTrue(metadata.setInt(1, 300));
+        assertTrue(metadata.setFloat(8, 1.5F));
+        assertTrue(metadata.setBoolean(5, true));
+        assertEquals(4, metadata.size());
+
+        assertEquals((byte) 0x20, metadata.getByte(0));
+        assertEquals(300, metadata.getInt(1));
+        assertEquals(1.5F, metadata.getFloat(8));
+        assertTrue(metadata.getBoolean(5));
+        assertEquals(300, metadata.getRaw(1));
+
+        // values of other kinds are not reinterpreted
+        assertEquals(0, metadata.getInt(0));
+        assertFalse(metadata.has(2));
+        assertNull(metadata.getRaw(2));
+    }
+
+    @Test
+    void testChanges() {
+        val metadata = new FakeEntityMetadata();
+        assertFalse(metadata.hasChanges());
+
+        metadata.setByte(0, (byte) 1);
+        assertTrue(metadata.hasChanges());
+
+        metadata.clearChanges();
+        assertFalse(metadata.setByte(0, (byte) 1));
+        assertFalse(metadata.hasChanges());
+
+        assertTrue(metadata.setFlags(0, (byte) 0x40, true));
+        assertEquals((byte) 0x41, metadata.getByte(0));
+        assertTrue(metadata.hasChanges());
+
+        metadata.clearChanges();
+        assertFalse(metadata.setFlags(0, (byte) 0x40, true));
+        assertTrue(metadata.setFlags(0, (byte) 0x01, false));
+        assertEquals((byte) 0x40, metadata.getByte(0));
+
+        // removal drops the pending change of the slot
+        assertTrue(metadata.remove(0));
+        assertFalse(metadata.remove(0));
+        assertFalse(metadata.hasChanges());
+        assertTrue(metadata.isEmpty());
+
+        metadata.setInt(3, 7);
+        metadata.clearChanges();
+        metadata.markAllChanged();
+        assertTrue(metadata.hasChanges());
+    }
+
+    @Test
+    void testKindChangeIsChange() {
+        val metadata = new FakeEntityMetadata();
+        metadata.setByte(4, (byte) 1);
+        metadata.clearChanges();
+
+        assertTrue(metadata.setBoolean(4, true));
+        assertTrue(metadata.getBoolean(4));
+        assertEquals(0, metadata.getByte(4));
+        assertEquals(1, metadata.size());
+    }
+
+    @Test
+    void testCapacity() {
+        val metadata = new FakeEntityMetadata();
+        assertTrue(metadata.setInt(FakeEntityMetadata.MAX_INDEX, 1));
+        assertEquals(1, metadata.getInt(FakeEntityMetadata.MAX_INDEX));
+
+        assertThrows(IllegalArgumentException.class, () -> metadata.setInt(FakeEntityMetadata.MAX_INDEX + 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> metadata.setInt(-1, 1));
+    }
+}
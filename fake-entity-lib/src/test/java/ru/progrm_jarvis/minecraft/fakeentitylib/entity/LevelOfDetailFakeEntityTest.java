@@ -0,0 +1,78 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity;
+
+import lombok.val;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LevelOfDetailFakeEntityTest {
+
+    @Test
+    void testLevelSwitchingSendsOnlyDifferences() {
+        val world = mock(World.class);
+        val player = mock(Player.class);
+        when(player.getWorld()).thenReturn(world);
+        when(player.getEyeLocation()).thenReturn(new Location(world, 5, 0, 0));
+
+        val detailed = mock(BasicFakeEntity.class);
+        val shared = mock(BasicFakeEntity.class);
+        val marker = mock(BasicFakeEntity.class);
+        val entity = LevelOfDetailFakeEntity.create(false, false, new Location(world, 0, 0, 0), Arrays.asList(
+                detailed, shared, marker
+        ), Arrays.asList(
+                LevelOfDetailFakeEntity.Level.of(64, 2),
+                LevelOfDetailFakeEntity.Level.of(16, 1, 0, 1)
+        ));
+        assertEquals(64, entity.getViewDistance());
+
+        entity.addPlayer(player);
+        assertEquals(0, entity.getLevel(player));
+        assertTrue(entity.isRendered(player));
+        verify(detailed).addPlayer(player);
+        verify(shared).addPlayer(player);
+        verifyNoInteractions(marker);
+
+        // moving farther switches to the simplified level
+        when(player.getEyeLocation()).thenReturn(new Location(world, 32, 0, 0));
+        entity.attemptRerenderForAll();
+        assertEquals(1, entity.getLevel(player));
+        verify(detailed).removePlayer(player);
+        verify(shared).removePlayer(player);
+        verify(marker).addPlayer(player);
+
+        // no changes are made while the level stays the same
+        entity.attemptRerender(player);
+        verifyNoMoreInteractions(detailed, shared, marker);
+
+        when(player.getEyeLocation()).thenReturn(new Location(world, 100, 0, 0));
+        entity.attemptRerender(player);
+        assertFalse(entity.isRendered(player));
+        assertEquals(Collections.singleton(player), entity.getNotSeeingPlayers());
+        verify(marker).removePlayer(player);
+
+        entity.removePlayer(player);
+        assertFalse(entity.containsPlayer(player));
+        verifyNoMoreInteractions(detailed, shared, marker);
+    }
+
+    @Test
+    void testInvalidLevels() {
+        val location = new Location(null, 0, 0, 0);
+        val element = Collections.singletonList(mock(BasicFakeEntity.class));
+
+        assertThrows(IllegalArgumentException.class, () -> LevelOfDetailFakeEntity.create(
+                false, false, location, element, Collections.emptyList()
+        ));
+        assertThrows(IllegalArgumentException.class, () -> LevelOfDetailFakeEntity.create(
+                false, false, location, element, Collections.singletonList(LevelOfDetailFakeEntity.Level.of(8, 1))
+        ));
+        assertThrows(IllegalArgumentException.class, () -> LevelOfDetailFakeEntity.Level.of(8, -1));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity;
+
+import lombok.val;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.junit.jupiter.api.Test;
+import ru.progrm_jarvis.mcunit.annotation.EnabledIfNms;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledIfNms
+class PooledLivingFakeEntityFactoryTest {
+
+    @Test
+    void testEntitiesAreReusedAfterDelay() {
+        val time = new AtomicLong();
+        val factory = PooledLivingFakeEntityFactory.builder()
+                .type(EntityType.ARMOR_STAND)
+                .firstEntityId(1000)
+                .capacity(2)
+                .despawnDelayNanos(10L)
+                .clock(time::get)
+                .build();
+        val location = new Location(null, 1, 2, 3);
+
+        val first = factory.acquire(true, location, 0, null, null);
+        assertEquals(1000, first.getEntityId());
+        first.remove();
+        first.remove(); // repeated removal does not return the entity twice
+
+        // the removed entity is not reused until the delay passes
+        val second = factory.acquire(true, location, 0, null, null);
+        assertEquals(1001, second.getEntityId());
+
+        val overflowed = factory.acquire(true, location, 0, null, null);
+        assertNotEquals(1000, overflowed.getEntityId());
+
+        time.set(10);
+        val reused = factory.acquire(false, new Location(null, 4, 5, 6), 0, null, null);
+        assertSame(first, reused);
+        assertFalse(reused.isVisible());
+        assertEquals(4, reused.getLocation().getX());
+
+        val statistics = factory.getStatistics();
+        assertEquals(2, statistics.getCreated());
+        assertEquals(1, statistics.getReused());
+        assertEquals(1, statistics.getOverflowed());
+        assertEquals(1, statistics.getReleased());
+        assertEquals(0, statistics.getIdle());
+        assertEquals(0, statistics.getCooling());
+    }
+
+    @Test
+    void testReusedEntitiesHaveDefaultSettings() {
+        val time = new AtomicLong();
+        val factory = PooledLivingFakeEntityFactory.builder()
+                .type(EntityType.ARMOR_STAND)
+                .firstEntityId(1000)
+                .capacity(1)
+                .despawnDelayNanos(10L)
+                .clock(time::get)
+                .build();
+        val location = new Location(null, 1, 2, 3);
+
+        val first = factory.acquire(true, location, 0, null, null);
+        first.setBufferedMoving(true);
+        first.setCoalescingMetadata(true);
+        first.setMovementThreshold(2);
+        first.setMovementResyncInterval(5);
+        first.setCachingPackets(true);
+        first.compactMoving = true;
+        first.remove();
+
+        time.set(10);
+        val reused = factory.acquire(true, location, 0, null, null);
+        assertSame(first, reused);
+        assertFalse(reused.isBufferedMoving());
+        assertFalse(reused.isCoalescingMetadata());
+        assertEquals(0, reused.getMovementThreshold());
+        assertEquals(AbstractBasicFakeEntity.DEFAULT_MOVEMENT_RESYNC_INTERVAL, reused.getMovementResyncInterval());
+        assertFalse(reused.isCachingPackets());
+        assertFalse(reused.compactMoving);
+        assertNull(reused.sentLocation);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.entity.management;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.FakeEntity;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FakeEntityRegistryTest {
+
+    private static FakeEntity entity(final int entityId) {
+        val entity = mock(FakeEntity.class);
+        when(entity.getEntityId()).thenReturn(entityId);
+
+        return entity;
+    }
+
+    @Test
+    void testKeyedOperations() {
+        final FakeEntityRegistry<FakeEntity> registry = FakeEntityRegistry.createConcurrent(4);
+        val first = entity(1);
+        val second = entity(6);
+
+        assertTrue(registry.add(first));
+        assertFalse(registry.add(first));
+        assertTrue(registry.add(second));
+        assertEquals(2, registry.size());
+
+        assertSame(first, registry.get(1));
+        assertSame(second, registry.get(6));
+        assertNull(registry.get(2));
+
+        // another entity with the same ID is neither stored nor treated as the stored one
+        val duplicate = entity(1);
+        assertThrows(IllegalArgumentException.class, () -> registry.add(duplicate));
+        assertFalse(registry.contains(duplicate));
+        assertFalse(registry.remove(duplicate));
+
+        assertTrue(registry.remove(first));
+        assertNull(registry.get(1));
+        assertEquals(1, registry.size());
+
+        registry.clear();
+        assertTrue(registry.isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> FakeEntityRegistry.createConcurrent(3));
+    }
+
+    @Test
+    void testSnapshotIteration() {
+        final FakeEntityRegistry<FakeEntity> registry = FakeEntityRegistry.create();
+        val first = entity(1);
+        val second = entity(2);
+        registry.add(first);
+        registry.add(second);
+
+        val iterator = registry.iterator();
+        registry.add(entity(3)); // modification is not visible to the started iteration
+
+        val iterated = new HashSet<FakeEntity>();
+        while (iterator.hasNext()) iterated.add(iterator.next());
+        assertEquals(new HashSet<>(Arrays.asList(first, second)), iterated);
+
+        assertEquals(3, registry.toArray().length);
+
+        val removingIterator = registry.iterator();
+        while (removingIterator.hasNext()) if (removingIterator.next() == first) removingIterator.remove();
+        assertFalse(registry.contains(first));
+        assertEquals(2, registry.size());
+    }
+}
@@ -4,21 +4,27 @@ import com.google.gson.Gson;
 import lombok.NonNull;
 import lombok.val;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.Server;
 import org.bukkit.inventory.ItemFactory;
 import org.bukkit.inventory.meta.Damageable;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.util.Vector;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -63,7 +69,160 @@ class StructureDescriptorTest {
         assertEquals(1, structureDescriptor.getKeyframes().size());
     }
 
+    @Test
+    void testBinaryFormat() throws IOException {
+        final StructureDescriptor.JsonRepresentation jsonRepresentation;
+        try (val reader = new BufferedReader(new FileReader(getFile("/entity_descriptor_1.json")))) {
+            jsonRepresentation = StructureDescriptor.jsonRepresentationFrom(reader);
+        }
+
+        val bytes = new ByteArrayOutputStream();
+        try (val output = new DataOutputStream(bytes)) {
+            StructureBinaryFormat.compile(jsonRepresentation, output);
+        }
+
+        val expected = StructureDescriptor.from(jsonRepresentation);
+        val loaded = StructureBinaryFormat.load(ByteBuffer.wrap(bytes.toByteArray()));
+
+        assertDescriptorsEqual(expected, loaded);
+
+        assertThrows(IllegalArgumentException.class, () -> StructureBinaryFormat.load(ByteBuffer.allocate(8)));
+    }
+
+    @Test
+    void testCachedBinaryFile(final @TempDir Path directory) throws IOException {
+        val jsonFile = getFile("/entity_descriptor_1.json").toPath();
+        val binaryFile = directory.resolve("entity_descriptor_1.bin");
+        val cache = new StructureDescriptorCache();
+
+        val compiled = cache.get(jsonFile, binaryFile);
+        assertTrue(Files.exists(binaryFile));
+        // only the binary file should remain after the compilation
+        try (val files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+        assertSame(compiled, cache.get(binaryFile));
+
+        assertDescriptorsEqual(StructureDescriptor.fromJson(getFile("/entity_descriptor_1.json")), compiled);
+    }
+
+    private static void assertDescriptorsEqual(final @NonNull StructureDescriptor expected,
+                                               final @NonNull StructureDescriptor actual) {
+        val expectedElements = expected.getElements();
+        val actualElements = actual.getElements();
+        assertEquals(expectedElements.size(), actualElements.size());
+        for (int i = 0; i < expectedElements.size(); i++) {
+            val expectedElement = expectedElements.get(i);
+            val actualElement = actualElements.get(i);
+            assertEquals(expectedElement.getItem().getType(), actualElement.getItem().getType());
+            assertEquals(expectedElement.getItem().getAmount(), actualElement.getItem().getAmount());
+            assertEquals(expectedElement.getSize(), actualElement.getSize());
+            assertEquals(expectedElement.isVisible(), actualElement.isVisible());
+        }
+
+        val expectedKeyframes = expected.getKeyframes();
+        val actualKeyframes = actual.getKeyframes();
+        assertEquals(expectedKeyframes.keySet(), actualKeyframes.keySet());
+        for (val entry : expectedKeyframes.int2ObjectEntrySet()) assertEquals(
+                applyFrame(entry.getValue(), expectedElements.size()),
+                applyFrame(actualKeyframes.get(entry.getIntKey()), expectedElements.size()),
+                "Keyframe at tick " + entry.getIntKey()
+        );
+
+        val expectedTimeline = expected.getTimeline();
+        val actualTimeline = actual.getTimeline();
+        assertEquals(expectedTimeline.getElements(), actualTimeline.getElements());
+        assertEquals(expectedTimeline.getLength(), actualTimeline.getLength());
+        val expectedValues = new double[StructureTimeline.STRIDE];
+        val actualValues = new double[StructureTimeline.STRIDE];
+        for (int element = 0; element < expectedTimeline.getElements(); element++) {
+            assertEquals(expectedTimeline.isAnimated(element), actualTimeline.isAnimated(element));
+            if (expectedTimeline.isAnimated(element)) for (
+                    int tick = 0, length = Math.max(expectedTimeline.getLength(), 1); tick < length; tick++
+            ) {
+                assertEquals(
+                        expectedTimeline.sample(element, tick, expectedValues, 0),
+                        actualTimeline.sample(element, tick, actualValues, 0)
+                );
+                assertArrayEquals(expectedValues, actualValues, "Element " + element + " at tick " + tick);
+            }
+        }
+    }
+
+    /**
+     * Applies the frame to a structure recording the states of its elements.
+     *
+     * @param frame frame to apply
+     * @param size amount of elements of the structure
+     * @return states of the elements, {@code null} for the ones not updated by the frame
+     */
+    private static List<List<Object>> applyFrame(final @NonNull StructureDescriptor.FrameUpdater frame,
+                                                 final int size) {
+        val elements = new RecordingElement[size];
+        frame.update(new Structure() {
+            @Override
+            public StructureDescriptor getDescriptor() {
+                return null;
+            }
+
+            @Override
+            public Element getElement(final int id) {
+                final RecordingElement element;
+                return (element = elements[id]) == null ? elements[id] = new RecordingElement() : element;
+            }
+        });
+
+        val states = new ArrayList<List<Object>>(size);
+        for (val element : elements) states.add(element == null ? null : element.state());
+
+        return states;
+    }
+
     private File getFile(final @NonNull String fileName) {
         return new File(getClass().getResource(fileName).getFile());
     }
+
+    private static final class RecordingElement implements Structure.Element {
+
+        private boolean visible;
+        private double x, y, z, xRotation, yRotation, zRotation;
+
+        @Override
+        public void setVisible(final boolean visible) {
+            this.visible = visible;
+        }
+
+        @Override
+        public boolean isVisible() {
+            return visible;
+        }
+
+        @Override
+        public Location getPosition() {
+            return new Location(null, x, y, z);
+        }
+
+        @Override
+        public void setPosition(final double x, final double y, final double z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public void setRotation(final double xRotation, final double yRotation, final double zRotation) {
+            this.xRotation = xRotation;
+            this.yRotation = yRotation;
+            this.zRotation = zRotation;
+        }
+
+        @Override
+        public Vector getRotation() {
+            return new Vector(xRotation, yRotation, zRotation);
+        }
+
+        private List<Object> state() {
+            return Arrays.asList(visible, x, y, z, xRotation, yRotation, zRotation);
+        }
+    }
 }
\ No newline at end of file
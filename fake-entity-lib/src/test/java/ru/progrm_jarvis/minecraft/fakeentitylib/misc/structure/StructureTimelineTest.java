@@ -0,0 +1,176 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure;
+
+import lombok.NonNull;
+import lombok.val;
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.Test;
+import ru.progrm_jarvis.minecraft.fakeentitylib.misc.structure.StructureDescriptor.JsonRepresentation.Keyframe;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructureTimelineTest {
+
+    private static Keyframe.Element element(final @NonNull String name, final double x, final double yRotation,
+                                            final boolean visible) {
+        val element = new Keyframe.Element();
+        element.setCustomName(name);
+        element.setPosition(new Vector(x, 0, 0));
+        element.setRotation(new Vector(0, yRotation, 0));
+        element.setVisible(visible);
+
+        return element;
+    }
+
+    private static Keyframe keyframe(final int tick, final Keyframe.Element... elements) {
+        val keyframe = new Keyframe();
+        keyframe.setTick(tick);
+        keyframe.setObjects(elements);
+
+        return keyframe;
+    }
+
+    private static StructureTimeline createTimeline() {
+        // keyframes are intentionally unordered
+        return StructureTimeline.compile(Arrays.asList("a", "b", "c"), new Keyframe[]{
+                keyframe(10, element("a", 10, 90, false)),
+                keyframe(0, element("a", 0, 0, true), element("b", 5, 0, true)),
+        }, 0);
+    }
+
+    @Test
+    void testCompile() {
+        val timeline = createTimeline();
+
+        assertEquals(3, timeline.getElements());
+        assertEquals(11, timeline.getLength());
+        assertTrue(timeline.isAnimated(0));
+        assertTrue(timeline.isAnimated(1));
+        assertFalse(timeline.isAnimated(2));
+
+        assertEquals(20, StructureTimeline.compile(Arrays.asList("a", "b", "c"), new Keyframe[]{
+                keyframe(0, element("a", 0, 0, true))
+        }, 20).getLength());
+
+        assertThrows(IllegalArgumentException.class, () -> StructureTimeline.compile(
+                Arrays.asList("a", "b"), new Keyframe[]{keyframe(0, element("unknown", 0, 0, true))}, 0
+        ));
+    }
+
+    @Test
+    void testSample() {
+        val timeline = createTimeline();
+        val sample = new double[StructureTimeline.STRIDE];
+
+        assertTrue(timeline.sample(0, 0, sample, 0));
+        assertEquals(0, sample[0]);
+
+        assertTrue(timeline.sample(0, 5, sample, 0));
+        assertEquals(5, sample[0], 1E-9);
+        assertEquals(45, sample[4], 1E-9);
+
+        assertFalse(timeline.sample(0, 10, sample, 0));
+        assertEquals(10, sample[0]);
+        assertEquals(90, sample[4]);
+
+        // single keyframe is held for the whole timeline
+        assertTrue(timeline.sample(1, 7, sample, 0));
+        assertEquals(5, sample[0]);
+
+        assertThrows(IllegalStateException.class, () -> timeline.sample(2, 0, sample, 0));
+    }
+
+    @Test
+    void testAnimatorAppliesOnlyChanges() {
+        val structure = new RecordingStructure(3);
+        val animator = new StructureAnimator(createTimeline());
+        animator.add(structure);
+        assertEquals(1, animator.size());
+
+        animator.tick(); // tick 0 applies the whole state
+        assertEquals(1, structure.elements[0].positionUpdates);
+        assertEquals(1, structure.elements[1].positionUpdates);
+        assertEquals(1, structure.elements[1].rotationUpdates);
+        assertEquals(1, structure.elements[1].visibilityUpdates);
+        assertEquals(0, structure.elements[2].positionUpdates);
+
+        animator.tick(); // tick 1 only moves the interpolated element
+        assertEquals(2, structure.elements[0].positionUpdates);
+        assertEquals(2, structure.elements[0].rotationUpdates);
+        assertEquals(1, structure.elements[1].positionUpdates);
+        assertEquals(1, structure.elements[1].rotationUpdates);
+        assertEquals(1, structure.elements[0].visibilityUpdates);
+
+        for (int i = 2; i <= 10; i++) animator.tick();
+        assertFalse(structure.elements[0].visible);
+        assertEquals(10, structure.elements[0].x, 1E-9);
+
+        animator.tick(); // the timeline loops
+        assertTrue(structure.elements[0].visible);
+        assertEquals(0, structure.elements[0].x);
+
+        assertTrue(animator.remove(structure));
+        assertEquals(0, animator.size());
+    }
+
+    private static final class RecordingStructure implements Structure {
+
+        private final RecordingElement[] elements;
+
+        private RecordingStructure(final int size) {
+            elements = new RecordingElement[size];
+            for (int i = 0; i < size; i++) elements[i] = new RecordingElement();
+        }
+
+        @Override
+        public StructureDescriptor getDescriptor() {
+            return null;
+        }
+
+        @Override
+        public Element getElement(final int id) {
+            return elements[id];
+        }
+    }
+
+    private static final class RecordingElement implements Structure.Element {
+
+        private double x;
+        private boolean visible;
+        private int positionUpdates, rotationUpdates, visibilityUpdates;
+
+        @Override
+        public void setVisible(final boolean visible) {
+            this.visible = visible;
+            visibilityUpdates++;
+        }
+
+        @Override
+        public boolean isVisible() {
+            return visible;
+        }
+
+        @Override
+        public Location getPosition() {
+            return null;
+        }
+
+        @Override
+        public void setPosition(final double x, final double y, final double z) {
+            this.x = x;
+            positionUpdates++;
+        }
+
+        @Override
+        public void setRotation(final double xRotation, final double yRotation, final double zRotation) {
+            rotationUpdates++;
+        }
+
+        @Override
+        public Vector getRotation() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.simulation;
+
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.wrappers.WrappedWatchableObject;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.mcunit.bukkit.BukkitStubs;
+import ru.progrm_jarvis.minecraft.commons.math.FastTrigonometry;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.AbstractBasicFakeEntity;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.behaviour.FakeEntityInteraction;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.behaviour.InteractableFakeEntity;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.behaviour.ProtocolBasedFakeEntityInteractionHandler;
+import ru.progrm_jarvis.minecraft.fakeentitylib.entity.observer.PeriodicFakeEntityObserver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>Headless simulator of fake entity load.</p>
+ * <p>It drives a {@link PeriodicFakeEntityObserver}, {@link AbstractBasicFakeEntity} movement
+ * and a {@link ProtocolBasedFakeEntityInteractionHandler} with synthetic players and entities
+ * following scripted movement while the packets are only counted instead of being sent.</p>
+ * <p>Parts depending on the server's implementation are stubbed so that the simulation runs without it:
+ * entities count the packets which they would send instead of creating them
+ * and interactions are passed to the handler's lookup and dispatching bypassing the decoding of the packets.</p>
+ * <p>Stubs used for players and worlds do not record their invocations
+ * so that the measured allocation is mostly caused by the simulated code itself.</p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class FakeEntityLoadSimulator {
+
+    /**
+     * Amount of simulated players
+     */
+    int players;
+
+    /**
+     * Amount of simulated entities
+     */
+    int entities;
+
+    /**
+     * Amount of measured ticks
+     */
+    int ticks;
+
+    /**
+     * Amount of ticks performed before the measurement
+     */
+    int warmupTicks;
+
+    /**
+     * Amount of interactions performed by each player per tick
+     */
+    int interactionsPerPlayerPerTick;
+
+    /**
+     * View distance of the entities
+     */
+    int viewDistance;
+
+    /**
+     * Maximal amount of observer's redraw tasks
+     */
+    int observerThreads;
+
+    @Builder
+    private FakeEntityLoadSimulator(final int players, final int entities, final int ticks, final int warmupTicks,
+                                    final int interactionsPerPlayerPerTick, final int viewDistance,
+                                    final int observerThreads) {
+        checkArgument(players > 0, "players should be positive");
+        checkArgument(entities > 0, "entities should be positive");
+        checkArgument(ticks > 0, "ticks should be positive");
+        checkArgument(warmupTicks >= 0, "warmupTicks should be non-negative");
+        checkArgument(interactionsPerPlayerPerTick >= 0, "interactionsPerPlayerPerTick should be non-negative");
+        checkArgument(viewDistance > 0, "viewDistance should be positive");
+        checkArgument(observerThreads > 0, "observerThreads should be positive");
+
+        this.players = players;
+        this.entities = entities;
+        this.ticks = ticks;
+        this.warmupTicks = warmupTicks;
+        this.interactionsPerPlayerPerTick = interactionsPerPlayerPerTick;
+        this.viewDistance = viewDistance;
+        this.observerThreads = observerThreads;
+    }
+
+    /**
+     * Runs the simulation.
+     *
+     * @return result of the simulation
+     */
+    public @NotNull Result run() {
+        val tasks = new ArrayList<Runnable>();
+        val plugin = plugin(tasks);
+        installProtocolManager();
+
+        val world = BukkitStubs.world("simulation");
+        val packetCounter = new PacketCounter();
+
+        final Location[] playerLocations;
+        final Player[] simulatedPlayers;
+        {
+            final int thisPlayers;
+            playerLocations = new Location[thisPlayers = players];
+            simulatedPlayers = new Player[thisPlayers];
+            for (int i = 0; i < thisPlayers; i++) simulatedPlayers[i] = BukkitStubs.player(
+                    "Player" + i, playerLocations[i] = new Location(world, 0, 64, 0)
+            );
+        }
+
+        final PeriodicFakeEntityObserver<SimulatedEntity> observer = PeriodicFakeEntityObserver
+                .<SimulatedEntity>builder()
+                .plugin(plugin)
+                .interval(1)
+                .minEntitiesForNewThread(Math.max(1, entities / observerThreads))
+                .maxThreads(observerThreads)
+                .entitiesSetSupplier(HashSet::new)
+                .build();
+        val interactionHandler = new SimulatedInteractionHandler(plugin);
+
+        final SimulatedEntity[] simulatedEntities;
+        {
+            final int thisEntities;
+            simulatedEntities = new SimulatedEntity[thisEntities = entities];
+            for (int i = 0; i < thisEntities; i++) {
+                final SimulatedEntity entity;
+                simulatedEntities[i] = entity = new SimulatedEntity(
+                        i, viewDistance, new Location(world, 0, 64, 0), packetCounter
+                );
+                for (val player : simulatedPlayers) entity.addPlayer(player);
+                observer.manageEntity(entity);
+                interactionHandler.manageEntity(entity);
+            }
+        }
+
+        try {
+            for (int tick = 0; tick < warmupTicks; tick++) performTick(
+                    tick, playerLocations, simulatedPlayers, simulatedEntities, tasks, interactionHandler
+            );
+
+            packetCounter.packets = 0;
+            for (val entity : simulatedEntities) entity.interactions = 0;
+
+            final int thisTicks;
+            val tickNanos = new long[thisTicks = ticks];
+            val allocatedBefore = allocatedBytes();
+            val startNanos = System.nanoTime();
+            for (int tick = 0; tick < thisTicks; tick++) {
+                val tickStartNanos = System.nanoTime();
+                performTick(
+                        warmupTicks + tick, playerLocations, simulatedPlayers, simulatedEntities, tasks,
+                        interactionHandler
+                );
+                tickNanos[tick] = System.nanoTime() - tickStartNanos;
+            }
+            val totalNanos = System.nanoTime() - startNanos;
+            val allocatedAfter = allocatedBytes();
+
+            long interactions = 0;
+            for (val entity : simulatedEntities) interactions += entity.interactions;
+
+            Arrays.sort(tickNanos);
+            return new Result(
+                    thisTicks, thisTicks * 1_000_000_000D / totalNanos,
+                    (double) packetCounter.packets / thisTicks / players,
+                    allocatedBefore < 0 || allocatedAfter < 0
+                            ? -1 : (allocatedAfter - allocatedBefore) * 1_000_000_000D / totalNanos,
+                    tickNanos[Math.min(thisTicks - 1, (int) Math.ceil(thisTicks * 0.99) - 1)],
+                    interactions
+            );
+        } finally {
+            for (val entity : simulatedEntities) {
+                interactionHandler.unmanageEntity(entity);
+                observer.unmanageEntity(entity);
+                entity.remove();
+            }
+            interactionHandler.shutdown();
+            observer.shutdown();
+        }
+    }
+
+    /**
+     * Performs a single tick of the simulation.
+     *
+     * @param tick number of the tick
+     * @param playerLocations locations backing the players
+     * @param players simulated players
+     * @param entities simulated entities
+     * @param tasks tasks scheduled by the simulated code
+     * @param interactionHandler interaction handler to which the interactions are passed
+     */
+    private void performTick(final int tick, final @NotNull Location @NotNull [] playerLocations,
+                             final @NotNull Player @NotNull [] players,
+                             final @NotNull SimulatedEntity @NotNull [] entities,
+                             final @NotNull List<Runnable> tasks,
+                             final @NotNull SimulatedInteractionHandler interactionHandler) {
+        final int thisViewDistance = viewDistance;
+
+        // players walk back and forth along the X axis crossing the view distance of the entities
+        for (int i = 0; i < playerLocations.length; i++) playerLocations[i].setX(
+                FastTrigonometry.sin(tick * 2 + i * 37) * thisViewDistance * 2
+        );
+
+        // entities follow circles of different radii
+        for (int i = 0; i < entities.length; i++) {
+            final double angle;
+            final double radius = 2 + (i & 15);
+            entities[i].moveTo(
+                    FastTrigonometry.cos(angle = tick * 4 + i * 11) * radius, 64,
+                    FastTrigonometry.sin(angle) * radius, (float) angle, 0
+            );
+        }
+
+        // scheduled tasks are run as if they were run by the server's scheduler
+        for (val task : tasks) task.run();
+
+        final int thisInteractions;
+        if ((thisInteractions = interactionsPerPlayerPerTick) != 0) for (int i = 0; i < players.length; i++) {
+            final Player player = players[i];
+            for (int interaction = 0; interaction < thisInteractions; interaction++) interactionHandler
+                    .attack(player, (tick + i + interaction) % entities.length);
+        }
+    }
+
+    /**
+     * Creates a plugin whose scheduler's repeating tasks are stored to the given list.
+     *
+     * @param tasks list to which the scheduled tasks should be added
+     * @return created plugin
+     */
+    private static @NotNull Plugin plugin(final @NotNull List<Runnable> tasks) {
+        val scheduler = mock(BukkitScheduler.class);
+        when(scheduler.runTaskTimer(any(Plugin.class), any(Runnable.class), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    final Runnable task = invocation.getArgument(1);
+                    tasks.add(task);
+
+                    val bukkitTask = mock(BukkitTask.class);
+                    doAnswer(cancelInvocation -> tasks.remove(task)).when(bukkitTask).cancel();
+
+                    return bukkitTask;
+                });
+
+        val server = mock(Server.class);
+        when(server.getLogger()).thenReturn(Logger.getLogger(FakeEntityLoadSimulator.class.getName()));
+        when(server.getScheduler()).thenReturn(scheduler);
+        when(server.getPluginManager()).thenReturn(mock(PluginManager.class));
+        // events are registered via the global server
+        if (Bukkit.getServer() == null) Bukkit.setServer(server);
+
+        val plugin = mock(Plugin.class);
+        when(plugin.getName()).thenReturn("FakeEntityLoadSimulator");
+        when(plugin.getServer()).thenReturn(server);
+        when(plugin.isEnabled()).thenReturn(true);
+
+        return plugin;
+    }
+
+    /**
+     * Installs a mocked protocol manager if there is no real one.
+     */
+    @SneakyThrows
+    private static void installProtocolManager() {
+        if (ProtocolLibrary.getProtocolManager() != null) return;
+
+        for (final Field field : ProtocolLibrary.class.getDeclaredFields()) if (Modifier.isStatic(field.getModifiers())
+                && field.getType() == ProtocolManager.class) {
+            field.setAccessible(true);
+            field.set(null, mock(ProtocolManager.class));
+
+            return;
+        }
+
+        throw new IllegalStateException("Cannot install protocol manager");
+    }
+
+    /**
+     * Gets the amount of bytes allocated by the current thread.
+     *
+     * @return amount of bytes allocated by the current thread or {@code -1} if it cannot be measured
+     */
+    private static long allocatedBytes() {
+        val threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) return -1;
+
+        final com.sun.management.ThreadMXBean allocationBean;
+        if (!(allocationBean = (com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+                || !allocationBean.isThreadAllocatedMemoryEnabled()) return -1;
+
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Result of the simulation.
+     */
+    @Value
+    public static class Result {
+
+        /**
+         * Amount of measured ticks
+         */
+        int ticks;
+
+        /**
+         * Amount of ticks performed per second
+         */
+        double ticksPerSecond;
+
+        /**
+         * Average amount of packets sent to a player per tick
+         */
+        double packetsPerPlayerPerTick;
+
+        /**
+         * Amount of bytes allocated per second or {@code -1} if it cannot be measured
+         */
+        double allocationRate;
+
+        /**
+         * 99th percentile of tick time in nanoseconds
+         */
+        long p99TickNanos;
+
+        /**
+         * Amount of interactions handled by the entities
+         */
+        long interactions;
+    }
+
+    /**
+     * Counter of the packets which would have been sent.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class PacketCounter {
+
+        long packets;
+    }
+
+    /**
+     * Interaction handler to which the interactions are passed without the packets
+     * as their decoding depends on the server's implementation.
+     */
+    private static final class SimulatedInteractionHandler
+            extends ProtocolBasedFakeEntityInteractionHandler<SimulatedEntity> {
+
+        private SimulatedInteractionHandler(final @NotNull Plugin plugin) {
+            super(plugin, false);
+        }
+
+        /**
+         * Handles the attack of the entity the same way it is handled when the packet is received.
+         *
+         * @param player player attacking the entity
+         * @param entityId ID of the attacked entity
+         */
+        private void attack(final @NotNull Player player, final int entityId) {
+            final SimulatedEntity entity;
+            if ((entity = getEntity(entityId)) != null) dispatcher.dispatch(
+                    entity, player, FakeEntityInteraction.attack(entityId)
+            );
+        }
+    }
+
+    /**
+     * Entity counting the packets which it would send and the interactions with it.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class SimulatedEntity extends AbstractBasicFakeEntity implements InteractableFakeEntity {
+
+        final int entityId;
+
+        final @NotNull PacketCounter packetCounter;
+
+        long interactions;
+
+        private SimulatedEntity(final int entityId, final int viewDistance, final @NotNull Location location,
+                                final @NotNull PacketCounter packetCounter) {
+            super(false, viewDistance, location, new HashMap<>(), null, null);
+
+            this.entityId = entityId;
+            this.packetCounter = packetCounter;
+        }
+
+        /**
+         * Counts the packets sent to each player seeing this entity.
+         *
+         * @param packets amount of packets sent to each player
+         */
+        private void countSentToViewers(final int packets) {
+            if (visible) for (val rendered : players.values()) if (rendered) packetCounter.packets += packets;
+        }
+
+        @Override
+        public int getEntityId() {
+            return entityId;
+        }
+
+        @Override
+        public void handleInteraction(final Player player, final FakeEntityInteraction interaction) {
+            interactions++;
+        }
+
+        @Override
+        public void spawn() {
+            // spawn and metadata packets
+            countSentToViewers(2);
+        }
+
+        @Override
+        public void despawn() {
+            countSentToViewers(1);
+        }
+
+        @Override
+        public void setVisible(final boolean visible) {
+            if (this.visible == visible) return;
+
+            this.visible = visible;
+
+            if (visible) spawn();
+            else despawn();
+        }
+
+        @Override
+        public void remove() {
+            despawn();
+
+            players.clear();
+        }
+
+        @Override
+        protected void render(final Player player) {
+            // spawn and metadata packets
+            if (visible) packetCounter.packets += 2;
+
+            players.put(player, true);
+        }
+
+        @Override
+        protected void unrender(final Player player) {
+            if (visible) packetCounter.packets++;
+
+            players.put(player, false);
+        }
+
+        @Override
+        protected void sendMetadataChanges(final @NotNull List<WrappedWatchableObject> changes) {
+            countSentToViewers(1);
+        }
+
+        @Override
+        protected void sendMetadataChanges(final @NotNull Player player,
+                                           final @NotNull List<WrappedWatchableObject> changes) {
+            if (visible) packetCounter.packets++;
+        }
+
+        @Override
+        protected void performMoveLook(final double dx, final double dy, final double dz,
+                                       final float yaw, final float pitch, final boolean sendVelocity) {
+            countSentToViewers(1);
+        }
+
+        @Override
+        protected void performMove(final double dx, final double dy, final double dz, final boolean sendVelocity) {
+            countSentToViewers(1);
+        }
+
+        @Override
+        protected void performTeleportation(final double x, final double y, final double z,
+                                            final float yaw, final float pitch, final boolean sendVelocity) {
+            countSentToViewers(1);
+        }
+
+        @Override
+        protected void performLook(final float yaw, final float pitch) {
+            countSentToViewers(1);
+        }
+    }
+}
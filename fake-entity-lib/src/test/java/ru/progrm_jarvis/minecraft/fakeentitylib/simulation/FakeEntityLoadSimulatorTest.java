@@ -0,0 +1,50 @@
+package ru.progrm_jarvis.minecraft.fakeentitylib.simulation;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FakeEntityLoadSimulatorTest {
+
+    @Test
+    void testSimulationIsMeasured() {
+        val result = FakeEntityLoadSimulator.builder()
+                .players(4)
+                .entities(16)
+                .ticks(100)
+                .warmupTicks(10)
+                .interactionsPerPlayerPerTick(2)
+                .viewDistance(32)
+                .observerThreads(2)
+                .build()
+                .run();
+
+        assertEquals(100, result.getTicks());
+        assertTrue(result.getTicksPerSecond() > 0);
+        assertTrue(result.getPacketsPerPlayerPerTick() > 0);
+        assertTrue(result.getP99TickNanos() > 0);
+        assertEquals(4 * 2 * 100, result.getInteractions());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "fakeentitylib.simulation", matches = "true")
+    void benchmarkSimulation() {
+        val result = FakeEntityLoadSimulator.builder()
+                .players(Integer.getInteger("fakeentitylib.simulation.players", 100))
+                .entities(Integer.getInteger("fakeentitylib.simulation.entities", 1000))
+                .ticks(Integer.getInteger("fakeentitylib.simulation.ticks", 1200))
+                .warmupTicks(Integer.getInteger("fakeentitylib.simulation.warmupTicks", 400))
+                .interactionsPerPlayerPerTick(1)
+                .viewDistance(48)
+                .observerThreads(4)
+                .build()
+                .run();
+
+        Logger.getLogger(FakeEntityLoadSimulatorTest.class.getName()).info(result::toString);
+        assertEquals(Integer.getInteger("fakeentitylib.simulation.ticks", 1200), result.getTicks(), result::toString);
+    }
+}
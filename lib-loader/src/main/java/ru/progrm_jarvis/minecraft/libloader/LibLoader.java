@@ -18,7 +18,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * A tiny loader of JAR dependencies to runtime.
@@ -273,6 +275,24 @@ public class LibLoader {
         return loadLib(name, libCoords, true);
     }
 
+    /**
+     * Loads a library by its coords using the given executor so that the calling thread is not blocked
+     * by the download.
+     *
+     * @param name name to store this library by
+     * @param libCoords coords of a library artifact
+     * @param addToClasspath whether or not the library loaded should be added to classpath
+     * @param executor executor to be used for loading the library
+     *
+     * @return future completed with the file of created artifact
+     *
+     * @see #loadLib(String, LibCoords, boolean) for details of loading
+     */
+    public CompletableFuture<File> loadLibAsync(final @NonNull String name, final @NonNull LibCoords libCoords,
+                                                final boolean addToClasspath, final @NonNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> loadLib(name, libCoords, addToClasspath), executor);
+    }
+
     /**
      * Adds the specified URL to classpath of class loader.
      *
@@ -0,0 +1,103 @@
+package ru.progrm_jarvis.mcunit.bukkit;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * <p>Lightweight stubs of Bukkit objects for simulations and benchmarks.</p>
+ * <p>Unlike mocks these do not record their invocations so that they can be called millions of times
+ * without affecting the measured allocation. Only the basic methods are implemented
+ * while all other ones return {@code null}, {@code 0} or {@code false}.</p>
+ */
+@UtilityClass
+public class BukkitStubs {
+
+    /**
+     * Creates a stub of a world.
+     *
+     * @param name name of the world
+     * @return created world stub implementing {@link World#getName()} and {@link World#getUID()}
+     */
+    public @NotNull World world(final @NonNull String name) {
+        final UUID uuid = UUID.nameUUIDFromBytes(("World:" + name).getBytes(StandardCharsets.UTF_8));
+
+        return (World) Proxy.newProxyInstance(
+                World.class.getClassLoader(), new Class<?>[]{World.class}, (proxy, method, arguments) -> {
+                    switch (method.getName()) {
+                        case "getName": return name;
+                        case "getUID": return uuid;
+                        default: return objectMethod(proxy, "World " + name, method, arguments);
+                    }
+                }
+        );
+    }
+
+    /**
+     * Creates a stub of a player whose location is backed by the given one.
+     *
+     * @param name name of the player
+     * @param location location of the player which may be modified to move the player
+     * @return created player stub implementing {@link Player#getName()}, {@link Player#getUniqueId()},
+     * {@link Player#getWorld()}, {@link Player#getLocation()}, {@link Player#getEyeLocation()}
+     * and {@link Player#isOnline()}
+     */
+    public @NotNull Player player(final @NonNull String name, final @NonNull Location location) {
+        final UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+
+        return (Player) Proxy.newProxyInstance(
+                Player.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, arguments) -> {
+                    switch (method.getName()) {
+                        case "getName": case "getDisplayName": return name;
+                        case "getUniqueId": return uuid;
+                        case "getWorld": return location.getWorld();
+                        case "getLocation": {
+                            if (arguments == null) return location.clone();
+
+                            final Location output;
+                            if ((output = (Location) arguments[0]) == null) return null;
+                            output.setWorld(location.getWorld());
+                            output.setYaw(location.getYaw());
+                            output.setPitch(location.getPitch());
+
+                            return output.set(location.getX(), location.getY(), location.getZ());
+                        }
+                        case "getEyeLocation": return location.clone().add(0, 1.62, 0);
+                        case "isOnline": return true;
+                        default: return objectMethod(proxy, "Player " + name, method, arguments);
+                    }
+                }
+        );
+    }
+
+    private Object objectMethod(final @NotNull Object proxy, final @NotNull String description,
+                                final @NotNull Method method, final Object[] arguments) {
+        switch (method.getName()) {
+            case "equals": return arguments != null && arguments.length == 1 && proxy == arguments[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            case "toString": return description;
+            default: return defaultValue(method.getReturnType());
+        }
+    }
+
+    private Object defaultValue(final @NotNull Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+
+        return 0D;
+    }
+}
@@ -1,5 +1,9 @@
 package ru.progrm_jarvis.minecraft.commons.async;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -26,4 +30,53 @@ public interface AsyncRunner {
     default <T> void runAsynchronously(final Supplier<T> operation, final Consumer<T> callback) {
         runAsynchronously(() -> callback.accept(operation.get()));
     }
+
+    /**
+     * Performs the specified operation asynchronously.
+     *
+     * @param operation operation to perform asynchronously
+     * @param <T> type of value returned by the operation
+     * @return future completed with the resulting value of the operation or the exception thrown by it
+     *
+     * @apiNote if the future gets completed (e.g. cancelled) before the operation starts then it is not performed
+     */
+    default <T> @NotNull CompletableFuture<T> supplyAsynchronously(final @NotNull Supplier<T> operation) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        runAsynchronously(() -> {
+            if (future.isDone()) return;
+
+            try {
+                future.complete(operation.get());
+            } catch (final Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Performs the specified operation asynchronously.
+     *
+     * @param operation operation to perform asynchronously
+     * @return future completed once the operation is performed or with the exception thrown by it
+     *
+     * @apiNote if the future gets completed (e.g. cancelled) before the operation starts then it is not performed
+     */
+    default @NotNull CompletableFuture<Void> submitAsynchronously(final @NotNull Runnable operation) {
+        return supplyAsynchronously(() -> {
+            operation.run();
+
+            return null;
+        });
+    }
+
+    /**
+     * Gets this async runner as an executor so that it can be used for composing {@link CompletableFuture}s.
+     *
+     * @return executor performing the operations using this async runner
+     */
+    default @NotNull Executor asExecutor() {
+        return this::runAsynchronously;
+    }
 }
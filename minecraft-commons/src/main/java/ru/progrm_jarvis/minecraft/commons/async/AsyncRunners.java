@@ -1,15 +1,40 @@
 package ru.progrm_jarvis.minecraft.commons.async;
 
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ru.progrm_jarvis.minecraft.commons.MinecraftEnvironment;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Utilities for easier use of {@link AsyncRunner}s.
  */
 @UtilityClass
 public class AsyncRunners {
 
+    /**
+     * Method handle of {@code Executors.newVirtualThreadPerTaskExecutor()}
+     * or {@code null} if virtual threads are not available in the current JVM
+     */
+    private final @Nullable MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD_HANDLE
+            = lookupNewVirtualThreadPerTaskExecutor();
+
+    private @Nullable MethodHandle lookupNewVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class)
+            );
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
     /**
      * Gets an {@link AsyncRunner} aware of current {@link MinecraftEnvironment}.
      *
@@ -39,4 +64,53 @@ public class AsyncRunners {
         throw new IllegalStateException("No AsyncRunner found for current Minecraft environment "
                 + "and specified plugins:" + bukkitPlugin + " [Bukkit], " + bungeePlugin + " [BungeeCord]");
     }
+
+    /**
+     * Gets an {@link AsyncRunner} performing its operations using the given executor service.
+     *
+     * @param executorService executor service to be used for performing the operations
+     * @return async runner based on the given executor service
+     */
+    public @NotNull ExecutorServiceAsyncRunner executorService(final @NonNull ExecutorService executorService) {
+        return new ExecutorServiceAsyncRunner(executorService);
+    }
+
+    /**
+     * Checks whether virtual threads are available in the current JVM.
+     *
+     * @return {@code true} if virtual threads are available and {@code false} otherwise
+     */
+    public boolean isVirtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD_HANDLE != null;
+    }
+
+    /**
+     * Gets an {@link AsyncRunner} performing each operation in a new virtual thread
+     * which makes it suitable for blocking I/O. If virtual threads are not available in the current JVM
+     * then a cached pool of daemon platform threads is used instead.
+     *
+     * @return async runner performing each operation in a new virtual thread if possible
+     *
+     * @see #isVirtualThreadsAvailable() to check whether virtual threads are used
+     */
+    public @NotNull ExecutorServiceAsyncRunner virtualThreads() {
+        final MethodHandle methodHandle;
+        if ((methodHandle = NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD_HANDLE) != null) {
+            final ExecutorService executorService;
+            try {
+                executorService = (ExecutorService) methodHandle.invokeExact();
+            } catch (final Throwable e) {
+                throw new IllegalStateException("Cannot create virtual thread per task executor", e);
+            }
+
+            return new ExecutorServiceAsyncRunner(executorService);
+        }
+
+        return new ExecutorServiceAsyncRunner(Executors.newCachedThreadPool(task -> {
+            final Thread thread = new Thread(task, "AsyncRunner-Worker");
+            thread.setDaemon(true);
+
+            return thread;
+        }));
+    }
 }
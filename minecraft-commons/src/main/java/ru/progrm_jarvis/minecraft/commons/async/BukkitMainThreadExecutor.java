@@ -0,0 +1,50 @@
+package ru.progrm_jarvis.minecraft.commons.async;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Executor performing the operations on the server's main thread.
+ * Operations submitted from the main thread itself are performed immediately.
+ */
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BukkitMainThreadExecutor implements Executor {
+
+    /**
+     * Plugin to be used for scheduling the operations.
+     */
+    @NonNull Plugin plugin;
+
+    @Override
+    public void execute(final @NonNull Runnable operation) {
+        final Plugin thisPlugin;
+        if ((thisPlugin = plugin).getServer().isPrimaryThread()) operation.run();
+        else thisPlugin.getServer().getScheduler().runTask(thisPlugin, operation);
+    }
+
+    /**
+     * Creates a future completed on the main thread once the given stage completes.
+     *
+     * @param stage stage whose result should be passed to the main thread
+     * @param <T> type of the result
+     * @return future completed on the main thread with the result of the stage
+     */
+    public <T> @NotNull CompletableFuture<T> completeOnMainThread(final @NonNull CompletionStage<T> stage) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        stage.whenComplete((result, throwable) -> execute(() -> {
+            if (throwable == null) future.complete(result);
+            else future.completeExceptionally(throwable);
+        }));
+
+        return future;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.progrm_jarvis.minecraft.commons.async;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Async runner based on {@link ExecutorService}.
+ * Unlike {@link BukkitSchedulerAsyncRunner} it does not occupy the threads of the server's scheduler.
+ */
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ExecutorServiceAsyncRunner implements AsyncRunner, AutoCloseable {
+
+    /**
+     * Executor service to be used for performing asynchronous operations.
+     */
+    @Getter @NonNull ExecutorService executorService;
+
+    @Override
+    public void runAsynchronously(final Runnable operation) {
+        executorService.execute(operation);
+    }
+
+    @Override
+    public <T> @NotNull CompletableFuture<T> supplyAsynchronously(final @NonNull Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, executorService);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Void> submitAsynchronously(final @NonNull Runnable operation) {
+        return CompletableFuture.runAsync(operation, executorService);
+    }
+
+    @Override
+    public @NotNull Executor asExecutor() {
+        return executorService;
+    }
+
+    /**
+     * Shuts down the executor service of this async runner.
+     */
+    @Override
+    public void close() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,161 @@
+package ru.progrm_jarvis.minecraft.commons.math;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>Mutable 3x3 rotation matrix meant to be reused for rotating many points by the same rotation.</p>
+ * <p>The rotation is {@code Mx(x) * My(y) * Mz(z)} where {@code Mx}, {@code My} and {@code Mz}
+ * are <a href="https://en.wikipedia.org/wiki/Rotation_matrix">rotation matrices</a>
+ * around the corresponding axes and the angles are in degrees.</p>
+ *
+ * @apiNote this class is not thread-safe
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class RotationMatrix {
+
+    /**
+     * Distance from the right angle of the rotation around <i>y</i>-axis within which it is considered a gimbal lock
+     */
+    private static final double GIMBAL_LOCK_EPSILON = 1E-9;
+
+    double m00 = 1, m01, m02,
+            m10, m11 = 1, m12,
+            m20, m21, m22 = 1;
+
+    /**
+     * Sets this matrix to the rotation by the angles.
+     *
+     * @param xRotation rotation around <i>x</i>-axis in degrees
+     * @param yRotation rotation around <i>y</i>-axis in degrees
+     * @param zRotation rotation around <i>z</i>-axis in degrees
+     * @return this matrix
+     */
+    public @NotNull RotationMatrix set(final double xRotation, final double yRotation, final double zRotation) {
+        final double sinX = FastTrigonometry.sin(xRotation), cosX = FastTrigonometry.cos(xRotation),
+                sinY = FastTrigonometry.sin(yRotation), cosY = FastTrigonometry.cos(yRotation),
+                sinZ = FastTrigonometry.sin(zRotation), cosZ = FastTrigonometry.cos(zRotation);
+
+        m00 = cosY * cosZ;
+        m01 = -cosY * sinZ;
+        m02 = sinY;
+
+        m10 = cosX * sinZ + sinX * sinY * cosZ;
+        m11 = cosX * cosZ - sinX * sinY * sinZ;
+        m12 = -sinX * cosY;
+
+        m20 = sinX * sinZ - cosX * sinY * cosZ;
+        m21 = sinX * cosZ + cosX * sinY * sinZ;
+        m22 = cosX * cosY;
+
+        return this;
+    }
+
+    /**
+     * Sets this matrix to the product of the matrices,
+     * that is the rotation by the right matrix followed by the rotation by the left one.
+     *
+     * @param left matrix by which the rotation is followed
+     * @param right matrix by which the rotation starts
+     * @return this matrix
+     *
+     * @apiNote this matrix may be one of the multiplied ones
+     */
+    public @NotNull RotationMatrix multiply(final @NonNull RotationMatrix left, final @NonNull RotationMatrix right) {
+        final double l00 = left.m00, l01 = left.m01, l02 = left.m02,
+                l10 = left.m10, l11 = left.m11, l12 = left.m12,
+                l20 = left.m20, l21 = left.m21, l22 = left.m22,
+                r00 = right.m00, r01 = right.m01, r02 = right.m02,
+                r10 = right.m10, r11 = right.m11, r12 = right.m12,
+                r20 = right.m20, r21 = right.m21, r22 = right.m22;
+
+        m00 = l00 * r00 + l01 * r10 + l02 * r20;
+        m01 = l00 * r01 + l01 * r11 + l02 * r21;
+        m02 = l00 * r02 + l01 * r12 + l02 * r22;
+
+        m10 = l10 * r00 + l11 * r10 + l12 * r20;
+        m11 = l10 * r01 + l11 * r11 + l12 * r21;
+        m12 = l10 * r02 + l11 * r12 + l12 * r22;
+
+        m20 = l20 * r00 + l21 * r10 + l22 * r20;
+        m21 = l20 * r01 + l21 * r11 + l22 * r21;
+        m22 = l20 * r02 + l21 * r12 + l22 * r22;
+
+        return this;
+    }
+
+    /**
+     * Gets the angles of this rotation, the inverse of {@link #set(double, double, double)}.
+     * If the rotation around <i>y</i>-axis is a right angle, the rotation around <i>z</i>-axis is {@code 0}.
+     *
+     * @param output vector to which the rotations around <i>x</i>, <i>y</i> and <i>z</i> axes
+     * should be written in degrees
+     * @return the given vector
+     */
+    public @NotNull Vector toAngles(final @NonNull Vector output) {
+        final double sinY;
+        if ((sinY = m02) >= 1 - GIMBAL_LOCK_EPSILON || sinY <= -1 + GIMBAL_LOCK_EPSILON) return output
+                // rotations around x and z axes are indistinguishable in gimbal lock
+                .setX(Math.toDegrees(Math.atan2(m21, m11)))
+                .setY(sinY > 0 ? 90 : -90)
+                .setZ(0);
+
+        return output
+                .setX(Math.toDegrees(Math.atan2(-m12, m22)))
+                .setY(Math.toDegrees(Math.asin(sinY)))
+                .setZ(Math.toDegrees(Math.atan2(-m01, m00)));
+    }
+
+    /**
+     * Rotates the vector by this matrix.
+     *
+     * @param vector vector which should be rotated in place
+     * @return the given vector
+     */
+    public @NotNull Vector transform(final @NonNull Vector vector) {
+        final double x = vector.getX(), y = vector.getY(), z = vector.getZ();
+
+        return vector.setX(transformX(x, y, z)).setY(transformY(x, y, z)).setZ(transformZ(x, y, z));
+    }
+
+    /**
+     * Gets the <i>x</i> coordinate of the rotated point.
+     *
+     * @param x <i>x</i> coordinate of the point
+     * @param y <i>y</i> coordinate of the point
+     * @param z <i>z</i> coordinate of the point
+     * @return <i>x</i> coordinate of the point rotated by this matrix
+     */
+    public double transformX(final double x, final double y, final double z) {
+        return m00 * x + m01 * y + m02 * z;
+    }
+
+    /**
+     * Gets the <i>y</i> coordinate of the rotated point.
+     *
+     * @param x <i>x</i> coordinate of the point
+     * @param y <i>y</i> coordinate of the point
+     * @param z <i>z</i> coordinate of the point
+     * @return <i>y</i> coordinate of the point rotated by this matrix
+     */
+    public double transformY(final double x, final double y, final double z) {
+        return m10 * x + m11 * y + m12 * z;
+    }
+
+    /**
+     * Gets the <i>z</i> coordinate of the rotated point.
+     *
+     * @param x <i>x</i> coordinate of the point
+     * @param y <i>y</i> coordinate of the point
+     * @param z <i>z</i> coordinate of the point
+     * @return <i>z</i> coordinate of the point rotated by this matrix
+     */
+    public double transformZ(final double x, final double y, final double z) {
+        return m20 * x + m21 * y + m22 * z;
+    }
+}
@@ -26,6 +26,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -131,6 +132,10 @@ public class MojangApiManager implements AutoCloseable {
         asyncRunner.get().runAsynchronously(() -> readUuidUnchecked(userName), callback);
     }
 
+    public @NotNull CompletableFuture<UUID> readUuidAsync(final @NonNull String userName) {
+        return asyncRunner.get().supplyAsynchronously(() -> readUuidUnchecked(userName));
+    }
+
     @AsyncExpected
     @SneakyThrows(IOException.class)
     public @NotNull UUID readUuidUnchecked(final @NonNull String userName) {
@@ -148,6 +153,16 @@ public class MojangApiManager implements AutoCloseable {
         asyncRunner.get().runAsynchronously(() -> getUuid(userName), callback);
     }
 
+    public @NotNull CompletableFuture<UUID> getUuidAsync(final @NonNull String userName) {
+        // cached values are returned without involving the async runner
+        final UUID cachedUuid;
+        if ((cachedUuid = uuidsCache.get().getIfPresent(userName.toLowerCase())) != null) {
+            return CompletableFuture.completedFuture(cachedUuid);
+        }
+
+        return asyncRunner.get().supplyAsynchronously(() -> getUuid(userName));
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // UUID --> GameProfile
     ///////////////////////////////////////////////////////////////////////////
@@ -181,6 +196,10 @@ public class MojangApiManager implements AutoCloseable {
         asyncRunner.get().runAsynchronously(() -> readProfileUnchecked(uuid, signed), callback);
     }
 
+    public @NotNull CompletableFuture<GameProfile> readProfileAsync(final @NonNull UUID uuid, final boolean signed) {
+        return asyncRunner.get().supplyAsynchronously(() -> readProfileUnchecked(uuid, signed));
+    }
+
     @AsyncExpected
     @SneakyThrows(IOException.class)
     public @NotNull GameProfile readProfileUnchecked(final @NonNull UUID uuid, final boolean signed) {
@@ -204,6 +223,17 @@ public class MojangApiManager implements AutoCloseable {
         asyncRunner.get().runAsynchronously(() -> getProfile(uuid, signed), callback);
     }
 
+    public @NotNull CompletableFuture<GameProfile> getProfileAsync(final @NonNull UUID uuid, final boolean signed) {
+        // cached values are returned without involving the async runner
+        final GameProfile cachedProfile;
+        if ((cachedProfile = profilesCache.get().getIfPresent(uuid)) != null
+                && (!signed || MojangUtil.isSigned(cachedProfile))) {
+            return CompletableFuture.completedFuture(cachedProfile);
+        }
+
+        return asyncRunner.get().supplyAsynchronously(() -> getProfile(uuid, signed));
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // Configuration class
     ///////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,302 @@
+package ru.progrm_jarvis.minecraft.commons.nms.protocol.misc;
+
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.injector.netty.WirePacket;
+import com.comphenix.protocol.utility.MinecraftFields;
+import com.comphenix.protocol.utility.MinecraftReflection;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.java.Log;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * <p>Packet sender which collects the packets sent to each player and defers their sending until {@link #flush()}.
+ * Packets are sent in the same order in which they were queued.</p>
+ * <p>On flush the packets of each player are written to the player's channel and flushed once
+ * so that the whole batch reaches the socket in a single flush instead of one flush per packet.
+ * Written packets are passed through the packet listeners the same way the server's own packets are.
+ * If the channel is not accessible on the current server the packets are sent one by one.</p>
+ * <p>Bundle packets are not used as they are not supported by the protocol of the supported versions.</p>
+ */
+@Log
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class DeferredPacketSender implements PacketSender, Shutdownable {
+
+    /**
+     * Protocol manager used for sending the packets if the channels are not accessible
+     */
+    @ToString.Exclude @NonNull ProtocolManager protocolManager;
+
+    /**
+     * Packets (either {@link PacketContainer packet containers} or {@link WirePacket wire packets})
+     * queued for sending by their receivers
+     */
+    @ToString.Exclude @NonNull Map<Player, Queue<Object>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Task flushing this packet sender or {@code null} if it is flushed manually
+     */
+    @Nullable BukkitTask task;
+
+    private DeferredPacketSender(final @NonNull ProtocolManager protocolManager, final @Nullable Plugin plugin) {
+        this.protocolManager = protocolManager;
+
+        task = plugin == null ? null : plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, 1, 1);
+    }
+
+    /**
+     * Creates a new deferred packet sender which gets flushed on each tick.
+     *
+     * @param plugin plugin whose task will flush the created packet sender
+     * @return created deferred packet sender
+     */
+    public static @NotNull DeferredPacketSender create(final @NonNull Plugin plugin) {
+        return new DeferredPacketSender(ProtocolLibrary.getProtocolManager(), plugin);
+    }
+
+    /**
+     * Creates a new deferred packet sender which has to be flushed manually using {@link #flush()}.
+     *
+     * @return created deferred packet sender
+     */
+    public static @NotNull DeferredPacketSender createManual() {
+        return new DeferredPacketSender(ProtocolLibrary.getProtocolManager(), null);
+    }
+
+    @Override
+    public void send(final @NotNull Player player, final @NotNull PacketContainer packet) {
+        // the packet gets copied as packet owners normally reuse their packets
+        queues.computeIfAbsent(player, newPlayer -> new ConcurrentLinkedQueue<>()).add(packet.shallowClone());
+    }
+
+    @Override
+    public void send(final @NotNull Player player, final @NotNull WirePacket packet) {
+        // wire packets are immutable so they don't have to be copied
+        queues.computeIfAbsent(player, newPlayer -> new ConcurrentLinkedQueue<>()).add(packet);
+    }
+
+    /**
+     * Sends all queued packets to their receivers flushing the channel of each of them once.
+     * Failure to send a packet is logged and does not prevent the following packets from being sent.
+     */
+    public void flush() {
+        val entries = queues.entrySet().iterator();
+        while (entries.hasNext()) {
+            val entry = entries.next();
+            val player = entry.getKey();
+            // there is no need in keeping queues of players who have left
+            if (!player.isOnline()) {
+                entries.remove();
+
+                continue;
+            }
+
+            final Queue<Object> packets;
+            if ((packets = entry.getValue()).isEmpty()) continue;
+
+            final ChannelAccess channelAccess;
+            final Object channel;
+            if ((channelAccess = ChannelAccessHolder.INSTANCE) == null
+                    || (channel = channelAccess.channel(player)) == null) sendSeparately(player, packets);
+            else writeAndFlush(channelAccess, channel, player, packets);
+        }
+    }
+
+    /**
+     * Writes the packets to the channel flushing it once all of them are written.
+     *
+     * @param channelAccess accessor of the channels
+     * @param channel channel of the player
+     * @param player player to whom the packets should be sent
+     * @param packets packets to send
+     */
+    private static void writeAndFlush(final @NotNull ChannelAccess channelAccess, final @NotNull Object channel,
+                                      final @NotNull Player player, final @NotNull Queue<Object> packets) {
+        Object packet;
+        while ((packet = packets.poll()) != null) try {
+            // wire packets are encoded by ProtocolLib's encoder while the other ones by the server's encoder
+            channelAccess.write(
+                    channel, packet instanceof WirePacket ? packet : ((PacketContainer) packet).getHandle()
+            );
+        } catch (final Throwable e) {
+            log.log(Level.SEVERE, "Cannot send packet " + packet + " to " + player, e);
+        }
+
+        try {
+            channelAccess.flush(channel);
+        } catch (final Throwable e) {
+            log.log(Level.SEVERE, "Cannot flush the packets sent to " + player, e);
+        }
+    }
+
+    /**
+     * Sends the packets one by one.
+     *
+     * @param player player to whom the packets should be sent
+     * @param packets packets to send
+     */
+    private void sendSeparately(final @NotNull Player player, final @NotNull Queue<Object> packets) {
+        Object packet;
+        while ((packet = packets.poll()) != null) try {
+            if (packet instanceof WirePacket) protocolManager.sendWirePacket(player, (WirePacket) packet);
+            else protocolManager.sendServerPacket(player, (PacketContainer) packet);
+        } catch (final InvocationTargetException | RuntimeException e) {
+            log.log(Level.SEVERE, "Cannot send packet " + packet + " to " + player, e);
+        }
+    }
+
+    /**
+     * Gets the amount of packets queued for the player.
+     *
+     * @param player player whose queued packets should be counted
+     * @return amount of packets queued for the player
+     */
+    public int queuedPackets(final @NonNull Player player) {
+        val packets = queues.get(player);
+
+        return packets == null ? 0 : packets.size();
+    }
+
+    @Override
+    public void shutdown() {
+        final BukkitTask thisTask;
+        if ((thisTask = task) != null) thisTask.cancel();
+
+        flush();
+        queues.clear();
+    }
+
+    /**
+     * Holder of the lazily created {@link ChannelAccess}.
+     */
+    private static final class ChannelAccessHolder {
+
+        /**
+         * Accessor of the players' channels or {@code null} if they are not accessible on the current server
+         */
+        private static final @Nullable ChannelAccess INSTANCE = ChannelAccess.create();
+    }
+
+    /**
+     * Accessor of the players' Netty channels which are not on the compile classpath.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class ChannelAccess {
+
+        /**
+         * Getter of the channel of a network manager of type {@code (Object)Object}
+         */
+        @NonNull MethodHandle channelGetter;
+
+        /**
+         * Method handle of {@code Channel#write(Object)} of type {@code (Object, Object)void}
+         */
+        @NonNull MethodHandle writeMethodHandle;
+
+        /**
+         * Method handle of {@code Channel#flush()} of type {@code (Object)void}
+         */
+        @NonNull MethodHandle flushMethodHandle;
+
+        /**
+         * Creates the accessor of the channels.
+         *
+         * @return created accessor or {@code null} if the channels are not accessible on the current server
+         */
+        private static @Nullable ChannelAccess create() {
+            try {
+                final Class<?> channelClass = Class.forName("io.netty.channel.Channel"),
+                        networkManagerClass = MinecraftReflection.getNetworkManagerClass();
+
+                Field channelField = null;
+                for (Class<?> type = networkManagerClass; type != null && channelField == null;
+                     type = type.getSuperclass()) for (val field : type.getDeclaredFields()) {
+                    if (channelClass.isAssignableFrom(field.getType())) {
+                        channelField = field;
+                        break;
+                    }
+                }
+                if (channelField == null) throw new NoSuchFieldException(
+                        "No channel field in " + networkManagerClass
+                );
+                channelField.setAccessible(true);
+
+                val lookup = MethodHandles.publicLookup();
+                return new ChannelAccess(
+                        MethodHandles.lookup().unreflectGetter(channelField)
+                                .asType(methodType(Object.class, Object.class)),
+                        lookup.findVirtual(
+                                channelClass, "write",
+                                methodType(Class.forName("io.netty.channel.ChannelFuture"), Object.class)
+                        ).asType(methodType(void.class, Object.class, Object.class)),
+                        lookup.findVirtual(channelClass, "flush", methodType(channelClass))
+                                .asType(methodType(void.class, Object.class))
+                );
+            } catch (final Throwable e) {
+                log.log(Level.WARNING, "Players' channels are not accessible, packets will be sent one by one", e);
+
+                return null;
+            }
+        }
+
+        /**
+         * Gets the channel of the player.
+         *
+         * @param player player whose channel should be got
+         * @return channel of the player or {@code null} if it cannot be got
+         */
+        private @Nullable Object channel(final @NotNull Player player) {
+            try {
+                final Object networkManager;
+                return (networkManager = MinecraftFields.getNetworkManager(player)) == null
+                        ? null : (Object) channelGetter.invokeExact(networkManager);
+            } catch (final Throwable e) {
+                log.log(Level.SEVERE, "An exception occurred while getting the channel of " + player, e);
+
+                return null;
+            }
+        }
+
+        /**
+         * Writes the message to the channel without flushing it.
+         *
+         * @param channel channel to which the message should be written
+         * @param message message to write
+         * @throws Throwable if an exception occurs while writing
+         */
+        private void write(final @NotNull Object channel, final @NotNull Object message) throws Throwable {
+            writeMethodHandle.invokeExact(channel, message);
+        }
+
+        /**
+         * Flushes the channel.
+         *
+         * @param channel channel to flush
+         * @throws Throwable if an exception occurs while flushing
+         */
+        private void flush(final @NotNull Object channel) throws Throwable {
+            flushMethodHandle.invokeExact(channel);
+        }
+    }
+}
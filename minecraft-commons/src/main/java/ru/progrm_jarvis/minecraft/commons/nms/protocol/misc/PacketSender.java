@@ -0,0 +1,96 @@
+package ru.progrm_jarvis.minecraft.commons.nms.protocol.misc;
+
+import com.comphenix.packetwrapper.AbstractPacket;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.injector.netty.WirePacket;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Object responsible for sending packets to players.
+ */
+public interface PacketSender {
+
+    /**
+     * Sends the packet to the player.
+     *
+     * @param player player to whom the packet should be sent
+     * @param packet packet to send
+     *
+     * @apiNote the packet may be modified by its owner once this method returns
+     * so implementations which do not send the packet instantly should copy it
+     */
+    void send(@NotNull Player player, @NotNull PacketContainer packet);
+
+    /**
+     * Sends the packet to the player.
+     *
+     * @param player player to whom the packet should be sent
+     * @param packet packet to send
+     *
+     * @see #send(Player, PacketContainer) for details
+     */
+    default void send(final @NotNull Player player, final @NotNull AbstractPacket packet) {
+        send(player, packet.getHandle());
+    }
+
+    /**
+     * Sends the pre-serialized packet to the player.
+     *
+     * @param player player to whom the packet should be sent
+     * @param packet pre-serialized packet to send
+     *
+     * @apiNote pre-serialized packets are written as is and thus are not passed through the packet listeners
+     */
+    void send(@NotNull Player player, @NotNull WirePacket packet);
+
+    /**
+     * Gets the packet sender which sends the packets instantly.
+     *
+     * @return packet sender sending the packets instantly
+     */
+    static @NotNull PacketSender direct() {
+        return Direct.INSTANCE;
+    }
+
+    /**
+     * Packet sender which sends the packets instantly.
+     */
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    final class Direct implements PacketSender {
+
+        /**
+         * Singleton instance of this packet sender
+         */
+        private static final PacketSender INSTANCE = new Direct();
+
+        /**
+         * Protocol manager used for sending the packets
+         */
+        private final ProtocolManager protocolManager = ProtocolLibrary.getProtocolManager();
+
+        @Override
+        public void send(final @NotNull Player player, final @NotNull PacketContainer packet) {
+            try {
+                protocolManager.sendServerPacket(player, packet);
+            } catch (final InvocationTargetException e) {
+                throw new RuntimeException("Cannot send packet", e);
+            }
+        }
+
+        @Override
+        public void send(final @NotNull Player player, final @NotNull WirePacket packet) {
+            try {
+                protocolManager.sendWirePacket(player, packet);
+            } catch (final InvocationTargetException e) {
+                throw new RuntimeException("Cannot send wire packet", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.progrm_jarvis.minecraft.commons.nms.protocol.misc;
+
+import com.comphenix.packetwrapper.AbstractPacket;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.injector.netty.WirePacket;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cache of a packet serialized into its {@link WirePacket wire form}.
+ * The packet is serialized once and the same serialized form is used until the cache gets {@link #invalidate()
+ * invalidated} which should happen whenever the packet gets modified.
+ */
+@ToString
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class WirePacketCache {
+
+    /**
+     * Cached serialized packet or {@code null} if it should be (re)serialized
+     */
+    @ToString.Exclude volatile @Nullable WirePacket wirePacket;
+
+    /**
+     * Gets the serialized form of the packet serializing it if it is not cached.
+     *
+     * @param packet packet whose serialized form should be got, should be the same as the one previously cached
+     * @return serialized form of the packet
+     */
+    public @NotNull WirePacket get(final @NonNull PacketContainer packet) {
+        WirePacket thisWirePacket;
+        if ((thisWirePacket = wirePacket) == null) wirePacket = thisWirePacket = WirePacket.fromPacket(packet);
+
+        return thisWirePacket;
+    }
+
+    /**
+     * Gets the serialized form of the packet serializing it if it is not cached.
+     *
+     * @param packet packet whose serialized form should be got, should be the same as the one previously cached
+     * @return serialized form of the packet
+     */
+    public @NotNull WirePacket get(final @NonNull AbstractPacket packet) {
+        return get(packet.getHandle());
+    }
+
+    /**
+     * Invalidates this cache so that the packet gets serialized again on next {@link #get(PacketContainer)}.
+     */
+    public void invalidate() {
+        wirePacket = null;
+    }
+}
@@ -12,6 +12,7 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
 import ru.progrm_jarvis.minecraft.commons.player.collection.PlayerContainer;
+import ru.progrm_jarvis.minecraft.commons.schedule.affine.AffineSchedulers;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -80,7 +81,10 @@ public class DefaultPlayerRegistry implements PlayerRegistry {
     public void addPlayer(final Player player, final boolean force) {
         players.add(player);
 
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
+        final Runnable containersUpdate = () -> {
+            // the player may have been removed before the update
+            if (!players.contains(player)) return;
+
             playerContainersReadLock.lock();
             try {
                 for (val playerContainer : playerContainers) if (force || playerContainer.isGlobal()) playerContainer
@@ -88,7 +92,10 @@ public class DefaultPlayerRegistry implements PlayerRegistry {
             } finally {
                 playerContainersReadLock.unlock();
             }
-        });
+        };
+        // containers are updated by the thread owning the player,
+        // the task only gets retired if the player leaves in which case it gets removed from the registry anyway
+        AffineSchedulers.of(plugin).runFor(player, containersUpdate);
     }
 
     @Override
@@ -100,7 +107,8 @@ public class DefaultPlayerRegistry implements PlayerRegistry {
     public void removePlayer(final Player player) {
         players.remove(player);
 
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
+        // the player may already be removed from the world so the global lane is used
+        AffineSchedulers.of(plugin).runGlobal(() -> {
             playerContainersReadLock.lock();
             try {
                 for (val playerContainer : playerContainers) playerContainer.removePlayer(player);
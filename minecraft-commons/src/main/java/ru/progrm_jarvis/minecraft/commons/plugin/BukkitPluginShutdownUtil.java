@@ -4,17 +4,22 @@ import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.Value;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.experimental.UtilityClass;
 import lombok.val;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 import ru.progrm_jarvis.javacommons.collection.concurrent.ConcurrentCollections;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.ParallelShutdown;
 import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 /**
  * Utility responsible for handling plugin shutdown hooks.
@@ -56,12 +61,36 @@ public class BukkitPluginShutdownUtil {
         getOptionalShutdownHandler(plugin).ifPresent(handler -> handler.shutdownHooks.removeAll(callback));
     }
 
+    /**
+     * Makes the shutdown hooks of the plugin be shut down in parallel instead of sequentially
+     * in the order of their registration.
+     *
+     * @param plugin plugin whose shutdown hooks should be shut down in parallel
+     * @param parallelShutdown policy of the parallel shutdown
+     *
+     * @apiNote this should only be used if the plugin's shutdown hooks are independent from each other
+     * and may be called from threads other than the server's one
+     */
+    public void enableParallelShutdown(final @NonNull Plugin plugin, final @NonNull ParallelShutdown parallelShutdown) {
+        getOrCreateShutdownHandler(plugin).parallelShutdown = parallelShutdown;
+    }
+
+    /**
+     * Makes the shutdown hooks of the plugin be shut down sequentially in the order of their registration.
+     *
+     * @param plugin plugin whose shutdown hooks should be shut down sequentially
+     */
+    public void disableParallelShutdown(final @NonNull Plugin plugin) {
+        getOptionalShutdownHandler(plugin).ifPresent(handler -> handler.parallelShutdown = null);
+    }
+
     @Value
     @FieldDefaults(level = AccessLevel.PRIVATE)
     private static class PluginShutdownHandler implements Listener {
 
         @NonNull Plugin plugin;
         @NonNull List<Shutdownable> shutdownHooks = ConcurrentCollections.concurrentList(new ArrayList<>());
+        @NonFinal volatile @Nullable ParallelShutdown parallelShutdown;
 
         private PluginShutdownHandler(final @NonNull Plugin plugin) {
             this.plugin = plugin;
@@ -73,11 +102,35 @@ public class BukkitPluginShutdownUtil {
             // check if the plugin disabled is the right one
             if (event.getPlugin() == plugin) {
                 val thisShutdownHooks = shutdownHooks;
-                while (!thisShutdownHooks.isEmpty()) {
+                val thisParallelShutdown = parallelShutdown;
+                if (thisParallelShutdown == null) while (!thisShutdownHooks.isEmpty()) {
                     val hook = thisShutdownHooks.remove(0);
                     hook.shutdown();
+                } else while (!thisShutdownHooks.isEmpty()) {
+                    // hooks may register new ones while being shut down
+                    val hooks = new ArrayList<Shutdownable>();
+                    while (!thisShutdownHooks.isEmpty()) hooks.add(thisShutdownHooks.remove(0));
+
+                    report(thisParallelShutdown.shutdown(hooks));
                 }
             }
         }
+
+        /**
+         * Logs the problems of the parallel shutdown.
+         *
+         * @param report report of the parallel shutdown
+         */
+        private void report(final @NonNull ParallelShutdown.Report report) {
+            val logger = plugin.getLogger();
+            for (val overrun : report.getOverruns()) logger.warning(
+                    "Shutdown hook " + overrun.getShutdownable()
+                            + (overrun.isCompleted() ? " took " : " did not complete in ")
+                            + TimeUnit.NANOSECONDS.toMillis(overrun.getElapsedNanos()) + " ms"
+            );
+            for (val failure : report.getFailures()) logger.log(
+                    Level.SEVERE, "Shutdown hook " + failure.getShutdownable() + " has failed", failure.getCause()
+            );
+        }
     }
 }
@@ -0,0 +1,215 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.affine;
+
+import lombok.NonNull;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Scheduler running the tasks on the threads owning the parts of the world they access.</p>
+ * <p>Tasks may be run in one of the following lanes:</p>
+ * <ul>
+ *     <li><b>global</b> lane for the tasks not bound to any part of the world</li>
+ *     <li><b>location</b> lane for the tasks accessing the region containing the given location</li>
+ *     <li><b>entity</b> lane for the tasks accessing the given entity and following it across the regions</li>
+ * </ul>
+ * <p>On a regular server all lanes are the main thread while region-threaded servers
+ * may run the tasks of different regions in parallel.</p>
+ * <p>Tasks of the entity lane are retired once the entity is removed:
+ * a player is considered removed once it goes offline (so that dead players keep their tasks)
+ * while any other entity is considered removed once it is dead or no longer valid.</p>
+ */
+public interface AffineScheduler {
+
+    /**
+     * Runs the task in the global lane.
+     *
+     * @param task task to run
+     * @param delay delay of the task in ticks
+     * @return scheduled task
+     */
+    @NotNull ScheduledTask runGlobal(@NonNull Runnable task, long delay);
+
+    /**
+     * Runs the task in the global lane periodically.
+     *
+     * @param task task to run
+     * @param delay delay of the first run in ticks
+     * @param period period of the runs in ticks
+     * @return scheduled task
+     */
+    @NotNull ScheduledTask runGlobalTimer(@NonNull Runnable task, long delay, long period);
+
+    /**
+     * Runs the task in the lane of the region containing the location.
+     *
+     * @param location location whose region should run the task
+     * @param task task to run
+     * @param delay delay of the task in ticks
+     * @return scheduled task
+     */
+    @NotNull ScheduledTask runAt(@NonNull Location location, @NonNull Runnable task, long delay);
+
+    /**
+     * Runs the task in the lane of the region containing the location periodically.
+     *
+     * @param location location whose region should run the task
+     * @param task task to run
+     * @param delay delay of the first run in ticks
+     * @param period period of the runs in ticks
+     * @return scheduled task
+     */
+    @NotNull ScheduledTask runAtTimer(@NonNull Location location, @NonNull Runnable task, long delay, long period);
+
+    /**
+     * Runs the task in the lane of the entity.
+     *
+     * @param entity entity whose lane should run the task
+     * @param task task to run
+     * @param retired task run instead of the task if the entity gets {@link AffineScheduler removed}
+     * before it is run or {@code null} if nothing should be done in this case
+     * @param delay delay of the task in ticks
+     * @return scheduled task
+     */
+    @NotNull ScheduledTask runFor(@NonNull Entity entity, @NonNull Runnable task, @Nullable Runnable retired,
+                                  long delay);
+
+    /**
+     * Runs the task in the lane of the entity periodically until the entity gets {@link AffineScheduler removed}.
+     *
+     * @param entity entity whose lane should run the task
+     * @param task task to run
+     * @param retired task run once the entity gets removed
+     * or {@code null} if nothing should be done in this case
+     * @param delay delay of the first run in ticks
+     * @param period period of the runs in ticks
+     * @return scheduled task
+     */
+    @NotNull ScheduledTask runForTimer(@NonNull Entity entity, @NonNull Runnable task, @Nullable Runnable retired,
+                                       long delay, long period);
+
+    /**
+     * Runs the task asynchronously, i.e. not in any of the lanes.
+     *
+     * @param task task to run
+     * @return scheduled task
+     */
+    @NotNull ScheduledTask runAsync(@NonNull Runnable task);
+
+    /**
+     * Checks whether the current thread is the one of the global lane.
+     *
+     * @return {@code true} if the current thread is the one of the global lane and {@code false} otherwise
+     */
+    boolean isGlobalThread();
+
+    /**
+     * Checks whether the current thread is the one owning the region containing the location.
+     *
+     * @param location location whose region should be checked
+     * @return {@code true} if the current thread owns the location's region and {@code false} otherwise
+     */
+    boolean isOwnedByCurrentThread(@NonNull Location location);
+
+    /**
+     * Checks whether the current thread is the one owning the entity.
+     *
+     * @param entity entity whose owner should be checked
+     * @return {@code true} if the current thread owns the entity and {@code false} otherwise
+     */
+    boolean isOwnedByCurrentThread(@NonNull Entity entity);
+
+    /**
+     * Runs the task in the global lane.
+     *
+     * @param task task to run
+     * @return scheduled task
+     */
+    default @NotNull ScheduledTask runGlobal(final @NonNull Runnable task) {
+        return runGlobal(task, 0);
+    }
+
+    /**
+     * Runs the task in the lane of the region containing the location.
+     *
+     * @param location location whose region should run the task
+     * @param task task to run
+     * @return scheduled task
+     */
+    default @NotNull ScheduledTask runAt(final @NonNull Location location, final @NonNull Runnable task) {
+        return runAt(location, task, 0);
+    }
+
+    /**
+     * Runs the task in the lane of the entity.
+     *
+     * @param entity entity whose lane should run the task
+     * @param task task to run
+     * @return scheduled task
+     */
+    default @NotNull ScheduledTask runFor(final @NonNull Entity entity, final @NonNull Runnable task) {
+        return runFor(entity, task, null, 0);
+    }
+
+    /**
+     * Gets an executor running the tasks in the global lane,
+     * the tasks submitted from the global lane itself being run immediately.
+     *
+     * @return executor of the global lane
+     */
+    default @NotNull Executor globalExecutor() {
+        return task -> {
+            if (isGlobalThread()) task.run();
+            else runGlobal(task);
+        };
+    }
+
+    /**
+     * Gets an executor running the tasks in the lane of the region containing the location,
+     * the tasks submitted from the owning thread itself being run immediately.
+     *
+     * @param location location whose region should run the tasks
+     * @return executor of the location's lane
+     */
+    default @NotNull Executor executorAt(final @NonNull Location location) {
+        return task -> {
+            if (isOwnedByCurrentThread(location)) task.run();
+            else runAt(location, task);
+        };
+    }
+
+    /**
+     * Gets an executor running the tasks in the lane of the entity,
+     * the tasks submitted from the owning thread itself being run immediately.
+     *
+     * @param entity entity whose lane should run the tasks
+     * @return executor of the entity's lane
+     */
+    default @NotNull Executor executorFor(final @NonNull Entity entity) {
+        return task -> {
+            if (isOwnedByCurrentThread(entity)) task.run();
+            else runFor(entity, task);
+        };
+    }
+
+    /**
+     * Task scheduled by an {@link AffineScheduler}.
+     */
+    interface ScheduledTask {
+
+        /**
+         * Cancels this task.
+         */
+        void cancel();
+
+        /**
+         * Checks whether this task is cancelled.
+         *
+         * @return {@code true} if this task is cancelled and {@code false} otherwise
+         */
+        boolean isCancelled();
+    }
+}
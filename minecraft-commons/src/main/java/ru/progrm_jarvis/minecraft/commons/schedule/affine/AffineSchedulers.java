@@ -0,0 +1,58 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.affine;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.commons.plugin.BukkitPluginShutdownUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * <p>Utilities for getting the {@link AffineScheduler}s of the plugins.</p>
+ * <p>By default {@link BukkitAffineScheduler}s are used while region-threaded servers
+ * may {@link #setFactory(Function) plug in} their own implementation.</p>
+ */
+@UtilityClass
+public class AffineSchedulers {
+
+    /**
+     * Schedulers by their plugins
+     */
+    private final Map<Plugin, AffineScheduler> SCHEDULERS = new ConcurrentHashMap<>();
+
+    /**
+     * Factory creating the schedulers of the plugins
+     */
+    private volatile @NotNull Function<Plugin, AffineScheduler> factory = BukkitAffineScheduler::new;
+
+    /**
+     * Sets the factory creating the schedulers of the plugins, the already created schedulers being dropped.
+     *
+     * @param factory factory creating the schedulers of the plugins
+     *
+     * @apiNote this should be called before any scheduler is used
+     */
+    public void setFactory(final @NonNull Function<Plugin, AffineScheduler> factory) {
+        AffineSchedulers.factory = factory;
+        SCHEDULERS.clear();
+    }
+
+    /**
+     * Gets the scheduler of the plugin which is dropped once the plugin gets disabled.
+     *
+     * @param plugin plugin owning the scheduler
+     * @return scheduler of the plugin
+     */
+    public @NotNull AffineScheduler of(final @NonNull Plugin plugin) {
+        return SCHEDULERS.computeIfAbsent(plugin, createdPlugin -> {
+            final AffineScheduler scheduler = factory.apply(createdPlugin);
+            // the map should not keep the disabled plugin reachable
+            BukkitPluginShutdownUtil.addShutdownHook(createdPlugin, () -> SCHEDULERS.remove(createdPlugin, scheduler));
+
+            return scheduler;
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.affine;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link AffineScheduler} of a regular server whose lanes are all the server's main thread.
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class BukkitAffineScheduler implements AffineScheduler {
+
+    /**
+     * Plugin owning the scheduled tasks
+     */
+    @NonNull Plugin plugin;
+
+    /**
+     * Server of the plugin
+     */
+    @ToString.Exclude @NonNull Server server;
+
+    /**
+     * Scheduler of the server
+     */
+    @ToString.Exclude @NonNull BukkitScheduler scheduler;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param plugin plugin owning the scheduled tasks
+     */
+    public BukkitAffineScheduler(final @NonNull Plugin plugin) {
+        this.plugin = plugin;
+        scheduler = (server = plugin.getServer()).getScheduler();
+    }
+
+    @Override
+    public @NotNull ScheduledTask runGlobal(final @NonNull Runnable task, final long delay) {
+        return new BukkitScheduledTask(scheduler.runTaskLater(plugin, task, delay));
+    }
+
+    @Override
+    public @NotNull ScheduledTask runGlobalTimer(final @NonNull Runnable task, final long delay, final long period) {
+        return new BukkitScheduledTask(scheduler.runTaskTimer(plugin, task, delay, period));
+    }
+
+    @Override
+    public @NotNull ScheduledTask runAt(final @NonNull Location location, final @NonNull Runnable task,
+                                        final long delay) {
+        return runGlobal(task, delay);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runAtTimer(final @NonNull Location location, final @NonNull Runnable task,
+                                             final long delay, final long period) {
+        return runGlobalTimer(task, delay, period);
+    }
+
+    @Override
+    public @NotNull ScheduledTask runFor(final @NonNull Entity entity, final @NonNull Runnable task,
+                                         final @Nullable Runnable retired, final long delay) {
+        final EntityTask entityTask = new EntityTask(entity, task, retired);
+        entityTask.scheduled(scheduler.runTaskLater(plugin, entityTask, delay));
+
+        return entityTask;
+    }
+
+    @Override
+    public @NotNull ScheduledTask runForTimer(final @NonNull Entity entity, final @NonNull Runnable task,
+                                              final @Nullable Runnable retired, final long delay,
+                                              final long period) {
+        final EntityTask entityTask = new EntityTask(entity, task, retired);
+        entityTask.scheduled(scheduler.runTaskTimer(plugin, entityTask, delay, period));
+
+        return entityTask;
+    }
+
+    @Override
+    public @NotNull ScheduledTask runAsync(final @NonNull Runnable task) {
+        return new BukkitScheduledTask(scheduler.runTaskAsynchronously(plugin, task));
+    }
+
+    @Override
+    public boolean isGlobalThread() {
+        return server.isPrimaryThread();
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(final @NonNull Location location) {
+        return server.isPrimaryThread();
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(final @NonNull Entity entity) {
+        return server.isPrimaryThread();
+    }
+
+    /**
+     * Task scheduled by the Bukkit scheduler.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class BukkitScheduledTask implements ScheduledTask {
+
+        @NonNull BukkitTask task;
+
+        @Override
+        public void cancel() {
+            task.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+    }
+
+    /**
+     * Task of an entity's lane which gets retired once the entity is removed.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class EntityTask implements ScheduledTask, Runnable {
+
+        @NonNull Entity entity;
+        @NonNull Runnable task;
+        @Nullable Runnable retired;
+
+        /**
+         * Bukkit task running this task or {@code null} if it has not been set yet
+         */
+        @NonFinal volatile @Nullable BukkitTask bukkitTask;
+
+        /**
+         * Whether this task has been cancelled, possibly before its Bukkit task has been set
+         */
+        @NonFinal volatile boolean cancelled;
+
+        /**
+         * Sets the Bukkit task running this task cancelling it if this task has already been cancelled.
+         *
+         * @param bukkitTask Bukkit task running this task
+         */
+        private void scheduled(final @NonNull BukkitTask bukkitTask) {
+            this.bukkitTask = bukkitTask;
+            if (cancelled) bukkitTask.cancel();
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+
+            if (!isRemoved(entity)) task.run();
+            else {
+                cancel();
+
+                final Runnable thisRetired;
+                if ((thisRetired = retired) != null) thisRetired.run();
+            }
+        }
+
+        /**
+         * Checks whether the entity has been removed so that its tasks should be retired.
+         * Players are only considered removed once they go offline as they stay the same entities after respawning.
+         *
+         * @param entity entity to check
+         * @return {@code true} if the entity has been removed and {@code false} otherwise
+         */
+        private static boolean isRemoved(final @NotNull Entity entity) {
+            return entity instanceof Player ? !((Player) entity).isOnline() : entity.isDead() || !entity.isValid();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+
+            // the Bukkit task gets cancelled once it is set if it has not been yet
+            final BukkitTask thisBukkitTask;
+            if ((thisBukkitTask = bukkitTask) != null) thisBukkitTask.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            if (cancelled) return true;
+
+            final BukkitTask thisBukkitTask;
+            return (thisBukkitTask = bukkitTask) != null && thisBukkitTask.isCancelled();
+        }
+    }
+}
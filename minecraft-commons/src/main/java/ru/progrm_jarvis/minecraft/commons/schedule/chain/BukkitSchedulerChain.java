@@ -6,6 +6,8 @@ import lombok.experimental.NonFinal;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.SchedulerMetrics;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.TaskMetrics;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -22,6 +24,7 @@ public class BukkitSchedulerChain extends AbstractSchedulerChain {
     @NonNull BukkitScheduler scheduler;
     boolean async;
     @NonNull Iterable<ChainedTask> tasks;
+    @NonNull TaskMetrics metrics;
 
     final @NonNull Object currentTaskMutex;
 
@@ -38,6 +41,9 @@ public class BukkitSchedulerChain extends AbstractSchedulerChain {
         scheduler = plugin.getServer().getScheduler();
         this.async = async;
         this.tasks = tasks;
+        metrics = SchedulerMetrics.task(
+                plugin.getName(), async ? "BukkitSchedulerChain:async" : "BukkitSchedulerChain:sync"
+        );
 
         //noinspection ZeroLengthArrayAllocation: mutex object
         currentTaskMutex = new Object[0];
@@ -86,10 +92,14 @@ public class BukkitSchedulerChain extends AbstractSchedulerChain {
 
     protected Runnable createNextRunnable(final @NonNull Runnable runnable, final long times) {
         return () -> {
-            var mutableTimes = times;
-            // call the required tasks needed amount of time
-            System.out.println("Run times: " + times);
-            while (mutableTimes-- > 0) runnable.run();
+            val start = metrics.start();
+            try {
+                var mutableTimes = times;
+                // call the required tasks needed amount of time
+                while (mutableTimes-- > 0) runnable.run();
+            } finally {
+                metrics.stop(start);
+            }
 
             // pick next task (if there is one) and execute it
             tryRunNextTask();
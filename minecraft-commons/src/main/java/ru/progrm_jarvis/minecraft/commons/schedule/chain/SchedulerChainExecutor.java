@@ -0,0 +1,392 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.chain;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.experimental.Delegate;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.ShutdownHooks;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * <p>Executor of {@link SchedulerChain scheduler chains} compiled into flat arrays of steps.</p>
+ * <p>Unlike {@link BukkitSchedulerChain} all active chains are advanced by this executor's single {@link #run() tick}
+ * and keep their position as a cursor so that no allocations or scheduler registrations happen per step.</p>
+ * <p>Each step is performed once its delay in ticks passes since the previous step,
+ * steps without delay being performed in the same tick as the previous one.</p>
+ * <p>This class is not thread-safe, its chains should be used by the thread {@link #run() running} it.</p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class SchedulerChainExecutor implements Runnable, Shutdownable {
+
+    /**
+     * Initial capacity of the array of active chains
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Active chains, may contain {@code null} holes of the chains removed since the last compaction
+     */
+    @Nullable CompiledChain @NotNull [] active = new CompiledChain[INITIAL_CAPACITY];
+
+    /**
+     * Amount of used slots of {@link #active}
+     */
+    int size;
+
+    /**
+     * Amount of {@code null} holes in {@link #active}
+     */
+    int holes;
+
+    /**
+     * Whether the chains are being advanced currently
+     */
+    boolean ticking;
+
+    /**
+     * Number of the current tick incremented on each {@link #run() run}
+     */
+    int tick;
+
+    @Delegate(types = Shutdownable.class) final @NonNull ShutdownHooks shutdownHooks;
+
+    /**
+     * Creates a new executor which should be {@link #run() run} once per tick.
+     */
+    public SchedulerChainExecutor() {
+        shutdownHooks = ShutdownHooks.create(this).add(this::cancelAll);
+    }
+
+    /**
+     * Creates a new executor run on each tick by the plugin's scheduler.
+     *
+     * @param plugin plugin owning the executor
+     * @return created executor
+     */
+    public static @NotNull SchedulerChainExecutor create(final @NonNull Plugin plugin) {
+        final SchedulerChainExecutor executor = new SchedulerChainExecutor();
+        executor.shutdownHooks
+                .add(plugin.getServer().getScheduler().runTaskTimer(plugin, executor, 1, 1)::cancel)
+                .registerBukkitShutdownHook(plugin);
+
+        return executor;
+    }
+
+    /**
+     * Creates a new builder of chains compiled for this executor.
+     *
+     * @return created builder
+     */
+    public @NotNull SchedulerChain.Builder builder() {
+        return new Builder(new ArrayDeque<>());
+    }
+
+    /**
+     * Gets the chain as a compiled one.
+     *
+     * @param chain chain built by a {@link #builder() builder of this executor}
+     * @return compiled chain or {@code null} if the chain is empty
+     */
+    public static @Nullable CompiledChain compiled(final @NonNull SchedulerChain chain) {
+        return chain instanceof CompiledChain ? (CompiledChain) chain : null;
+    }
+
+    /**
+     * Gets the amount of active chains.
+     *
+     * @return amount of active chains
+     */
+    public int activeChains() {
+        return size - holes;
+    }
+
+    /**
+     * Advances all active chains by one tick.
+     */
+    @Override
+    public void run() {
+        final int thisTick = ++tick;
+        ticking = true;
+        try {
+            // the array and its size are re-read as the steps may add, interrupt and cancel the chains
+            for (int i = 0; i < size; i++) {
+                final CompiledChain chain;
+                // chains started during this tick are first advanced on the next one
+                if ((chain = active[i]) != null && chain.startTick != thisTick) chain.tick();
+            }
+        } finally {
+            ticking = false;
+        }
+
+        if (holes != 0) compact();
+    }
+
+    /**
+     * Pauses all active chains.
+     */
+    public void pauseAll() {
+        final CompiledChain[] thisActive = active;
+        for (int i = 0, thisSize = size; i < thisSize; i++) {
+            final CompiledChain chain;
+            if ((chain = thisActive[i]) != null) chain.paused = true;
+        }
+    }
+
+    /**
+     * Resumes all active chains.
+     */
+    public void resumeAll() {
+        final CompiledChain[] thisActive = active;
+        for (int i = 0, thisSize = size; i < thisSize; i++) {
+            final CompiledChain chain;
+            if ((chain = thisActive[i]) != null) chain.paused = false;
+        }
+    }
+
+    /**
+     * Interrupts all active chains.
+     */
+    public void cancelAll() {
+        final CompiledChain[] thisActive = active;
+        for (int i = 0, thisSize = size; i < thisSize; i++) {
+            final CompiledChain chain;
+            if ((chain = thisActive[i]) != null) {
+                chain.index = CompiledChain.NOT_ACTIVE;
+                thisActive[i] = null;
+            }
+        }
+        size = holes = 0;
+    }
+
+    /**
+     * Adds the chain to the active ones.
+     *
+     * @param chain chain to add
+     */
+    private void add(final @NotNull CompiledChain chain) {
+        CompiledChain[] thisActive = active;
+        if (size == thisActive.length) {
+            // compaction would move the chains being advanced
+            if (holes != 0 && !ticking) compact();
+            else active = thisActive = Arrays.copyOf(thisActive, thisActive.length << 1);
+        }
+
+        final int index;
+        thisActive[index = size++] = chain;
+        chain.index = index;
+        chain.startTick = tick;
+    }
+
+    /**
+     * Removes the chain from the active ones leaving a hole which gets compacted later.
+     *
+     * @param chain chain to remove
+     */
+    private void remove(final @NotNull CompiledChain chain) {
+        active[chain.index] = null;
+        chain.index = CompiledChain.NOT_ACTIVE;
+        holes++;
+    }
+
+    /**
+     * Removes the holes from {@link #active} preserving the order of the chains.
+     */
+    private void compact() {
+        final CompiledChain[] thisActive = active;
+        final int thisSize = size;
+        int newSize = 0;
+        for (int i = 0; i < thisSize; i++) {
+            final CompiledChain chain;
+            if ((chain = thisActive[i]) != null) (thisActive[newSize] = chain).index = newSize++;
+        }
+        Arrays.fill(thisActive, newSize, thisSize, null);
+
+        size = newSize;
+        holes = 0;
+    }
+
+    /**
+     * Chain compiled into arrays of steps.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    public final class CompiledChain extends AbstractSchedulerChain {
+
+        /**
+         * Index marking the chain which is not active
+         */
+        private static final int NOT_ACTIVE = -1;
+
+        /**
+         * Tasks of the steps
+         */
+        @NotNull Runnable @NotNull [] tasks;
+
+        /**
+         * Delays of the steps
+         */
+        long @NotNull [] delays;
+
+        /**
+         * Amounts of times the tasks of the steps are run
+         */
+        long @NotNull [] runTimes;
+
+        /**
+         * Index of this chain in the active chains or {@link #NOT_ACTIVE}
+         */
+        @NonFinal int index = NOT_ACTIVE;
+
+        /**
+         * Number of the executor's tick during which this chain has been started
+         */
+        @NonFinal int startTick;
+
+        /**
+         * Index of the next step
+         */
+        @NonFinal int cursor;
+
+        /**
+         * Amount of ticks remaining until the next step
+         */
+        @NonFinal long remainingDelay;
+
+        /**
+         * Whether this chain is paused
+         */
+        @NonFinal boolean paused;
+
+        /**
+         * Number of the current run of this chain incremented on each start
+         */
+        @NonFinal int generation;
+
+        private CompiledChain(final @NotNull Runnable @NotNull [] tasks, final long @NotNull [] delays,
+                              final long @NotNull [] runTimes) {
+            this.tasks = tasks;
+            this.delays = delays;
+            this.runTimes = runTimes;
+        }
+
+        /**
+         * Starts this chain.
+         *
+         * @throws IllegalStateException if this chain is already running
+         */
+        @Override
+        public void run() {
+            if (index != NOT_ACTIVE) throw new IllegalStateException("This chain has already been started");
+
+            generation++;
+            cursor = 0;
+            remainingDelay = delays[0];
+            paused = false;
+            add(this);
+        }
+
+        /**
+         * Starts this chain from its first step interrupting it if it is running.
+         */
+        public void restart() {
+            interrupt();
+            run();
+        }
+
+        @Override
+        public void interrupt() {
+            if (index != NOT_ACTIVE) remove(this);
+        }
+
+        /**
+         * Pauses this chain so that its delays do not pass and its steps are not performed until it is resumed.
+         */
+        public void pause() {
+            paused = true;
+        }
+
+        /**
+         * Resumes this chain.
+         */
+        public void resume() {
+            paused = false;
+        }
+
+        /**
+         * Checks whether this chain is running.
+         *
+         * @return {@code true} if this chain is running (even if paused) and {@code false} otherwise
+         */
+        public boolean isRunning() {
+            return index != NOT_ACTIVE;
+        }
+
+        /**
+         * Checks whether this chain is paused.
+         *
+         * @return {@code true} if this chain is paused and {@code false} otherwise
+         */
+        public boolean isPaused() {
+            return paused;
+        }
+
+        /**
+         * Advances this chain by one tick.
+         */
+        private void tick() {
+            if (paused) return;
+
+            long delay;
+            if ((delay = remainingDelay) > 0 && (remainingDelay = --delay) > 0) return;
+
+            final Runnable[] thisTasks = tasks;
+            final long[] thisDelays = delays, thisRunTimes = runTimes;
+            final int thisGeneration = generation;
+            int step = cursor;
+            do {
+                final Runnable task = thisTasks[step];
+                for (long times = thisRunTimes[step]; times > 0; times--) task.run();
+                // the task may have interrupted or restarted this chain
+                if (generation != thisGeneration || index == NOT_ACTIVE) return;
+
+                if ((cursor = ++step) == thisTasks.length) {
+                    remove(this);
+
+                    return;
+                }
+            } while ((remainingDelay = thisDelays[step]) == 0 && !paused);
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private final class Builder extends AbstractSchedulerChain.Builder {
+
+        private Builder(final @NonNull Queue<ChainedTask> tasks) {
+            super(tasks);
+        }
+
+        @Override
+        public SchedulerChain build() {
+            final int size;
+            if ((size = tasks.size()) == 0) return EmptyStub.INSTANCE;
+
+            final Runnable[] compiledTasks = new Runnable[size];
+            final long[] delays = new long[size], runTimes = new long[size];
+            int step = 0;
+            for (final ChainedTask task : tasks) {
+                compiledTasks[step] = task;
+                delays[step] = task.getDelay();
+                runTimes[step++] = task.getRunTimes();
+            }
+
+            return new CompiledChain(compiledTasks, delays, runTimes);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.executor;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.experimental.Delegate;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.java.Log;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.ShutdownHooks;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Executor running the queued tasks on each tick until the time budget of the tick is exhausted.</p>
+ * <p>Tasks which could not be run within the budget are left in the queue and run on the following ticks.
+ * Tasks of higher {@link Priority priority} are run before the ones of lower priority
+ * while tasks of the same priority are run in the order of their submission.</p>
+ * <p>At least one task is run on each tick so that the queue progresses even if a single task exceeds the budget.
+ * Exceptions thrown by the tasks are logged and do not prevent the following tasks from being run.</p>
+ */
+@Log
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TickBudgetedExecutor implements Executor, Runnable, Shutdownable {
+
+    /**
+     * Priorities cached to avoid array allocations
+     */
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    /**
+     * Queues of tasks by their priorities' ordinals
+     */
+    @NonNull Queue<Runnable>[] queues;
+
+    /**
+     * Amount of queued tasks
+     */
+    @NonNull AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Amount of nanoseconds which may be used by the tasks on a single tick
+     */
+    long budgetNanos;
+
+    /**
+     * Clock providing the current time in nanoseconds
+     */
+    @NonNull LongSupplier clock;
+
+    @Delegate(types = Shutdownable.class) @NonNull ShutdownHooks shutdownHooks;
+
+    /**
+     * Amount of nanoseconds used by the tasks on the last tick
+     */
+    @NonFinal volatile long lastTickUsedNanos;
+
+    /**
+     * Amount of tasks run on the last tick
+     */
+    @NonFinal volatile int lastTickExecuted;
+
+    /**
+     * Amount of ticks on which the budget was exceeded
+     */
+    @NonFinal volatile long overBudgetTicks;
+
+    /**
+     * Amount of tasks run by this executor
+     */
+    @NonFinal volatile long executed;
+
+    /**
+     * Creates a new executor which should be {@link #run() run} once per tick.
+     *
+     * @param budgetNanos amount of nanoseconds which may be used by the tasks on a single tick
+     * @param clock clock providing the current time in nanoseconds
+     *
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public TickBudgetedExecutor(final long budgetNanos, final @NonNull LongSupplier clock) {
+        checkArgument(budgetNanos > 0, "budgetNanos should be positive");
+
+        this.budgetNanos = budgetNanos;
+        this.clock = clock;
+
+        final Queue<Runnable>[] thisQueues;
+        queues = thisQueues = new Queue[PRIORITIES.length];
+        for (int i = 0; i < thisQueues.length; i++) thisQueues[i] = new ConcurrentLinkedQueue<>();
+
+        shutdownHooks = ShutdownHooks.createConcurrent(this).add(this::clear);
+    }
+
+    /**
+     * Creates a new executor run on each tick by the plugin's scheduler.
+     *
+     * @param plugin plugin owning the executor
+     * @param budgetNanos amount of nanoseconds which may be used by the tasks on a single tick
+     * @return created executor
+     *
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public static @NotNull TickBudgetedExecutor create(final @NonNull Plugin plugin, final long budgetNanos) {
+        final TickBudgetedExecutor executor = new TickBudgetedExecutor(budgetNanos, System::nanoTime);
+        executor.shutdownHooks
+                .add(plugin.getServer().getScheduler().runTaskTimer(plugin, executor, 1, 1)::cancel)
+                .registerBukkitShutdownHook(plugin);
+
+        return executor;
+    }
+
+    /**
+     * Queues the task with {@link Priority#NORMAL normal} priority.
+     *
+     * @param task task to be run
+     */
+    @Override
+    public void execute(final @NonNull Runnable task) {
+        execute(task, Priority.NORMAL);
+    }
+
+    /**
+     * Queues the task.
+     *
+     * @param task task to be run
+     * @param priority priority of the task
+     */
+    public void execute(final @NonNull Runnable task, final @NonNull Priority priority) {
+        queues[priority.ordinal()].add(task);
+        queued.incrementAndGet();
+    }
+
+    /**
+     * Gets an executor queueing the tasks of this executor with the given priority.
+     *
+     * @param priority priority of the tasks
+     * @return executor queueing the tasks with the given priority
+     */
+    public @NotNull Executor withPriority(final @NonNull Priority priority) {
+        return task -> execute(task, priority);
+    }
+
+    /**
+     * Runs the queued tasks until the budget of the tick is exhausted.
+     */
+    @Override
+    public void run() {
+        final LongSupplier thisClock = clock;
+        final Queue<Runnable>[] thisQueues = queues;
+        final long budget = budgetNanos, start = thisClock.getAsLong();
+
+        long used = 0;
+        int executedOnTick = 0;
+        try {
+            for (final Queue<Runnable> queue : thisQueues) {
+                Runnable task;
+                while (used < budget && (task = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    executedOnTick++;
+                    try {
+                        task.run();
+                    } catch (final Throwable e) {
+                        log.log(Level.SEVERE, "An exception occurred while running " + task, e);
+                    } finally {
+                        used = thisClock.getAsLong() - start;
+                    }
+                }
+            }
+        } finally {
+            lastTickUsedNanos = used;
+            lastTickExecuted = executedOnTick;
+            // only this thread updates the counters so non-atomic increments are fine
+            executed += executedOnTick;
+            if (used > budget) overBudgetTicks++;
+        }
+    }
+
+    /**
+     * Removes all queued tasks.
+     */
+    private void clear() {
+        final AtomicInteger thisQueued = queued;
+        for (final Queue<Runnable> queue : queues) while (queue.poll() != null) thisQueued.decrementAndGet();
+    }
+
+    /**
+     * Gets the statistics of this executor.
+     *
+     * @return statistics of this executor
+     */
+    public @NotNull Statistics getStatistics() {
+        return new Statistics(
+                budgetNanos, lastTickUsedNanos, lastTickExecuted, queued.get(), overBudgetTicks, executed
+        );
+    }
+
+    /**
+     * Priority of a task.
+     */
+    public enum Priority {
+        /**
+         * Priority of tasks which should be run before any others
+         */
+        HIGH,
+        /**
+         * Default priority of tasks
+         */
+        NORMAL,
+        /**
+         * Priority of tasks which may be delayed in favor of any others
+         */
+        LOW
+    }
+
+    /**
+     * Statistics of the executor.
+     */
+    @Value
+    public static class Statistics {
+
+        /**
+         * Amount of nanoseconds which may be used by the tasks on a single tick
+         */
+        long budgetNanos;
+
+        /**
+         * Amount of nanoseconds used by the tasks on the last tick
+         */
+        long lastTickUsedNanos;
+
+        /**
+         * Amount of tasks run on the last tick
+         */
+        int lastTickExecuted;
+
+        /**
+         * Amount of tasks carried over to the following ticks
+         */
+        int queued;
+
+        /**
+         * Amount of ticks on which the budget was exceeded
+         */
+        long overBudgetTicks;
+
+        /**
+         * Amount of tasks run by the executor
+         */
+        long executed;
+    }
+}
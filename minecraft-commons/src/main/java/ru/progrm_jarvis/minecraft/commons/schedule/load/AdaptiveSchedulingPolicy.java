@@ -0,0 +1,179 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.load;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.SchedulerMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Policy slowing the periodic tasks down according to the server's load measured by a {@link TickLoadMonitor}.</p>
+ * <p>While the average tick takes no longer than the healthy threshold the tasks run at their normal rate.
+ * Above it their intervals get stretched (or their batches get shrunk) proportionally to the load
+ * up to the maximum of their {@link Criticality criticality} reached at the overloaded threshold.</p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class AdaptiveSchedulingPolicy {
+
+    /**
+     * Monitor measuring the server's load
+     */
+    @Getter @NonNull TickLoadMonitor monitor;
+
+    /**
+     * Average duration of a tick in nanoseconds up to which the tasks are not slowed down
+     */
+    @Getter long healthyNanos;
+
+    /**
+     * Average duration of a tick in nanoseconds starting from which the tasks are slowed down the most
+     */
+    @Getter long overloadedNanos;
+
+    /**
+     * Creates a new policy.
+     *
+     * @param monitor monitor measuring the server's load
+     * @param healthyNanos average duration of a tick in nanoseconds up to which the tasks are not slowed down
+     * @param overloadedNanos average duration of a tick in nanoseconds
+     * starting from which the tasks are slowed down the most
+     *
+     * @throws IllegalArgumentException if the healthy threshold is not positive
+     * or the overloaded threshold is not greater than it
+     */
+    public AdaptiveSchedulingPolicy(final @NonNull TickLoadMonitor monitor,
+                                    final long healthyNanos, final long overloadedNanos) {
+        checkArgument(healthyNanos > 0, "healthyNanos should be positive");
+        checkArgument(overloadedNanos > healthyNanos, "overloadedNanos should be greater than healthyNanos");
+
+        this.monitor = monitor;
+        this.healthyNanos = healthyNanos;
+        this.overloadedNanos = overloadedNanos;
+    }
+
+    /**
+     * Creates a new policy whose thresholds depend on the {@link TickLoadMonitor.Source source} of the monitor.
+     * For the server's own tick time these are 40 and 50 milliseconds
+     * while for the interval between the ticks, which is never less than 50 milliseconds, these are 52 and 60.
+     *
+     * @param monitor monitor measuring the server's load
+     * @return created policy
+     */
+    public static @NotNull AdaptiveSchedulingPolicy create(final @NonNull TickLoadMonitor monitor) {
+        return monitor.getSource() == TickLoadMonitor.Source.TICK_TIME
+                ? new AdaptiveSchedulingPolicy(
+                        monitor, TimeUnit.MILLISECONDS.toNanos(40), TimeUnit.MILLISECONDS.toNanos(50)
+                )
+                : new AdaptiveSchedulingPolicy(
+                        monitor, TimeUnit.MILLISECONDS.toNanos(52), TimeUnit.MILLISECONDS.toNanos(60)
+                );
+    }
+
+    /**
+     * Gets the factor by which the intervals of the tasks of the given criticality should currently be stretched.
+     *
+     * @param criticality criticality of the tasks
+     * @return factor by which the intervals should be stretched, {@code 1} meaning the normal rate
+     */
+    public int stretch(final @NonNull Criticality criticality) {
+        final int maxStretch;
+        if ((maxStretch = criticality.getMaxStretch()) == 1) return 1;
+
+        final long average, thisHealthyNanos;
+        if ((average = monitor.getAverageTickNanos()) <= (thisHealthyNanos = healthyNanos)) return 1;
+        if (average >= overloadedNanos) return maxStretch;
+
+        // linear interpolation between 1 and the maximal stretch rounded up
+        final long range = overloadedNanos - thisHealthyNanos;
+        return 1 + (int) (((maxStretch - 1) * (average - thisHealthyNanos) + range - 1) / range);
+    }
+
+    /**
+     * Gets the period of the tasks of the given criticality stretched according to the current load.
+     *
+     * @param period normal period of the tasks
+     * @param criticality criticality of the tasks
+     * @return stretched period
+     */
+    public long period(final long period, final @NonNull Criticality criticality) {
+        return period * stretch(criticality);
+    }
+
+    /**
+     * Gets the size of the batches of the tasks of the given criticality shrunk according to the current load.
+     *
+     * @param batchSize normal size of the batches
+     * @param criticality criticality of the tasks
+     * @return shrunk size of the batches which is at least {@code 1}
+     */
+    public int batchSize(final int batchSize, final @NonNull Criticality criticality) {
+        return Math.max(1, batchSize / stretch(criticality));
+    }
+
+    /**
+     * Wraps the periodic task so that its runs get skipped according to the stretch of its criticality.
+     *
+     * @param task task to wrap
+     * @param criticality criticality of the task
+     * @return wrapped task which should be run at the task's normal rate
+     */
+    public @NotNull Runnable throttle(final @NonNull Runnable task, final @NonNull Criticality criticality) {
+        return criticality.getMaxStretch() == 1 ? task : new ThrottledTask(task, criticality);
+    }
+
+    /**
+     * Registers the current stretches of all criticalities as {@link SchedulerMetrics#gauge gauges}.
+     *
+     * @param owner owner of the gauges, usually the name of the plugin
+     * @return hook removing the gauges
+     */
+    public @NotNull Runnable registerGauges(final @NonNull String owner) {
+        final Criticality[] criticalities = Criticality.values();
+        final Runnable[] removers = new Runnable[criticalities.length];
+        for (int i = 0; i < criticalities.length; i++) {
+            final Criticality criticality = criticalities[i];
+            removers[i] = SchedulerMetrics.gauge(
+                    owner, "AdaptiveSchedulingPolicy:stretch:" + criticality.name().toLowerCase(),
+                    () -> stretch(criticality)
+            );
+        }
+
+        return () -> {
+            for (final Runnable remover : removers) remover.run();
+        };
+    }
+
+    /**
+     * Task whose runs get skipped according to the stretch of its criticality.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private final class ThrottledTask implements Runnable {
+
+        @NonNull Runnable task;
+        @NonNull Criticality criticality;
+
+        /**
+         * Amount of runs skipped since the last actual run
+         */
+        @NonFinal int skipped;
+
+        private ThrottledTask(final @NonNull Runnable task, final @NonNull Criticality criticality) {
+            this.task = task;
+            this.criticality = criticality;
+        }
+
+        @Override
+        public void run() {
+            if (++skipped < stretch(criticality)) return;
+
+            skipped = 0;
+            task.run();
+        }
+    }
+}
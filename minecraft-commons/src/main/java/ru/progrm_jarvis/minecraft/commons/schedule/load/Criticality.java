@@ -0,0 +1,31 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.load;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Criticality of a periodic task defining how much it may be slowed down by an {@link AdaptiveSchedulingPolicy}.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public enum Criticality {
+    /**
+     * Tasks which should never be slowed down, such as game logic
+     */
+    CRITICAL(1),
+    /**
+     * Tasks which may be slowed down moderately, such as entity observation
+     */
+    NORMAL(2),
+    /**
+     * Purely cosmetic tasks which may be slowed down the most, such as animations and particles
+     */
+    COSMETIC(4);
+
+    /**
+     * Factor by which the interval of the task may be stretched when the server is overloaded
+     */
+    @Getter int maxStretch;
+}
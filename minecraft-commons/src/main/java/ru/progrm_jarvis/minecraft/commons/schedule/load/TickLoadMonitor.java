@@ -0,0 +1,273 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.load;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Delegate;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.java.Log;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.SchedulerMetrics;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.ShutdownHooks;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Monitor of the server's load sampling the durations of the recent ticks.</p>
+ * <p>The samples are averaged over a sliding window of the given amount of ticks.</p>
+ * <p>If the sampler fails the monitor falls back to sampling the {@link Source#TICK_INTERVAL interval}
+ * between the ticks over the {@link #DEFAULT_WINDOW default window}.</p>
+ */
+@Log
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TickLoadMonitor implements Runnable, Shutdownable {
+
+    /**
+     * Method handle of Paper's {@code Server#getAverageTickTime()}
+     * or {@code null} if it is not available on the current server
+     */
+    private static final @Nullable MethodHandle GET_AVERAGE_TICK_TIME_METHOD_HANDLE = lookupGetAverageTickTime();
+
+    /**
+     * Default amount of ticks over which the samples are averaged
+     */
+    public static final int DEFAULT_WINDOW = 100;
+
+    /**
+     * Source of the samples
+     */
+    @Getter @NonFinal volatile @NonNull Source source;
+
+    /**
+     * Sampler providing the duration of the current tick in nanoseconds
+     */
+    @NonFinal @NonNull LongSupplier sampler;
+
+    /**
+     * Ring buffer of the samples
+     */
+    @NonFinal long @NotNull [] samples;
+
+    @Delegate(types = Shutdownable.class) @NonNull ShutdownHooks shutdownHooks;
+
+    /**
+     * Index of the next sample in {@link #samples}
+     */
+    @NonFinal int index;
+
+    /**
+     * Amount of the recorded samples limited by the window
+     */
+    @NonFinal int recorded;
+
+    /**
+     * Sum of the samples in the window
+     */
+    @NonFinal long sum;
+
+    /**
+     * Average duration of a tick in nanoseconds
+     */
+    @NonFinal volatile long averageTickNanos;
+
+    /**
+     * Creates a new monitor which should be {@link #run() run} once per tick.
+     *
+     * @param source source of the samples
+     * @param sampler sampler providing the duration of the current tick in nanoseconds
+     * @param window amount of ticks over which the samples are averaged
+     *
+     * @throws IllegalArgumentException if the window is not positive
+     */
+    public TickLoadMonitor(final @NonNull Source source, final @NonNull LongSupplier sampler, final int window) {
+        checkArgument(window > 0, "window should be positive");
+
+        this.source = source;
+        this.sampler = sampler;
+        samples = new long[window];
+        shutdownHooks = ShutdownHooks.create(this);
+    }
+
+    private static @Nullable MethodHandle lookupGetAverageTickTime() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(
+                    Server.class, "getAverageTickTime", MethodType.methodType(double.class)
+            );
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a sampler of the server's own average tick time if it is available (as on Paper).
+     *
+     * @param server server whose average tick time should be sampled
+     * @return created sampler or {@code null} if the server's average tick time is not available
+     */
+    private static @Nullable LongSupplier averageTickTimeSampler(final @NonNull Server server) {
+        final MethodHandle getAverageTickTime;
+        if ((getAverageTickTime = GET_AVERAGE_TICK_TIME_METHOD_HANDLE) == null) return null;
+
+        final LongSupplier sampler = () -> {
+            final double averageTickMillis;
+            try {
+                averageTickMillis = (double) getAverageTickTime.invokeExact(server);
+            } catch (final Throwable x) {
+                throw new IllegalStateException("Could not get the average tick time of the server", x);
+            }
+
+            return (long) (averageTickMillis * 1_000_000);
+        };
+
+        // the sampler is checked once so that the monitor does not start with the wrong source
+        try {
+            sampler.getAsLong();
+        } catch (final IllegalStateException e) {
+            log.log(Level.WARNING, "An exception occurred while getting the average tick time of the server", e);
+
+            return null;
+        }
+
+        return sampler;
+    }
+
+    /**
+     * Creates a new monitor run on each tick by the plugin's scheduler.
+     * It samples the server's own tick time if it is available (as on Paper)
+     * or the interval between the ticks otherwise.
+     *
+     * @param plugin plugin owning the monitor
+     * @return created monitor
+     */
+    public static @NotNull TickLoadMonitor create(final @NonNull Plugin plugin) {
+        final Server server = plugin.getServer();
+        final LongSupplier averageTickTimeSampler;
+        final TickLoadMonitor monitor = (averageTickTimeSampler = averageTickTimeSampler(server)) == null
+                ? new TickLoadMonitor(Source.TICK_INTERVAL, new TickIntervalSampler(), DEFAULT_WINDOW)
+                // the server's own value is already averaged over the recent ticks
+                : new TickLoadMonitor(Source.TICK_TIME, averageTickTimeSampler, 1);
+
+        monitor.shutdownHooks
+                .add(SchedulerMetrics.gauge(
+                        plugin.getName(), "TickLoadMonitor:averageTickMicros",
+                        () -> (int) TimeUnit.NANOSECONDS.toMicros(monitor.averageTickNanos)
+                ))
+                .add(server.getScheduler().runTaskTimer(plugin, monitor, 1, 1)::cancel)
+                .registerBukkitShutdownHook(plugin);
+
+        return monitor;
+    }
+
+    /**
+     * Samples the duration of the current tick.
+     */
+    @Override
+    public void run() {
+        final long sample;
+        try {
+            sample = sampler.getAsLong();
+        } catch (final RuntimeException e) {
+            fallBackToTickIntervals(e);
+
+            return;
+        }
+
+        record(sample);
+    }
+
+    /**
+     * Makes this monitor sample the interval between the ticks instead of its failing sampler.
+     *
+     * @param cause exception thrown by the sampler
+     *
+     * @apiNote policies created by {@link AdaptiveSchedulingPolicy#create(TickLoadMonitor)} before this
+     * keep the thresholds of the previous source
+     */
+    private void fallBackToTickIntervals(final @NonNull RuntimeException cause) {
+        log.log(Level.SEVERE, "An exception occurred while sampling the tick, falling back to tick intervals", cause);
+
+        sampler = new TickIntervalSampler();
+        samples = new long[DEFAULT_WINDOW];
+        index = recorded = 0;
+        sum = 0;
+        source = Source.TICK_INTERVAL;
+    }
+
+    /**
+     * Records the duration of a tick.
+     *
+     * @param tickNanos duration of a tick in nanoseconds
+     */
+    public void record(final long tickNanos) {
+        final long[] thisSamples = samples;
+        final int thisIndex = index;
+        final long thisSum = sum - thisSamples[thisIndex] + tickNanos;
+        thisSamples[thisIndex] = tickNanos;
+        index = thisIndex + 1 == thisSamples.length ? 0 : thisIndex + 1;
+
+        final int thisRecorded;
+        if ((thisRecorded = recorded) < thisSamples.length) recorded = thisRecorded + 1;
+
+        averageTickNanos = (sum = thisSum) / recorded;
+    }
+
+    /**
+     * Gets the average duration of a tick.
+     *
+     * @return average duration of a tick in nanoseconds or {@code 0} if nothing has been sampled yet
+     */
+    public long getAverageTickNanos() {
+        return averageTickNanos;
+    }
+
+    /**
+     * Source of the samples of a {@link TickLoadMonitor}.
+     */
+    public enum Source {
+        /**
+         * Time actually used by the server on a tick which is less than the tick's duration on a healthy server
+         */
+        TICK_TIME,
+        /**
+         * Interval between the ticks which is never less than the tick's duration
+         */
+        TICK_INTERVAL
+    }
+
+    /**
+     * Sampler measuring the interval between its calls.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class TickIntervalSampler implements LongSupplier {
+
+        /**
+         * Nominal duration of a tick used as the first sample
+         */
+        private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+        /**
+         * Time of the previous call or {@code 0} if there was none
+         */
+        long previous;
+
+        @Override
+        public long getAsLong() {
+            final long now = System.nanoTime(), thisPrevious = previous;
+            previous = now;
+
+            return thisPrevious == 0 ? TICK_NANOS : now - thisPrevious;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.metrics;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Key of a metric identifying it by its owner and name.
+ */
+@Value(staticConstructor = "of")
+public class MetricKey {
+
+    /**
+     * Owner of the metric, usually the name of the plugin
+     */
+    @NonNull String owner;
+
+    /**
+     * Name of the metric unique within its owner
+     */
+    @NonNull String name;
+}
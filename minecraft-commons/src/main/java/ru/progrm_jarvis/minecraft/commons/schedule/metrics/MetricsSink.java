@@ -0,0 +1,25 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Sink accepting the metrics {@link SchedulerMetrics#publish() published} by {@link SchedulerMetrics}.
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+    /**
+     * Accepts the timings of a task.
+     *
+     * @param snapshot snapshot of the task's timings accumulated since the metrics were created
+     */
+    void task(@NotNull TaskMetrics.Snapshot snapshot);
+
+    /**
+     * Accepts the current value of a gauge, such as the length of a queue.
+     *
+     * @param key key of the gauge
+     * @param value current value of the gauge
+     */
+    default void gauge(final @NotNull MetricKey key, final long value) {}
+}
@@ -0,0 +1,164 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.metrics;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Registry of the metrics of the scheduler-related tasks and queues.</p>
+ * <p>Metrics are disabled by default and get recorded only after they are {@link #enable(MetricsSink, int) enabled}
+ * with the sink to which they are {@link #publish() published}.</p>
+ * <p>As metrics are kept until the end of the runtime their names should not be unique per each task instance.</p>
+ */
+@UtilityClass
+public class SchedulerMetrics {
+
+    /**
+     * Default amount of nanoseconds after which the run of a task is considered an overrun, equal to a single tick
+     */
+    public final long DEFAULT_OVERRUN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * Mask applied to the number of a task's run which should give {@code 0} for the sampled runs
+     * or {@code -1} if metrics are disabled
+     */
+    volatile int sampleMask = -1;
+
+    /**
+     * Sink to which the metrics are published or {@code null} if metrics are disabled
+     */
+    private volatile @Nullable MetricsSink sink;
+
+    /**
+     * Metrics of the tasks by their keys
+     */
+    private final ConcurrentMap<MetricKey, TaskMetrics> TASKS = new ConcurrentHashMap<>();
+
+    /**
+     * Suppliers of the gauges by their keys, the value of a gauge being the sum of its suppliers
+     */
+    private final ConcurrentMap<MetricKey, Collection<IntSupplier>> GAUGES = new ConcurrentHashMap<>();
+
+    /**
+     * Enables the metrics.
+     *
+     * @param sink sink to which the metrics should be published
+     * @param sampleInterval amount of runs of a task per a single timed one, should be a power of two
+     *
+     * @throws IllegalArgumentException if the sample interval is not a positive power of two
+     */
+    public void enable(final @NonNull MetricsSink sink, final int sampleInterval) {
+        checkArgument(
+                sampleInterval > 0 && (sampleInterval & sampleInterval - 1) == 0,
+                "sampleInterval should be a positive power of two"
+        );
+
+        SchedulerMetrics.sink = sink;
+        sampleMask = sampleInterval - 1;
+    }
+
+    /**
+     * Disables the metrics, the already recorded ones are kept.
+     */
+    public void disable() {
+        sampleMask = -1;
+        sink = null;
+    }
+
+    /**
+     * Checks whether the metrics are enabled.
+     *
+     * @return {@code true} if the metrics are enabled and {@code false} otherwise
+     */
+    public boolean isEnabled() {
+        return sampleMask >= 0;
+    }
+
+    /**
+     * Gets the metrics of the task using the {@link #DEFAULT_OVERRUN_NANOS default overrun threshold}.
+     *
+     * @param owner owner of the task, usually the name of the plugin
+     * @param name name of the task
+     * @return metrics of the task
+     */
+    public @NotNull TaskMetrics task(final @NonNull String owner, final @NonNull String name) {
+        return task(owner, name, DEFAULT_OVERRUN_NANOS);
+    }
+
+    /**
+     * Gets the metrics of the task.
+     *
+     * @param owner owner of the task, usually the name of the plugin
+     * @param name name of the task
+     * @param overrunNanos amount of nanoseconds after which the run of the task is considered an overrun,
+     * only used if the metrics of the task do not exist yet
+     * @return metrics of the task
+     */
+    public @NotNull TaskMetrics task(final @NonNull String owner, final @NonNull String name,
+                                     final long overrunNanos) {
+        return TASKS.computeIfAbsent(MetricKey.of(owner, name), key -> new TaskMetrics(key, overrunNanos));
+    }
+
+    /**
+     * Adds a supplier to the gauge.
+     *
+     * @param owner owner of the gauge, usually the name of the plugin
+     * @param name name of the gauge
+     * @param supplier supplier of the value added to the gauge, such as the length of a queue,
+     * it is called by the thread publishing the metrics so it should be thread-safe
+     * @return hook removing the supplier from the gauge
+     */
+    public @NotNull Runnable gauge(final @NonNull String owner, final @NonNull String name,
+                                   final @NonNull IntSupplier supplier) {
+        final MetricKey key;
+        GAUGES.computeIfAbsent(key = MetricKey.of(owner, name), mappedKey -> new CopyOnWriteArrayList<>())
+                .add(supplier);
+
+        return () -> GAUGES.computeIfPresent(key, (mappedKey, suppliers) -> {
+            suppliers.remove(supplier);
+
+            return suppliers.isEmpty() ? null : suppliers;
+        });
+    }
+
+    /**
+     * Publishes all metrics to the sink if the metrics are enabled.
+     */
+    public void publish() {
+        final MetricsSink thisSink;
+        if ((thisSink = sink) == null) return;
+
+        for (final TaskMetrics metrics : TASKS.values()) thisSink.task(metrics.snapshot());
+        for (final Map.Entry<MetricKey, Collection<IntSupplier>> entry : GAUGES.entrySet()) {
+            long value = 0;
+            for (final IntSupplier supplier : entry.getValue()) value += supplier.getAsInt();
+            thisSink.gauge(entry.getKey(), value);
+        }
+    }
+
+    /**
+     * Publishes the metrics periodically from the plugin's asynchronous scheduler.
+     *
+     * @param plugin plugin whose scheduler should publish the metrics
+     * @param period period of publishing in ticks
+     * @return task publishing the metrics
+     */
+    public @NotNull BukkitTask publishPeriodically(final @NonNull Plugin plugin, final long period) {
+        return plugin.getServer().getScheduler().runTaskTimerAsynchronously(
+                plugin, SchedulerMetrics::publish, period, period
+        );
+    }
+}
@@ -0,0 +1,225 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Timings of a task recorded into a histogram whose buckets are powers of two of nanoseconds.</p>
+ * <p>Only every {@link SchedulerMetrics#enable(MetricsSink, int) sampled} run is timed
+ * and nothing is recorded while {@link SchedulerMetrics} are disabled
+ * so that the instrumented code only pays for a single volatile read on most runs.</p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TaskMetrics {
+
+    /**
+     * Amount of buckets of the histogram, one per each bit of the duration
+     */
+    public static final int BUCKETS = Long.SIZE;
+
+    /**
+     * Value returned by {@link #start()} when the run is not sampled
+     */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    /**
+     * Key of these metrics
+     */
+    @Getter @NonNull MetricKey key;
+
+    /**
+     * Amount of nanoseconds after which the run of the task is considered an overrun
+     */
+    @Getter long overrunNanos;
+
+    /**
+     * Amounts of sampled runs by the buckets of their durations
+     */
+    @NonNull AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Sum of the durations of the sampled runs
+     */
+    @NonNull LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Amount of sampled runs which took longer than {@link #overrunNanos}
+     */
+    @NonNull LongAdder overruns = new LongAdder();
+
+    /**
+     * Maximal duration of a sampled run
+     */
+    @NonNull AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Amount of runs used for sampling, races on it only affect which runs get sampled
+     */
+    @NonFinal int runs;
+
+    TaskMetrics(final @NonNull MetricKey key, final long overrunNanos) {
+        this.key = key;
+        this.overrunNanos = overrunNanos;
+    }
+
+    /**
+     * Starts timing the run of the task.
+     *
+     * @return start time to be passed to {@link #stop(long)} or {@link #NOT_SAMPLED} if this run is not timed
+     */
+    public long start() {
+        final int sampleMask;
+        if ((sampleMask = SchedulerMetrics.sampleMask) < 0 || (runs++ & sampleMask) != 0) return NOT_SAMPLED;
+
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops timing the run of the task.
+     *
+     * @param start value returned by the corresponding {@link #start()}
+     */
+    public void stop(final long start) {
+        if (start != NOT_SAMPLED) record(System.nanoTime() - start);
+    }
+
+    /**
+     * Runs the task timing it if the run is sampled.
+     *
+     * @param task task to run
+     */
+    public void run(final @NotNull Runnable task) {
+        final long start = start();
+        try {
+            task.run();
+        } finally {
+            stop(start);
+        }
+    }
+
+    /**
+     * Wraps the task so that its runs are timed by these metrics.
+     *
+     * @param task task to wrap
+     * @return wrapped task
+     */
+    public @NotNull Runnable instrument(final @NonNull Runnable task) {
+        return () -> run(task);
+    }
+
+    /**
+     * Records the duration of a single run.
+     *
+     * @param nanos duration of the run in nanoseconds
+     */
+    public void record(final long nanos) {
+        buckets.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        if (nanos > overrunNanos) overruns.increment();
+
+        final AtomicLong thisMaxNanos = maxNanos;
+        long max;
+        while (nanos > (max = thisMaxNanos.get())) if (thisMaxNanos.compareAndSet(max, nanos)) break;
+    }
+
+    /**
+     * Creates a snapshot of these metrics.
+     *
+     * @return snapshot of these metrics
+     */
+    public @NotNull Snapshot snapshot() {
+        final AtomicLongArray thisBuckets = buckets;
+        final long[] bucketsSnapshot = new long[BUCKETS];
+        long samples = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) samples += bucketsSnapshot[bucket] = thisBuckets.get(bucket);
+
+        return new Snapshot(key, samples, totalNanos.sum(), maxNanos.get(), overruns.sum(), bucketsSnapshot);
+    }
+
+    /**
+     * Gets the bucket of the duration.
+     *
+     * @param nanos duration in nanoseconds
+     * @return index of the bucket containing the durations from {@code 2^index} (inclusive)
+     * to {@code 2^(index + 1)} (exclusive) with the first one also containing non-positive durations
+     */
+    static int bucketOf(final long nanos) {
+        return nanos <= 1 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Snapshot of the task's metrics.
+     */
+    @Value
+    public static class Snapshot {
+
+        /**
+         * Key of the metrics
+         */
+        @NonNull MetricKey key;
+
+        /**
+         * Amount of sampled runs
+         */
+        long samples;
+
+        /**
+         * Sum of the durations of the sampled runs
+         */
+        long totalNanos;
+
+        /**
+         * Maximal duration of a sampled run
+         */
+        long maxNanos;
+
+        /**
+         * Amount of sampled runs which took longer than the overrun threshold
+         */
+        long overruns;
+
+        /**
+         * Amounts of sampled runs by the buckets of their durations
+         * with the bucket {@code i} containing the durations from {@code 2^i} to {@code 2^(i + 1)}
+         */
+        long @NotNull [] buckets;
+
+        /**
+         * Gets the mean duration of a sampled run.
+         *
+         * @return mean duration in nanoseconds or {@code 0} if there were no samples
+         */
+        public long meanNanos() {
+            return samples == 0 ? 0 : totalNanos / samples;
+        }
+
+        /**
+         * Gets the upper bound of the duration at the given percentile.
+         *
+         * @param percentile percentile from {@code 0} to {@code 100}
+         * @return upper bound of the bucket containing the percentile limited by the maximal duration
+         * or {@code 0} if there were no samples
+         */
+        public long percentileNanos(final double percentile) {
+            final long thisSamples;
+            if ((thisSamples = samples) == 0) return 0;
+
+            final long rank = Math.max(1, (long) Math.ceil(thisSamples * percentile / 100));
+            long counted = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) if ((counted += buckets[bucket]) >= rank) {
+                return bucket == BUCKETS - 1 ? maxNanos : Math.min(maxNanos, (2L << bucket) - 1);
+            }
+
+            return maxNanos;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package ru.progrm_jarvis.minecraft.commons.schedule.misc;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.UtilityClass;
@@ -10,32 +9,89 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.SchedulerMetrics;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.TaskMetrics;
 import ru.progrm_jarvis.minecraft.commons.schedule.task.initializer.BukkitTaskInitializer;
 import ru.progrm_jarvis.minecraft.commons.schedule.task.initializer.BukkitTaskInitializers;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @UtilityClass
 public class SchedulerGroups {
 
+    /**
+     * Name of the metrics of the keyed scheduler groups' runs
+     */
+    private final String METRICS_NAME = "KeyedSchedulerGroup";
+
+    /**
+     * Name of the gauge of the amount of the keyed scheduler groups' tasks
+     */
+    private final String TASKS_GAUGE_NAME = "KeyedSchedulerGroup:tasks";
+
     public <T extends Runnable, K> KeyedSchedulerGroup<T, K> keyedSchedulerGroup(final @NonNull Plugin plugin,
                                                                                  final boolean async, final long delay,
                                                                                  final long interval) {
-        return new MultimapBasedKeyedSchedulerGroup<>(plugin, async, delay, interval, ArrayListMultimap.create());
+        return new MultimapBasedKeyedSchedulerGroup<>(
+                plugin, async, delay, interval, null, ArrayListMultimap.create()
+        );
+    }
+
+    /**
+     * Creates a keyed scheduler group whose tasks are passed to the given executor on each run
+     * instead of being run directly.
+     * Runs during which the executor has not yet run all tasks of the previous one are skipped.
+     *
+     * @param plugin plugin owning the group
+     * @param delay delay of the first run of the group
+     * @param interval interval of the group's runs
+     * @param executor executor to which the tasks should be passed on each run, such as
+     * {@link ru.progrm_jarvis.minecraft.commons.schedule.executor.TickBudgetedExecutor}
+     * @param <T> type of tasks
+     * @param <K> type of keys
+     * @return created keyed scheduler group
+     */
+    public <T extends Runnable, K> KeyedSchedulerGroup<T, K> keyedSchedulerGroup(final @NonNull Plugin plugin,
+                                                                                 final long delay,
+                                                                                 final long interval,
+                                                                                 final @NonNull Executor executor) {
+        return new MultimapBasedKeyedSchedulerGroup<>(
+                plugin, false, delay, interval, executor, ArrayListMultimap.create()
+        );
     }
 
     public <T extends Runnable, K> KeyedSchedulerGroup<T, K> concurrentKeyedSchedulerGroup(final @NonNull Plugin plugin,
                                                                                            final boolean async,
                                                                                            final long delay,
                                                                                            final long interval) {
-        return new ConcurrentMultimapBasedKeyedSchedulerGroup<>(
-                plugin, async, delay, interval,
-                Multimaps.synchronizedMultimap(ArrayListMultimap.create())
-        );
+        return new ConcurrentMapBasedKeyedSchedulerGroup<>(plugin, async, delay, interval, null);
+    }
+
+    /**
+     * Creates a thread-safe keyed scheduler group whose tasks are passed to the given executor on each run
+     * instead of being run directly.
+     * Runs during which the executor has not yet run all tasks of the previous one are skipped.
+     *
+     * @param plugin plugin owning the group
+     * @param delay delay of the first run of the group
+     * @param interval interval of the group's runs
+     * @param executor executor to which the tasks should be passed on each run, such as
+     * {@link ru.progrm_jarvis.minecraft.commons.schedule.executor.TickBudgetedExecutor}
+     * @param <T> type of tasks
+     * @param <K> type of keys
+     * @return created keyed scheduler group
+     */
+    public <T extends Runnable, K> KeyedSchedulerGroup<T, K> concurrentKeyedSchedulerGroup(
+            final @NonNull Plugin plugin, final long delay, final long interval, final @NonNull Executor executor
+    ) {
+        return new ConcurrentMapBasedKeyedSchedulerGroup<>(plugin, false, delay, interval, executor);
     }
 
     @ToString
@@ -49,13 +105,39 @@ public class SchedulerGroups {
 
         final Multimap<K, T> tasks;
 
+        /**
+         * Run passing the tasks to the executor or {@code null} if they should be run directly
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude final @Nullable ExecutorRun executorRun;
+
+        /**
+         * Metrics of this group's runs
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude final @NonNull TaskMetrics metrics;
+
+        /**
+         * Hook removing this group from the gauge of the tasks' amount
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude final @NonNull Runnable tasksGaugeRemover;
+
+        /**
+         * Amount of tasks published for the gauge as the multimap cannot be read from the metrics' thread
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude volatile int publishedSize;
+
         public MultimapBasedKeyedSchedulerGroup(final @NonNull Plugin plugin, final boolean async, final long delay,
-                                                final long interval, final @NonNull Multimap<K, T> tasks) {
+                                                final long interval, final @Nullable Executor executor,
+                                                final @NonNull Multimap<K, T> tasks) {
             this.plugin = plugin;
+            executorRun = executor == null ? null : new ExecutorRun(executor);
 
             initializer = BukkitTaskInitializers.createTimerTaskInitializer(plugin, async, delay, interval, this);
             this.tasks = tasks;
 
+            val pluginName = plugin.getName();
+            metrics = SchedulerMetrics.task(pluginName, METRICS_NAME);
+            tasksGaugeRemover = SchedulerMetrics.gauge(pluginName, TASKS_GAUGE_NAME, () -> publishedSize);
+
             // set up plugin disable hook
             plugin.getServer().getPluginManager().registerEvents(new Listener() {
 
@@ -70,6 +152,7 @@ public class SchedulerGroups {
         public synchronized void cancel() {
             super.cancel();
             initializer.shutdown();
+            tasksGaugeRemover.run();
         }
 
         @Override
@@ -77,6 +160,13 @@ public class SchedulerGroups {
             return tasks.size();
         }
 
+        /**
+         * Publishes the current amount of tasks for the gauge.
+         */
+        private void publishSize() {
+            publishedSize = tasks.size();
+        }
+
         @Override
         public Collection<T> tasks() {
             return tasks.values();
@@ -87,13 +177,24 @@ public class SchedulerGroups {
             val tasks = new ArrayList<T>(this.tasks.values());
 
             this.tasks.clear();
+            publishedSize = 0;
 
             return tasks;
         }
 
         @Override
         public void run() {
-            for (val task : tasks.values()) task.run();
+            // tasks may also be removed via the views so the published amount gets refreshed on each run
+            publishSize();
+
+            final long start = metrics.start();
+            try {
+                final ExecutorRun thisExecutorRun;
+                if ((thisExecutorRun = executorRun) == null) for (val task : tasks.values()) task.run();
+                else thisExecutorRun.start(tasks.values());
+            } finally {
+                metrics.stop(start);
+            }
         }
 
         @Override
@@ -101,11 +202,15 @@ public class SchedulerGroups {
             initializer.initialize();
 
             tasks.put(key, task);
+            publishSize();
         }
 
         @Override
         public boolean removeTask(final @NonNull T task) {
-            return tasks.values().remove(task);
+            final boolean removed;
+            if (removed = tasks.values().remove(task)) publishSize();
+
+            return removed;
         }
 
         @Override
@@ -116,109 +221,309 @@ public class SchedulerGroups {
             do {
                 if (mayContain = tasks.remove(task)) removed++;
             } while (mayContain);
+            if (removed != 0) publishSize();
 
             return removed;
         }
 
         @Override
         public Collection<T> removeTasks(final K key) {
-            return tasks.removeAll(key);
+            val removedTasks = tasks.removeAll(key);
+            publishSize();
+
+            return removedTasks;
         }
     }
 
+    /**
+     * <p>Thread-safe keyed scheduler group storing the tasks in copy-on-write lists of their keys.</p>
+     * <p>Its {@link #run() runs} iterate the snapshots of the lists and so never block
+     * nor get blocked by the threads adding and removing the tasks.</p>
+     *
+     * @param <T> type of tasks
+     * @param <K> type of keys
+     */
     @ToString
     @EqualsAndHashCode(callSuper = true)
-    @FieldDefaults(level = AccessLevel.PROTECTED)
-    private static class ConcurrentMultimapBasedKeyedSchedulerGroup<T extends Runnable, K>
-            extends MultimapBasedKeyedSchedulerGroup<T, K> {
+    @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+    private static class ConcurrentMapBasedKeyedSchedulerGroup<T extends Runnable, K>
+            extends KeyedSchedulerGroup<T, K> {
+
+        /**
+         * Key used instead of {@code null} which is not allowed by {@link ConcurrentHashMap}
+         */
+        private static final Object NULL_KEY = new Object();
+
+        @NonNull Plugin plugin;
+
+        @NonNull BukkitTaskInitializer initializer;
+
+        /**
+         * Lists of tasks by their keys, lists are only modified while their mappings are being computed
+         */
+        @NonNull ConcurrentMap<Object, List<T>> tasks = new ConcurrentHashMap<>();
+
+        /**
+         * View of all tasks
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude @NonNull Collection<T> tasksView = new TasksView();
+
+        /**
+         * Run passing the tasks to the executor or {@code null} if they should be run directly
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude @Nullable ExecutorRun executorRun;
+
+        /**
+         * Metrics of this group's runs
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude @NonNull TaskMetrics metrics;
+
+        /**
+         * Hook removing this group from the gauge of the tasks' amount
+         */
+        @ToString.Exclude @EqualsAndHashCode.Exclude @NonNull Runnable tasksGaugeRemover;
+
+        public ConcurrentMapBasedKeyedSchedulerGroup(final @NonNull Plugin plugin, final boolean async,
+                                                     final long delay, final long interval,
+                                                     final @Nullable Executor executor) {
+            this.plugin = plugin;
+            executorRun = executor == null ? null : new ExecutorRun(executor);
+
+            initializer = BukkitTaskInitializers.createTimerTaskInitializer(plugin, async, delay, interval, this);
+
+            val pluginName = plugin.getName();
+            metrics = SchedulerMetrics.task(pluginName, METRICS_NAME);
+            tasksGaugeRemover = SchedulerMetrics.gauge(pluginName, TASKS_GAUGE_NAME, this::size);
+
+            // set up plugin disable hook
+            plugin.getServer().getPluginManager().registerEvents(new Listener() {
 
-        ReadWriteLock lock = new ReentrantReadWriteLock();
-        Lock readLock = lock.readLock();
-        Lock writeLock = lock.writeLock();
+                @EventHandler
+                public void onPluginDisable(final PluginDisableEvent event) {
+                    if (plugin == event.getPlugin()) cancel();
+                }
+            }, plugin);
+        }
 
-        public ConcurrentMultimapBasedKeyedSchedulerGroup(final @NonNull Plugin plugin,
-                                                          final boolean async, final long delay, final long interval,
-                                                          final @NonNull Multimap<K, T> tasks) {
-            super(plugin, async, delay, interval, tasks);
+        @Override // cancel should also set runnable to null
+        public synchronized void cancel() {
+            super.cancel();
+            initializer.shutdown();
+            tasksGaugeRemover.run();
         }
 
         @Override
         public int size() {
-            readLock.lock();
-            try {
-                return super.size();
-            } finally {
-                readLock.unlock();
-            }
+            int size = 0;
+            for (val keyTasks : tasks.values()) size += keyTasks.size();
+
+            return size;
         }
 
         @Override
         public Collection<T> tasks() {
-            readLock.lock();
-            try {
-                return super.tasks();
-            } finally {
-                readLock.unlock();
-            }
+            return tasksView;
         }
 
         @Override
         public Collection<T> clearTasks() {
-            readLock.lock();
-            try {
-                return super.clearTasks();
-            } finally {
-                readLock.unlock();
+            val removedTasks = new ArrayList<T>();
+            for (val key : tasks.keySet()) {
+                final List<T> keyTasks;
+                if ((keyTasks = tasks.remove(key)) != null) removedTasks.addAll(keyTasks);
             }
+
+            return removedTasks;
         }
 
         @Override
         public void run() {
-            readLock.lock();
+            final long start = metrics.start();
             try {
-                super.run();
+                final ExecutorRun thisExecutorRun;
+                if ((thisExecutorRun = executorRun) == null) for (val keyTasks : tasks.values()) {
+                    for (val task : keyTasks) task.run();
+                } else thisExecutorRun.start(tasksView);
             } finally {
-                readLock.unlock();
+                metrics.stop(start);
             }
         }
 
         @Override
         public void addTask(final K key, final @NonNull T task) {
-            writeLock.lock();
-            try {
-                super.addTask(key, task);
-            } finally {
-                writeLock.unlock();
-            }
+            initializer.initialize();
+
+            tasks.compute(key == null ? NULL_KEY : key, (mappedKey, keyTasks) -> {
+                if (keyTasks == null) keyTasks = new CopyOnWriteArrayList<>();
+                keyTasks.add(task);
+
+                return keyTasks;
+            });
         }
 
         @Override
         public boolean removeTask(final @NonNull T task) {
-            writeLock.lock();
-            try {
-                return super.removeTask(task);
-            } finally {
-                writeLock.unlock();
+            val removed = new boolean[1];
+            for (val key : tasks.keySet()) {
+                tasks.computeIfPresent(key, (mappedKey, keyTasks) -> {
+                    if (keyTasks.remove(task)) removed[0] = true;
+
+                    return keyTasks.isEmpty() ? null : keyTasks;
+                });
+                if (removed[0]) return true;
             }
+
+            return false;
         }
 
         @Override
         public int removeTasks(final @NonNull T task) {
-            writeLock.lock();
-            try {
-                return super.removeTasks(task);
-            } finally {
-                writeLock.unlock();
-            }
+            val removed = new int[1];
+            val removedTask = Collections.singleton(task);
+            for (val key : tasks.keySet()) tasks.computeIfPresent(key, (mappedKey, keyTasks) -> {
+                final int size = keyTasks.size();
+                // removal happens in a single pass over the list
+                if (keyTasks.removeAll(removedTask)) removed[0] += size - keyTasks.size();
+
+                return keyTasks.isEmpty() ? null : keyTasks;
+            });
+
+            return removed[0];
         }
 
         @Override
         public Collection<T> removeTasks(final K key) {
-            writeLock.lock();
+            final List<T> keyTasks;
+            return (keyTasks = tasks.remove(key == null ? NULL_KEY : key)) == null
+                    ? Collections.emptyList() : keyTasks;
+        }
+
+        /**
+         * View of all tasks of this group whose iterator iterates the snapshots of the lists.
+         */
+        private final class TasksView extends AbstractCollection<T> {
+
+            @Override
+            public int size() {
+                return ConcurrentMapBasedKeyedSchedulerGroup.this.size();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean remove(final Object object) {
+                return object instanceof Runnable && removeTask((T) object);
+            }
+
+            @Override
+            public @NotNull Iterator<T> iterator() {
+                val keys = tasks.keySet().iterator();
+
+                return new Iterator<T>() {
+
+                    @Nullable Object key;
+                    @NotNull Iterator<T> keyTasks = Collections.emptyIterator();
+                    @Nullable T last;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!keyTasks.hasNext()) {
+                            if (!keys.hasNext()) return false;
+
+                            final List<T> nextKeyTasks;
+                            if ((nextKeyTasks = tasks.get(key = keys.next())) != null) {
+                                keyTasks = nextKeyTasks.iterator();
+                            }
+                        }
+
+                        return true;
+                    }
+
+                    @Override
+                    public T next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+
+                        return last = keyTasks.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        final T thisLast;
+                        if ((thisLast = last) == null) throw new IllegalStateException();
+
+                        last = null;
+                        tasks.computeIfPresent(key, (mappedKey, mappedTasks) -> {
+                            mappedTasks.remove(thisLast);
+
+                            return mappedTasks.isEmpty() ? null : mappedTasks;
+                        });
+                    }
+                };
+            }
+        }
+    }
+
+    /**
+     * <p>Run of a group's tasks passing them to the executor one at a time.</p>
+     * <p>A new run is only started once the previous one has been completed
+     * so that an executor which does not keep up with the group's interval
+     * does not accumulate the group's tasks nor run them more than once per run.</p>
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class ExecutorRun implements Runnable {
+
+        /**
+         * Executor to which the tasks are passed
+         */
+        final @NonNull Executor executor;
+
+        /**
+         * Whether the current run has not been completed yet
+         */
+        final @NonNull AtomicBoolean pending = new AtomicBoolean();
+
+        /**
+         * Snapshot of the tasks of the current run or {@code null} if there is no current run
+         */
+        @Nullable Runnable[] tasks;
+
+        /**
+         * Index of the next task of the current run
+         */
+        int index;
+
+        private ExecutorRun(final @NonNull Executor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Starts a new run of the tasks unless the previous one has not been completed yet.
+         *
+         * @param tasks tasks of the group
+         */
+        private void start(final @NonNull Collection<? extends Runnable> tasks) {
+            if (!pending.compareAndSet(false, true)) return;
+
+            final Runnable[] thisTasks;
+            if ((thisTasks = tasks.toArray(new Runnable[0])).length == 0) pending.set(false);
+            else {
+                this.tasks = thisTasks;
+                index = 0;
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            final Runnable[] thisTasks = tasks;
+            final int thisIndex = index++;
             try {
-                return super.removeTasks(key);
+                thisTasks[thisIndex].run();
             } finally {
-                writeLock.unlock();
+                if (thisIndex + 1 < thisTasks.length) executor.execute(this);
+                else {
+                    tasks = null;
+                    pending.set(false);
+                }
             }
         }
     }
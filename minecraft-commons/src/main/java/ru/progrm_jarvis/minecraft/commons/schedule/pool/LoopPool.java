@@ -1,12 +1,33 @@
 package ru.progrm_jarvis.minecraft.commons.schedule.pool;
 
 import org.jetbrains.annotations.NotNull;
+import ru.progrm_jarvis.minecraft.commons.schedule.load.AdaptiveSchedulingPolicy;
+import ru.progrm_jarvis.minecraft.commons.schedule.load.Criticality;
 
 @FunctionalInterface
 public interface LoopPool {
 
     @NotNull ShutdownHook addTask(@NotNull Runnable task, long period, boolean async);
 
+    /**
+     * Adds a task whose period gets stretched by the policy according to the server's load.
+     *
+     * @param task task to add
+     * @param period normal period of the task
+     * @param async whether the task should be run asynchronously
+     * @param policy policy stretching the period of the task
+     * @param criticality criticality of the task
+     * @return hook removing the task
+     *
+     * @implSpec default implementation skips the runs of the task {@link AdaptiveSchedulingPolicy#throttle(Runnable,
+     * Criticality) throttled} by the policy
+     */
+    default @NotNull ShutdownHook addTask(final @NotNull Runnable task, final long period, final boolean async,
+                                          final @NotNull AdaptiveSchedulingPolicy policy,
+                                          final @NotNull Criticality criticality) {
+        return addTask(policy.throttle(task, criticality), period, async);
+    }
+
     @FunctionalInterface
     interface ShutdownHook extends AutoCloseable {
 
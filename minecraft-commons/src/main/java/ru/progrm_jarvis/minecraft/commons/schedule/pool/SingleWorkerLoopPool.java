@@ -13,6 +13,8 @@ import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.SchedulerMetrics;
+import ru.progrm_jarvis.minecraft.commons.schedule.metrics.TaskMetrics;
 
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,14 +30,15 @@ public final class SingleWorkerLoopPool implements LoopPool {
     @Override
     public @NotNull ShutdownHook addTask(final @NotNull Runnable task, final long period, final boolean async) {
         return (async ? asyncTasks.computeIfAbsent(period, p -> {
-            val runner = new PaperTaskRunner(ConcurrentHashMap.newKeySet());
+            val runner = new PaperTaskRunner(ConcurrentHashMap.newKeySet(), metrics(true, period));
             runner.setup(
-                    scheduler.runTaskTimer(plugin, runner, period, period), () -> asyncTasks.remove(period)
+                    scheduler.runTaskTimerAsynchronously(plugin, runner, period, period),
+                    () -> asyncTasks.remove(period)
             );
 
             return runner;
         }) : syncTasks.computeIfAbsent(period, p -> {
-            val runner = new PaperTaskRunner(ConcurrentHashMap.newKeySet());
+            val runner = new PaperTaskRunner(ConcurrentHashMap.newKeySet(), metrics(false, period));
             runner.setup(
                     scheduler.runTaskTimer(plugin, runner, period, period), () -> syncTasks.remove(period)
             );
@@ -43,6 +46,19 @@ public final class SingleWorkerLoopPool implements LoopPool {
         })).addTask(task);
     }
 
+    /**
+     * Gets the metrics of the runner of the tasks with the given period.
+     *
+     * @param async whether the runner is asynchronous
+     * @param period period of the runner's tasks
+     * @return metrics of the runner
+     */
+    private @NotNull TaskMetrics metrics(final boolean async, final long period) {
+        return SchedulerMetrics.task(
+                plugin.getName(), "SingleWorkerLoopPool:" + (async ? "async:" : "sync:") + period
+        );
+    }
+
     public static LoopPool create(final @NonNull Plugin plugin) {
         return new SingleWorkerLoopPool(
                 plugin, plugin.getServer().getScheduler(),
@@ -68,11 +84,17 @@ public final class SingleWorkerLoopPool implements LoopPool {
     private static class PaperTaskRunner implements BukkitTaskRunner {
 
         @NotNull Collection<Runnable> tasks;
+        @NotNull TaskMetrics metrics;
         @NonFinal /* because class initialization order */ @Nullable BukkitTask owningTask;
         @NonFinal /* because class initialization order */ @Nullable Runnable disabler;
 
         public void run() {
-            for (val task : tasks) task.run();
+            final long start = metrics.start();
+            try {
+                for (val task : tasks) task.run();
+            } finally {
+                metrics.stop(start);
+            }
         }
 
         @Override
@@ -0,0 +1,330 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.pool;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Hierarchical timing wheel storing timeouts measured in ticks.</p>
+ * <p>Timeouts are stored in doubly-linked lists of the slots so that both scheduling and cancellation
+ * take constant time. Timeouts which are too far from the current tick are stored in the coarser levels
+ * and get cascaded into the finer ones once their time comes closer.</p>
+ * <p>This class is not thread-safe.</p>
+ *
+ * @param <T> type of values of the timeouts
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TimingWheel<T> {
+
+    /**
+     * Amount of bits of the tick used for the slot of a single level
+     */
+    private static final int SLOT_BITS = 6;
+
+    /**
+     * Amount of slots of a single level
+     */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * Mask used to get the slot of a single level
+     */
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * Amount of levels
+     */
+    private static final int LEVELS = 4;
+
+    /**
+     * Maximal delay which can be stored without re-cascading from the top level
+     */
+    private static final long MAX_DELAY = (1L << SLOT_BITS * LEVELS) - 1;
+
+    /**
+     * Level marking the timeouts which are not stored in any slot
+     */
+    private static final int NOT_SCHEDULED = -1;
+
+    /**
+     * Level marking the timeouts which are being processed by {@link #advance(Consumer)}
+     */
+    private static final int PROCESSING = -2;
+
+    /**
+     * Heads of the slots' lists by levels
+     */
+    @NotNull Timeout<T> @NotNull [] @NotNull [] slots;
+
+    /**
+     * Number of the next tick to be processed
+     */
+    @NonFinal @Getter long tick;
+
+    /**
+     * Amount of scheduled timeouts
+     */
+    @NonFinal int size;
+
+    /**
+     * Head of the list of timeouts being processed
+     */
+    @NonFinal @Nullable Timeout<T> processing;
+
+    /**
+     * Creates a new timing wheel.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel() {
+        slots = new Timeout[LEVELS][SLOTS];
+    }
+
+    /**
+     * Gets the amount of scheduled timeouts.
+     *
+     * @return amount of scheduled timeouts
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a new timeout.
+     *
+     * @param value value of the timeout
+     * @param delay amount of ticks to be {@link #advance(Consumer) advanced} before the timeout expires,
+     * {@code 0} meaning that it will expire on the next advance
+     * @return scheduled timeout
+     *
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public @NotNull Timeout<T> schedule(final T value, final long delay) {
+        checkArgument(delay >= 0, "delay should be non-negative");
+
+        final Timeout<T> timeout;
+        insert(timeout = new Timeout<>(value), tick + delay);
+        size++;
+
+        return timeout;
+    }
+
+    /**
+     * Schedules the timeout again.
+     *
+     * @param timeout timeout which is not scheduled currently, i.e. expired or cancelled
+     * @param delay amount of ticks to be {@link #advance(Consumer) advanced} before the timeout expires,
+     * {@code 0} meaning that it will expire on the next advance
+     *
+     * @throws IllegalArgumentException if the delay is negative or the timeout is still scheduled
+     */
+    public void reschedule(final @NonNull Timeout<T> timeout, final long delay) {
+        checkArgument(delay >= 0, "delay should be non-negative");
+        checkArgument(timeout.level == NOT_SCHEDULED, "timeout should not be scheduled");
+
+        insert(timeout, tick + delay);
+        size++;
+    }
+
+    /**
+     * Cancels the timeout.
+     *
+     * @param timeout timeout to cancel
+     * @return {@code true} if the timeout was scheduled and {@code false} otherwise
+     */
+    public boolean cancel(final @NonNull Timeout<T> timeout) {
+        if (timeout.level == NOT_SCHEDULED) return false;
+
+        unlink(timeout);
+        size--;
+
+        return true;
+    }
+
+    /**
+     * Processes the next tick passing all timeouts expired on it to the handler.
+     *
+     * @param expirationHandler handler accepting the expired timeouts, it is allowed to schedule and cancel timeouts
+     * @return amount of expired timeouts
+     */
+    public int advance(final @NonNull Consumer<? super Timeout<T>> expirationHandler) {
+        final long currentTick;
+        tick = (currentTick = tick) + 1;
+
+        // cascade the coarser levels whose slot starts at the current tick
+        for (int level = 1; level < LEVELS; level++) {
+            final int shift;
+            if ((currentTick & (1L << (shift = SLOT_BITS * level)) - 1) != 0) break;
+
+            final Timeout<T>[] levelSlots;
+            final int slot;
+            Timeout<T> timeout;
+            if ((timeout = (levelSlots = slots[level])[slot = (int) (currentTick >>> shift) & SLOT_MASK]) == null) {
+                continue;
+            }
+            levelSlots[slot] = null;
+            processing = timeout;
+            for (Timeout<T> next = timeout; next != null; next = next.next) next.level = PROCESSING;
+
+            while ((timeout = processing) != null) {
+                unlink(timeout);
+                insertAt(timeout, timeout.deadline, currentTick);
+            }
+        }
+
+        final Timeout<T>[] levelSlots;
+        final int slot;
+        Timeout<T> timeout;
+        if ((timeout = (levelSlots = slots[0])[slot = (int) currentTick & SLOT_MASK]) == null) return 0;
+
+        levelSlots[slot] = null;
+        processing = timeout;
+        for (Timeout<T> next = timeout; next != null; next = next.next) next.level = PROCESSING;
+
+        int expired = 0;
+        while ((timeout = processing) != null) {
+            unlink(timeout);
+            // timeouts further than the wheel's range get here earlier and so are inserted again
+            if (timeout.deadline > currentTick) insert(timeout, timeout.deadline);
+            else {
+                size--;
+                expired++;
+                // the handler may cancel other processed timeouts which simply get unlinked
+                expirationHandler.accept(timeout);
+            }
+        }
+
+        return expired;
+    }
+
+    /**
+     * Cancels all timeouts passing them to the handler.
+     *
+     * @param cancellationHandler handler accepting the cancelled timeouts
+     */
+    public void clear(final @NonNull Consumer<? super Timeout<T>> cancellationHandler) {
+        for (final Timeout<T>[] levelSlots : slots) for (int slot = 0; slot < SLOTS; slot++) {
+            Timeout<T> timeout;
+            while ((timeout = levelSlots[slot]) != null) {
+                unlink(timeout);
+                size--;
+                cancellationHandler.accept(timeout);
+            }
+        }
+    }
+
+    /**
+     * Inserts the timeout into the slot corresponding to the given deadline.
+     *
+     * @param timeout timeout to insert
+     * @param deadline tick on which the timeout should expire
+     */
+    private void insert(final @NotNull Timeout<T> timeout, final long deadline) {
+        insertAt(timeout, deadline, tick);
+    }
+
+    /**
+     * Inserts the timeout into the slot corresponding to the given deadline relative to the given tick.
+     *
+     * @param timeout timeout to insert
+     * @param deadline tick on which the timeout should expire
+     * @param currentTick tick relative to which the slot is computed
+     */
+    private void insertAt(final @NotNull Timeout<T> timeout, final long deadline, final long currentTick) {
+        timeout.deadline = deadline;
+
+        long slotDeadline = deadline;
+        final long delay;
+        if ((delay = deadline - currentTick) > MAX_DELAY) slotDeadline = currentTick + MAX_DELAY;
+        else if (delay < 0) slotDeadline = currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && slotDeadline - currentTick >= 1L << SLOT_BITS * (level + 1)) level++;
+
+        final Timeout<T>[] levelSlots;
+        final int slot;
+        final Timeout<T> head;
+        if ((head = (levelSlots = slots[level])[slot = (int) (slotDeadline >>> SLOT_BITS * level) & SLOT_MASK])
+                != null) head.previous = timeout;
+        timeout.next = head;
+        timeout.previous = null;
+        timeout.level = level;
+        timeout.slot = slot;
+        levelSlots[slot] = timeout;
+    }
+
+    /**
+     * Unlinks the timeout from the list containing it.
+     *
+     * @param timeout timeout to unlink
+     */
+    private void unlink(final @NotNull Timeout<T> timeout) {
+        final Timeout<T> previous = timeout.previous, next = timeout.next;
+        if (previous != null) previous.next = next;
+        else if (timeout.level == PROCESSING) processing = next;
+        else slots[timeout.level][timeout.slot] = next;
+        if (next != null) next.previous = previous;
+
+        timeout.previous = timeout.next = null;
+        timeout.level = NOT_SCHEDULED;
+    }
+
+    /**
+     * Timeout stored in a {@link TimingWheel}.
+     *
+     * @param <T> type of the value
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static final class Timeout<T> {
+
+        /**
+         * Value of this timeout
+         */
+        final @Getter T value;
+
+        /**
+         * Tick on which this timeout expires
+         */
+        @Getter long deadline;
+
+        /**
+         * Level containing this timeout or one of the special negative values
+         */
+        int level = NOT_SCHEDULED;
+
+        /**
+         * Slot of the level containing this timeout
+         */
+        int slot;
+
+        /**
+         * Previous timeout of the list
+         */
+        @Nullable Timeout<T> previous;
+
+        /**
+         * Next timeout of the list
+         */
+        @Nullable Timeout<T> next;
+
+        private Timeout(final T value) {
+            this.value = value;
+        }
+
+        /**
+         * Checks whether this timeout is currently scheduled.
+         *
+         * @return {@code true} if this timeout is scheduled and {@code false} if it has expired or been cancelled
+         */
+        public boolean isScheduled() {
+            return level != NOT_SCHEDULED;
+        }
+    }
+}
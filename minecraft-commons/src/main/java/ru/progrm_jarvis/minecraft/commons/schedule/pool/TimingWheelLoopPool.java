@@ -0,0 +1,404 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.pool;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.experimental.Delegate;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.java.Log;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.schedule.load.AdaptiveSchedulingPolicy;
+import ru.progrm_jarvis.minecraft.commons.schedule.load.Criticality;
+import ru.progrm_jarvis.minecraft.commons.schedule.pool.TimingWheel.Timeout;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.ShutdownHooks;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>{@link LoopPool} backed by a single {@link TimingWheel} driven by a single timer.</p>
+ * <p>Unlike {@link SingleWorkerLoopPool} tasks with equal periods are spread across the ticks of the period
+ * so that they do not all run in the same tick. Asynchronous tasks are run by a dedicated executor
+ * and are not started again while their previous run has not completed.</p>
+ * <p>Synchronous tasks may be passed to an executor, such as
+ * {@link ru.progrm_jarvis.minecraft.commons.schedule.executor.TickBudgetedExecutor}, instead of being run directly
+ * by the ticking thread.</p>
+ * <p>Periods of the tasks added with an {@link AdaptiveSchedulingPolicy} are stretched by rescheduling them
+ * further instead of skipping their runs.</p>
+ */
+@Log
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TimingWheelLoopPool implements LoopPool, Runnable, Shutdownable {
+
+    /**
+     * Wheel storing the scheduled tasks guarded by {@link #lock}
+     */
+    @NonNull TimingWheel<Task> wheel = new TimingWheel<>();
+
+    /**
+     * Lock guarding the wheel
+     */
+    @NonNull Lock lock = new ReentrantLock();
+
+    /**
+     * Phases of the tasks by their periods used for spreading them, only present for the periods having tasks
+     */
+    @NonNull Long2ObjectMap<Phases> phasesByPeriod = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Buffer of timeouts expired on the current tick, only accessed by the ticking thread
+     */
+    @NonNull List<Timeout<Task>> expired = new ArrayList<>();
+
+    /**
+     * Handler adding the timeouts to {@link #expired}
+     */
+    @NonNull Consumer<Timeout<Task>> expirationHandler = expired::add;
+
+    /**
+     * Executor used for running synchronous tasks or {@code null} if they should be run by the ticking thread
+     */
+    @Nullable Executor syncExecutor;
+
+    /**
+     * Executor used for running asynchronous tasks
+     */
+    @NonNull Executor asyncExecutor;
+
+    @Delegate(types = Shutdownable.class) @NonNull ShutdownHooks shutdownHooks;
+
+    /**
+     * Creates a new loop pool which should be {@link #run() run} once per tick.
+     *
+     * @param syncExecutor executor used for running synchronous tasks
+     * or {@code null} if they should be run by the ticking thread
+     * @param asyncExecutor executor used for running asynchronous tasks
+     */
+    public TimingWheelLoopPool(final @Nullable Executor syncExecutor, final @NonNull Executor asyncExecutor) {
+        this.syncExecutor = syncExecutor;
+        this.asyncExecutor = asyncExecutor;
+        shutdownHooks = ShutdownHooks.createConcurrent(this).add(this::clear);
+    }
+
+    /**
+     * Creates a new loop pool which should be {@link #run() run} once per tick
+     * and whose synchronous tasks are run by the ticking thread.
+     *
+     * @param asyncExecutor executor used for running asynchronous tasks
+     */
+    public TimingWheelLoopPool(final @NonNull Executor asyncExecutor) {
+        this(null, asyncExecutor);
+    }
+
+    /**
+     * Creates a new loop pool driven by the plugin's scheduler
+     * whose asynchronous tasks are run by its own single-threaded executor.
+     *
+     * @param plugin plugin owning the loop pool
+     * @return created loop pool
+     */
+    public static @NotNull TimingWheelLoopPool create(final @NonNull Plugin plugin) {
+        final ExecutorService asyncExecutor = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, plugin.getName() + "-TimingWheelLoopPool-Async");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        final TimingWheelLoopPool pool;
+        (pool = new TimingWheelLoopPool(asyncExecutor)).shutdownHooks.add(asyncExecutor::shutdown);
+
+        return pool.drivenBy(plugin);
+    }
+
+    /**
+     * Creates a new loop pool driven by the plugin's scheduler.
+     *
+     * @param plugin plugin owning the loop pool
+     * @param asyncExecutor executor used for running asynchronous tasks
+     * @return created loop pool
+     */
+    public static @NotNull TimingWheelLoopPool create(final @NonNull Plugin plugin,
+                                                      final @NonNull Executor asyncExecutor) {
+        return new TimingWheelLoopPool(asyncExecutor).drivenBy(plugin);
+    }
+
+    /**
+     * Creates a new loop pool driven by the plugin's scheduler.
+     *
+     * @param plugin plugin owning the loop pool
+     * @param syncExecutor executor used for running synchronous tasks
+     * @param asyncExecutor executor used for running asynchronous tasks
+     * @return created loop pool
+     */
+    public static @NotNull TimingWheelLoopPool create(final @NonNull Plugin plugin,
+                                                      final @NonNull Executor syncExecutor,
+                                                      final @NonNull Executor asyncExecutor) {
+        return new TimingWheelLoopPool(syncExecutor, asyncExecutor).drivenBy(plugin);
+    }
+
+    /**
+     * Makes this loop pool driven by the plugin's scheduler.
+     *
+     * @param plugin plugin whose scheduler should run this loop pool
+     * @return this loop pool
+     */
+    private @NotNull TimingWheelLoopPool drivenBy(final @NotNull Plugin plugin) {
+        shutdownHooks
+                .add(plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1, 1)::cancel)
+                .registerBukkitShutdownHook(plugin);
+
+        return this;
+    }
+
+    @Override
+    public @NotNull ShutdownHook addTask(final @NonNull Runnable task, final long period, final boolean async) {
+        checkArgument(period > 0, "period should be positive");
+
+        return addTask(async ? new AsyncTask(task, period, null, null) : new Task(task, period, null, null));
+    }
+
+    @Override
+    public @NotNull ShutdownHook addTask(final @NonNull Runnable task, final long period, final boolean async,
+                                         final @NonNull AdaptiveSchedulingPolicy policy,
+                                         final @NonNull Criticality criticality) {
+        checkArgument(period > 0, "period should be positive");
+
+        return addTask(
+                async ? new AsyncTask(task, period, policy, criticality) : new Task(task, period, policy, criticality)
+        );
+    }
+
+    /**
+     * Schedules the task spreading it among the other tasks of its period.
+     *
+     * @param wrapper task to schedule
+     * @return hook removing the task
+     */
+    private @NotNull ShutdownHook addTask(final @NotNull Task wrapper) {
+        final long period = wrapper.period;
+        lock.lock();
+        try {
+            Phases phases;
+            if ((phases = phasesByPeriod.get(period)) == null) phasesByPeriod.put(period, phases = new Phases());
+            phases.tasks++;
+            final long phase = phases.next;
+            phases.next = phase + 1 == period ? 0 : phase + 1;
+
+            // tasks with equal periods get sequential phases (relative to the absolute tick)
+            // so that they do not run on the same tick no matter when they get added
+            final TimingWheel<Task> thisWheel;
+            wrapper.timeout = (thisWheel = wheel).schedule(wrapper, Math.floorMod(phase - thisWheel.getTick(), period));
+        } finally {
+            lock.unlock();
+        }
+
+        return wrapper::cancel;
+    }
+
+    /**
+     * Gets the amount of tasks of this loop pool.
+     *
+     * @return amount of tasks of this loop pool
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Processes the next tick running the tasks whose time has come.
+     */
+    @Override
+    public void run() {
+        final List<Timeout<Task>> thisExpired = expired;
+        final Lock thisLock = lock;
+        final TimingWheel<Task> thisWheel = wheel;
+
+        thisLock.lock();
+        try {
+            thisWheel.advance(expirationHandler);
+        } finally {
+            thisLock.unlock();
+        }
+
+        final int size;
+        if ((size = thisExpired.size()) == 0) return;
+
+        // tasks are run without holding the lock so that they may freely add and cancel other tasks
+        try {
+            for (int i = 0; i < size; i++) {
+                final Task task;
+                if (!(task = thisExpired.get(i).getValue()).cancelled) try {
+                    task.execute();
+                } catch (final Throwable e) {
+                    log.log(Level.SEVERE, "An exception occurred while running " + task.task, e);
+                }
+            }
+        } finally {
+            thisLock.lock();
+            try {
+                for (int i = 0; i < size; i++) {
+                    final Timeout<Task> timeout;
+                    final Task task;
+                    if (!(task = (timeout = thisExpired.get(i)).getValue()).cancelled) thisWheel.reschedule(
+                            timeout, task.nextPeriod() - 1
+                    );
+                }
+            } finally {
+                thisLock.unlock();
+            }
+            thisExpired.clear();
+        }
+    }
+
+    /**
+     * Cancels all tasks of this loop pool.
+     */
+    private void clear() {
+        lock.lock();
+        try {
+            wheel.clear(timeout -> timeout.getValue().cancelled = true);
+            phasesByPeriod.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Phases of the tasks having the same period.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Phases {
+
+        /**
+         * Amount of tasks having the period
+         */
+        int tasks;
+
+        /**
+         * Phase of the next added task
+         */
+        long next;
+    }
+
+    /**
+     * Task of the loop pool.
+     */
+    @FieldDefaults(level = AccessLevel.PROTECTED)
+    private class Task implements Runnable {
+
+        final @NonNull Runnable task;
+        final long period;
+        final @Nullable AdaptiveSchedulingPolicy policy;
+        final @Nullable Criticality criticality;
+        volatile boolean cancelled;
+
+        /**
+         * Whether this task has been passed to the synchronous executor but has not started yet
+         */
+        final @NonNull AtomicBoolean pending = new AtomicBoolean();
+        Timeout<Task> timeout;
+
+        private Task(final @NonNull Runnable task, final long period,
+                     final @Nullable AdaptiveSchedulingPolicy policy, final @Nullable Criticality criticality) {
+            this.task = task;
+            this.period = period;
+            this.policy = policy;
+            this.criticality = criticality;
+        }
+
+        /**
+         * Gets the period after which this task should be run next.
+         *
+         * @return period stretched by the policy if there is one or the normal period otherwise
+         */
+        private long nextPeriod() {
+            final AdaptiveSchedulingPolicy thisPolicy;
+            return (thisPolicy = policy) == null ? period : thisPolicy.period(period, criticality);
+        }
+
+        /**
+         * Executes this task.
+         */
+        protected void execute() {
+            final Executor executor;
+            if ((executor = syncExecutor) == null) task.run();
+            // the run which is still queued is not repeated so that a busy executor does not accumulate them
+            else if (pending.compareAndSet(false, true)) executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            pending.set(false);
+            task.run();
+        }
+
+        /**
+         * Cancels this task.
+         */
+        private void cancel() {
+            lock.lock();
+            try {
+                if (cancelled) return;
+
+                cancelled = true;
+                wheel.cancel(timeout);
+
+                final Phases phases = phasesByPeriod.get(period);
+                if (--phases.tasks == 0) phasesByPeriod.remove(period);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Task of the loop pool which is run asynchronously.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private final class AsyncTask extends Task {
+
+        /**
+         * Whether this task is currently running
+         */
+        @NonNull AtomicBoolean running = new AtomicBoolean();
+
+        private AsyncTask(final @NonNull Runnable task, final long period,
+                          final @Nullable AdaptiveSchedulingPolicy policy, final @Nullable Criticality criticality) {
+            super(task, period, policy, criticality);
+        }
+
+        @Override
+        protected void execute() {
+            if (running.compareAndSet(false, true)) asyncExecutor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+}
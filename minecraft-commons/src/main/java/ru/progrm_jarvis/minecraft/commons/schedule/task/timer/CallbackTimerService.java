@@ -0,0 +1,287 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.task.timer;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.experimental.Delegate;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.experimental.PackagePrivate;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.ShutdownHooks;
+import ru.progrm_jarvis.minecraft.commons.util.shutdown.Shutdownable;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Service running countdown timers as entries of a single structure advanced by one {@link #run() tick}
+ * instead of each timer being a separate scheduler task.</p>
+ * <p>Timers behave the same way as {@link AbstractCallbackTimer}: on each tick the counter is decremented
+ * and passed to {@link Callback#onTick(long)} with {@link Callback#onOver()} being called right before
+ * the tick on which the counter reaches {@code 0}.</p>
+ * <p>Timers may be started and cancelled from any thread, while the service itself should be run by a single one.
+ * Starting takes constant time, while cancelled timers get removed on the next tick.</p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class CallbackTimerService implements Runnable, Shutdownable {
+
+    /**
+     * Initial capacity of the array of timers
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * State of an active timer
+     */
+    private static final int ACTIVE = 0;
+
+    /**
+     * State of a timer whose counter has reached {@code 0}
+     */
+    private static final int OVER = 1;
+
+    /**
+     * State of a cancelled timer
+     */
+    private static final int ABORTED = 2;
+
+    /**
+     * Updater of {@link Timer#state}
+     */
+    private static final AtomicIntegerFieldUpdater<Timer> STATE_UPDATER
+            = AtomicIntegerFieldUpdater.newUpdater(Timer.class, "state");
+
+    /**
+     * Timers started since the last tick
+     */
+    @NonNull Queue<Timer> started = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Amount of active timers
+     */
+    @NonNull AtomicInteger activeTimers = new AtomicInteger();
+
+    @Delegate(types = Shutdownable.class) @NonNull ShutdownHooks shutdownHooks;
+
+    /**
+     * Timers being ticked, only accessed by the ticking thread
+     */
+    @NonFinal @Nullable Timer @NotNull [] timers = new Timer[INITIAL_CAPACITY];
+
+    /**
+     * Amount of used slots of {@link #timers}
+     */
+    @NonFinal int size;
+
+    /**
+     * Number of the current tick
+     */
+    @NonFinal long tick;
+
+    /**
+     * Creates a new timer service which should be {@link #run() run} once per tick.
+     */
+    public CallbackTimerService() {
+        shutdownHooks = ShutdownHooks.create(this).add(this::cancelAll);
+    }
+
+    /**
+     * Creates a new timer service run on each tick by the plugin's scheduler.
+     *
+     * @param plugin plugin owning the timer service
+     * @return created timer service
+     */
+    public static @NotNull CallbackTimerService create(final @NonNull Plugin plugin) {
+        final CallbackTimerService service = new CallbackTimerService();
+        service.shutdownHooks
+                .add(plugin.getServer().getScheduler().runTaskTimer(plugin, service, 1, 1)::cancel)
+                .registerBukkitShutdownHook(plugin);
+
+        return service;
+    }
+
+    /**
+     * Starts a new timer.
+     *
+     * @param callback callback of the timer
+     * @param counter amount of ticks for which the timer should run
+     * @return started timer
+     *
+     * @throws IllegalArgumentException if the counter is not positive
+     */
+    public @NotNull Timer start(final @NonNull Callback callback, final long counter) {
+        checkArgument(counter > 0, "counter should be positive");
+
+        final Timer timer = new Timer(callback, counter);
+        activeTimers.incrementAndGet();
+        started.add(timer);
+
+        return timer;
+    }
+
+    /**
+     * Gets the amount of active timers.
+     *
+     * @return amount of active timers
+     */
+    public int size() {
+        return activeTimers.get();
+    }
+
+    /**
+     * Advances all active timers by one tick.
+     */
+    @Override
+    public void run() {
+        final long currentTick = ++tick;
+
+        Timer timer;
+        while ((timer = started.poll()) != null) {
+            // the first tick of the timer is the current one
+            timer.expiry = currentTick - 1 + timer.expiry;
+            add(timer);
+        }
+
+        final Timer[] thisTimers = timers;
+        // iterating backwards so that the timers swapped into the removed ones' places have already been ticked
+        for (int i = size - 1; i >= 0; i--) {
+            if ((timer = thisTimers[i]) == null) continue; // removed by a callback along with the following ones
+
+            if (timer.state != ACTIVE) {
+                removeAt(i);
+                continue;
+            }
+
+            final long counter;
+            if ((counter = timer.expiry - currentTick) > 0) timer.callback.onTick(counter);
+            else if (STATE_UPDATER.compareAndSet(timer, ACTIVE, OVER)) {
+                activeTimers.decrementAndGet();
+                removeAt(i);
+                timer.callback.onOver();
+                timer.callback.onTick(0);
+            }
+        }
+    }
+
+    /**
+     * Cancels all active timers, this should be called by the thread {@link #run() running} this service.
+     */
+    public void cancelAll() {
+        Timer timer;
+        while ((timer = started.poll()) != null) timer.cancel();
+
+        final Timer[] thisTimers = timers;
+        final int thisSize = size;
+        size = 0;
+        for (int i = 0; i < thisSize; i++) {
+            timer = thisTimers[i];
+            thisTimers[i] = null;
+            if (timer != null) timer.cancel();
+        }
+    }
+
+    /**
+     * Adds the timer to the ticked ones.
+     *
+     * @param timer timer to add
+     */
+    private void add(final @NotNull Timer timer) {
+        Timer[] thisTimers;
+        if (size == (thisTimers = timers).length) timers = thisTimers = Arrays.copyOf(thisTimers, size << 1);
+
+        thisTimers[size++] = timer;
+    }
+
+    /**
+     * Removes the timer at the given index replacing it with the last one.
+     *
+     * @param index index of the timer to remove
+     */
+    private void removeAt(final int index) {
+        final Timer[] thisTimers = timers;
+        final int last;
+        thisTimers[index] = thisTimers[last = --size];
+        thisTimers[last] = null;
+    }
+
+    /**
+     * Callback of a timer, may be given as a lambda handling only its ticks.
+     */
+    @FunctionalInterface
+    public interface Callback {
+
+        /**
+         * Called on each tick of the timer.
+         *
+         * @param counter amount of ticks remaining, {@code 0} on the last tick
+         */
+        void onTick(long counter);
+
+        /**
+         * Called once the timer is cancelled before being over.
+         */
+        default void onAbort() {}
+
+        /**
+         * Called once the timer is over right before its last {@link #onTick(long) tick}.
+         */
+        default void onOver() {}
+    }
+
+    /**
+     * Timer run by this service.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public final class Timer {
+
+        /**
+         * Callback of this timer
+         */
+        final @NonNull Callback callback;
+
+        /**
+         * Tick on which this timer is over or its initial counter if it has not been ticked yet
+         */
+        long expiry;
+
+        /**
+         * State of this timer updated via {@link #STATE_UPDATER} which requires it to be accessible
+         */
+        @PackagePrivate volatile int state = ACTIVE;
+
+        private Timer(final @NonNull Callback callback, final long counter) {
+            this.callback = callback;
+            expiry = counter;
+        }
+
+        /**
+         * Cancels this timer calling its {@link Callback#onAbort()} if it is active.
+         *
+         * @return {@code true} if this timer was active and {@code false} otherwise
+         */
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ACTIVE, ABORTED)) return false;
+
+            activeTimers.decrementAndGet();
+            callback.onAbort();
+
+            return true;
+        }
+
+        /**
+         * Checks whether this timer is active.
+         *
+         * @return {@code true} if this timer is neither over nor cancelled and {@code false} otherwise
+         */
+        public boolean isActive() {
+            return state == ACTIVE;
+        }
+    }
+}
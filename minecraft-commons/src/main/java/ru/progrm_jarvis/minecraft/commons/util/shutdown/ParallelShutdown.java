@@ -0,0 +1,247 @@
+package ru.progrm_jarvis.minecraft.commons.util.shutdown;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>Policy of shutting down independent {@link Shutdownable}s in parallel on a bounded amount of threads.</p>
+ * <p>Each shutdownable is given its own time budget counted from the moment it starts shutting down.
+ * Shutdownables exceeding it are reported and no longer awaited, their threads being interrupted.
+ * Exceptions thrown by the shutdownables do not prevent the others from being shut down and are reported as well.
+ * If all threads get occupied by such shutdownables, the remaining ones are shut down by the calling thread
+ * so that none of them gets skipped.</p>
+ * <p>As shutdownables are shut down concurrently and in no particular order
+ * they should neither depend on each other nor require to be shut down by a specific thread.</p>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class ParallelShutdown {
+
+    /**
+     * Maximal amount of threads used for a single shutdown
+     */
+    int threads;
+
+    /**
+     * Amount of nanoseconds which may be used by a single shutdownable
+     */
+    long timeoutNanos;
+
+    private ParallelShutdown(final int threads, final long timeoutNanos) {
+        this.threads = threads;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Creates a new parallel shutdown policy.
+     *
+     * @param threads maximal amount of threads used for a single shutdown
+     * @param timeout time which may be used by a single shutdownable
+     * @param unit unit of the timeout
+     * @return created policy
+     *
+     * @throws IllegalArgumentException if the amount of threads or the timeout is not positive
+     */
+    public static @NotNull ParallelShutdown of(final int threads, final long timeout, final @NonNull TimeUnit unit) {
+        checkArgument(threads > 0, "threads should be positive");
+        checkArgument(timeout > 0, "timeout should be positive");
+
+        return new ParallelShutdown(threads, unit.toNanos(timeout));
+    }
+
+    /**
+     * Shuts the given shutdownables down in parallel.
+     *
+     * @param shutdownables shutdownables to shut down
+     * @return report of the shutdown
+     */
+    public @NotNull Report shutdown(final @NonNull Collection<? extends Shutdownable> shutdownables) {
+        final List<Overrun> overruns = new ArrayList<>();
+        final List<Failure> failures = new ArrayList<>();
+        final int size;
+        if ((size = shutdownables.size()) == 0) return new Report(overruns, failures);
+
+        final int thisThreads = Math.min(threads, size);
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ExecutorService executor = new ThreadPoolExecutor(
+                thisThreads, thisThreads, 0, TimeUnit.NANOSECONDS, new LinkedBlockingQueue<>(), task -> {
+            final Thread thread = new Thread(task, "ParallelShutdown-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        final Semaphore completions = new Semaphore(0);
+        final AtomicInteger running = new AtomicInteger();
+        final List<Hook> pending = new ArrayList<>(size);
+        try {
+            for (final Shutdownable shutdownable : shutdownables) {
+                final Hook hook = new Hook(shutdownable, completions, running);
+                pending.add(hook);
+                hook.future = executor.submit(hook);
+            }
+
+            final long thisTimeoutNanos = timeoutNanos;
+            while (!pending.isEmpty()) {
+                final long now = System.nanoTime();
+                long waitNanos = thisTimeoutNanos;
+                boolean started = false;
+                for (final Iterator<Hook> iterator = pending.iterator(); iterator.hasNext(); ) {
+                    final Hook hook = iterator.next();
+                    final long start, elapsed;
+                    if (hook.completed) {
+                        iterator.remove();
+                        if ((elapsed = hook.endNanos - hook.startNanos) > thisTimeoutNanos) overruns.add(
+                                new Overrun(hook.shutdownable, elapsed, true)
+                        );
+                        final Throwable failure;
+                        if ((failure = hook.failure) != null) failures.add(new Failure(hook.shutdownable, failure));
+                    } else if (hook.claimed.get()) {
+                        started = true;
+                        // the start time may not have been written yet by the claiming thread
+                        if ((start = hook.startNanos) != 0 && (elapsed = now - start) > thisTimeoutNanos) {
+                            iterator.remove();
+                            hook.future.cancel(true);
+                            overruns.add(new Overrun(hook.shutdownable, elapsed, false));
+                        } else if (start != 0) waitNanos = Math.min(waitNanos, thisTimeoutNanos - (now - start));
+                    }
+                }
+
+                // all threads are occupied by the abandoned shutdownables so the caller shuts the rest down
+                if (!started && !pending.isEmpty() && running.get() >= thisThreads) {
+                    for (final Hook hook : pending) hook.run();
+                    continue;
+                }
+
+                completions.tryAcquire(Math.max(waitNanos, 1), TimeUnit.NANOSECONDS);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new Report(overruns, failures);
+    }
+
+    /**
+     * Report of a parallel shutdown.
+     */
+    @Value
+    public static class Report {
+
+        /**
+         * Shutdownables which have exceeded their time budget
+         */
+        @NonNull List<Overrun> overruns;
+
+        /**
+         * Shutdownables which have thrown exceptions
+         */
+        @NonNull List<Failure> failures;
+    }
+
+    /**
+     * Shutdownable which has exceeded its time budget.
+     */
+    @Value
+    public static class Overrun {
+
+        /**
+         * Shutdownable which has exceeded its time budget
+         */
+        @NonNull Shutdownable shutdownable;
+
+        /**
+         * Amount of nanoseconds it took to shut the shutdownable down
+         * or which had passed when it stopped being awaited
+         */
+        long elapsedNanos;
+
+        /**
+         * Whether the shutdownable has completed shutting down
+         */
+        boolean completed;
+    }
+
+    /**
+     * Shutdownable which has thrown an exception.
+     */
+    @Value
+    public static class Failure {
+
+        /**
+         * Shutdownable which has thrown an exception
+         */
+        @NonNull Shutdownable shutdownable;
+
+        /**
+         * Exception thrown by the shutdownable
+         */
+        @NonNull Throwable cause;
+    }
+
+    /**
+     * Single shutdownable being shut down.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Hook implements Runnable {
+
+        @NonNull Shutdownable shutdownable;
+        @NonNull Semaphore completions;
+        @NonNull AtomicInteger running;
+
+        /**
+         * Whether this hook has been claimed by a thread which shuts it down
+         */
+        @NonNull AtomicBoolean claimed = new AtomicBoolean();
+
+        @NonFinal Future<?> future;
+        @NonFinal volatile long startNanos, endNanos;
+        @NonFinal volatile boolean completed;
+        @NonFinal volatile Throwable failure;
+
+        private Hook(final @NonNull Shutdownable shutdownable, final @NonNull Semaphore completions,
+                     final @NonNull AtomicInteger running) {
+            this.shutdownable = shutdownable;
+            this.completions = completions;
+            this.running = running;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) return;
+
+            startNanos = System.nanoTime();
+            running.incrementAndGet();
+            try {
+                shutdownable.shutdown();
+            } catch (final Throwable e) {
+                failure = e;
+            } finally {
+                endNanos = System.nanoTime();
+                completed = true;
+                running.decrementAndGet();
+                completions.release();
+            }
+        }
+    }
+}
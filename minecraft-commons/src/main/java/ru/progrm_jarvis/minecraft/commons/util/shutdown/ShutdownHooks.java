@@ -211,9 +211,12 @@ public interface ShutdownHooks extends Shutdownable {
 
         @Override
         public void shutdown() {
-            if (shutDown) return;
+            // shutdown may happen concurrently if parallel plugin shutdown is enabled
+            synchronized (this) {
+                if (shutDown) return;
 
-            shutDown = true;
+                shutDown = true;
+            }
 
             if (bukkitPlugin != null) {
                 BukkitPluginShutdownUtil.removeShutdownHook(bukkitPlugin, this);
@@ -0,0 +1,47 @@
+package ru.progrm_jarvis.minecraft.commons.async;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRunnersTest {
+
+    @Test
+    void testDefaultFutures() {
+        val operations = new ArrayList<Runnable>();
+        final AsyncRunner runner = operations::add;
+
+        val future = runner.supplyAsynchronously(() -> 42);
+        assertFalse(future.isDone());
+        operations.get(0).run();
+        assertEquals(42, future.join());
+
+        val failed = runner.supplyAsynchronously(() -> {
+            throw new IllegalStateException();
+        });
+        operations.get(1).run();
+        assertTrue(failed.isCompletedExceptionally());
+
+        // cancelled operations are not performed
+        val performed = new AtomicBoolean();
+        val cancelled = runner.submitAsynchronously(() -> performed.set(true));
+        cancelled.cancel(false);
+        operations.get(2).run();
+        assertFalse(performed.get());
+    }
+
+    @Test
+    void testVirtualThreads() throws InterruptedException, ExecutionException {
+        try (final ExecutorServiceAsyncRunner runner = AsyncRunners.virtualThreads()) {
+            assertNotSame(Thread.currentThread(), runner.supplyAsynchronously(Thread::currentThread).get());
+            assertEquals("done", runner.submitAsynchronously(() -> {})
+                    .thenApplyAsync(ignored -> "done", runner.asExecutor())
+                    .get());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.progrm_jarvis.minecraft.commons.math;
+
+import lombok.val;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FastTrigonometryTest {
+
+    private static final double EPSILON = 1E-3;
+
+    @Test
+    void testTables() {
+        for (double degrees = -720; degrees <= 720; degrees += 0.37) {
+            assertEquals(Math.sin(Math.toRadians(degrees)), FastTrigonometry.sin(degrees), EPSILON);
+            assertEquals(Math.cos(Math.toRadians(degrees)), FastTrigonometry.cos(degrees), EPSILON);
+        }
+
+        assertEquals(0, FastTrigonometry.step(360));
+        assertEquals(FastTrigonometry.STEPS / 4, FastTrigonometry.step(-270));
+    }
+
+    @Test
+    void testRotationMatrix() {
+        val matrix = new RotationMatrix();
+        assertEquals(new Vector(1, 2, 3), matrix.transform(new Vector(1, 2, 3)));
+
+        val rotated = matrix.set(0, 0, 90).transform(new Vector(1, 0, 0));
+        assertEquals(0, rotated.getX(), EPSILON);
+        assertEquals(1, rotated.getY(), EPSILON);
+        assertEquals(0, rotated.getZ(), EPSILON);
+
+        matrix.set(90, 0, 0).transform(rotated);
+        assertEquals(0, rotated.getX(), EPSILON);
+        assertEquals(0, rotated.getY(), EPSILON);
+        assertEquals(1, rotated.getZ(), EPSILON);
+    }
+
+    @Test
+    void testRotationMatrixAngles() {
+        val matrix = new RotationMatrix();
+        val angles = matrix.set(30, -45, 60).toAngles(new Vector());
+        assertEquals(30, angles.getX(), 0.1);
+        assertEquals(-45, angles.getY(), 0.1);
+        assertEquals(60, angles.getZ(), 0.1);
+
+        // in gimbal lock the whole rotation around x and z axes is expressed by the one around x-axis
+        matrix.set(20, 90, 0).toAngles(angles);
+        assertEquals(20, angles.getX(), 0.1);
+        assertEquals(90, angles.getY(), 0.1);
+        assertEquals(0, angles.getZ(), 0.1);
+    }
+
+    @Test
+    void testRotationMatrixComposition() {
+        val first = new RotationMatrix().set(30, 0, 0);
+        val second = new RotationMatrix().set(0, 45, 10);
+        val composed = new RotationMatrix().multiply(second, first);
+
+        val expected = second.transform(first.transform(new Vector(1, 2, 3)));
+        val actual = composed.transform(new Vector(1, 2, 3));
+        assertEquals(expected.getX(), actual.getX(), EPSILON);
+        assertEquals(expected.getY(), actual.getY(), EPSILON);
+        assertEquals(expected.getZ(), actual.getZ(), EPSILON);
+
+        // the composed rotation is the one whose angles produce the same matrix
+        val angles = composed.toAngles(new Vector());
+        val recomposed = new RotationMatrix().set(angles.getX(), angles.getY(), angles.getZ())
+                .transform(new Vector(1, 2, 3));
+        assertEquals(actual.getX(), recomposed.getX(), 0.01);
+        assertEquals(actual.getY(), recomposed.getY(), 0.01);
+        assertEquals(actual.getZ(), recomposed.getZ(), 0.01);
+
+        // composing the matrix with itself is allowed
+        composed.multiply(composed, composed);
+        val twice = composed.transform(new Vector(1, 2, 3));
+        val expectedTwice = second.transform(first.transform(actual.clone()));
+        assertEquals(expectedTwice.getX(), twice.getX(), EPSILON);
+        assertEquals(expectedTwice.getY(), twice.getY(), EPSILON);
+        assertEquals(expectedTwice.getZ(), twice.getZ(), EPSILON);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.affine;
+
+import lombok.val;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BukkitAffineSchedulerTest {
+
+    private Server server;
+    private BukkitScheduler scheduler;
+    private BukkitTask bukkitTask;
+    private AffineScheduler affineScheduler;
+
+    @BeforeEach
+    void setUp() {
+        val plugin = mock(Plugin.class);
+        server = mock(Server.class);
+        scheduler = mock(BukkitScheduler.class);
+        bukkitTask = mock(BukkitTask.class);
+        when(plugin.getServer()).thenReturn(server);
+        when(server.getScheduler()).thenReturn(scheduler);
+        when(scheduler.runTaskLater(any(Plugin.class), any(Runnable.class), anyLong())).thenReturn(bukkitTask);
+        when(scheduler.runTaskTimer(any(Plugin.class), any(Runnable.class), anyLong(), anyLong()))
+                .thenReturn(bukkitTask);
+
+        affineScheduler = new BukkitAffineScheduler(plugin);
+    }
+
+    private Runnable scheduledTimer() {
+        val captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).runTaskTimer(any(Plugin.class), captor.capture(), anyLong(), anyLong());
+
+        return captor.getValue();
+    }
+
+    @Test
+    void testLanesAreMainThread() {
+        final Runnable task = () -> {};
+        affineScheduler.runAt(mock(Location.class), task, 2);
+        verify(scheduler).runTaskLater(any(Plugin.class), same(task), eq(2L));
+
+        when(server.isPrimaryThread()).thenReturn(true);
+        assertTrue(affineScheduler.isGlobalThread());
+        assertTrue(affineScheduler.isOwnedByCurrentThread(mock(Location.class)));
+        assertTrue(affineScheduler.isOwnedByCurrentThread(mock(Entity.class)));
+
+        // tasks submitted from the owning thread are run immediately
+        val runs = new AtomicInteger();
+        affineScheduler.executorAt(mock(Location.class)).execute(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        verifyNoMoreInteractions(scheduler);
+    }
+
+    @Test
+    void testEntityTaskIsRetired() {
+        val entity = mock(Entity.class);
+        when(entity.isValid()).thenReturn(true);
+        val runs = new AtomicInteger();
+        val retirements = new AtomicInteger();
+
+        affineScheduler.runForTimer(entity, runs::incrementAndGet, retirements::incrementAndGet, 1, 1);
+        val timer = scheduledTimer();
+        timer.run();
+        timer.run();
+        assertEquals(2, runs.get());
+        assertEquals(0, retirements.get());
+
+        when(entity.isValid()).thenReturn(false);
+        timer.run();
+        assertEquals(2, runs.get());
+        assertEquals(1, retirements.get());
+        verify(bukkitTask).cancel();
+    }
+
+    @Test
+    void testDeadEntityTaskIsRetired() {
+        val entity = mock(Entity.class);
+        when(entity.isValid()).thenReturn(true);
+        val runs = new AtomicInteger();
+        val retirements = new AtomicInteger();
+
+        affineScheduler.runForTimer(entity, runs::incrementAndGet, retirements::incrementAndGet, 1, 1);
+        val timer = scheduledTimer();
+        when(entity.isDead()).thenReturn(true);
+        timer.run();
+        assertEquals(0, runs.get());
+        assertEquals(1, retirements.get());
+    }
+
+    @Test
+    void testDeadPlayerTaskIsNotRetired() {
+        val player = mock(Player.class);
+        when(player.isOnline()).thenReturn(true);
+        // dead players are not valid until they respawn
+        when(player.isDead()).thenReturn(true);
+        when(player.isValid()).thenReturn(false);
+        val runs = new AtomicInteger();
+        val retirements = new AtomicInteger();
+
+        affineScheduler.runForTimer(player, runs::incrementAndGet, retirements::incrementAndGet, 1, 1);
+        val timer = scheduledTimer();
+        timer.run();
+        assertEquals(1, runs.get());
+        assertEquals(0, retirements.get());
+        verify(bukkitTask, never()).cancel();
+
+        when(player.isOnline()).thenReturn(false);
+        timer.run();
+        assertEquals(1, runs.get());
+        assertEquals(1, retirements.get());
+        verify(bukkitTask).cancel();
+    }
+
+    @Test
+    void testEntityTaskRunBeforeBeingScheduled() {
+        val entity = mock(Entity.class);
+        when(entity.isValid()).thenReturn(false);
+        // the task is run by the scheduler before it returns the Bukkit task
+        when(scheduler.runTaskLater(any(Plugin.class), any(Runnable.class), anyLong())).then(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+
+            return bukkitTask;
+        });
+        val runs = new AtomicInteger();
+        val retirements = new AtomicInteger();
+
+        val task = affineScheduler.runFor(entity, runs::incrementAndGet, retirements::incrementAndGet, 0);
+        assertEquals(0, runs.get());
+        assertEquals(1, retirements.get());
+        assertTrue(task.isCancelled());
+        verify(bukkitTask).cancel();
+    }
+}
@@ -0,0 +1,137 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.chain;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerChainExecutorTest {
+
+    private static List<String> tick(final SchedulerChainExecutor executor, final List<String> log) {
+        log.clear();
+        executor.run();
+
+        return new ArrayList<>(log);
+    }
+
+    @Test
+    void testStepsArePerformedInOrder() {
+        val executor = new SchedulerChainExecutor();
+        val log = new ArrayList<String>();
+        val chain = SchedulerChainExecutor.compiled(executor.builder()
+                .then(() -> log.add("a"))
+                .then(() -> log.add("b"), 2)
+                .thenRepeat(() -> log.add("c"), 2)
+                .delay(1)
+                .then(() -> log.add("d"))
+                .build()
+        );
+        assertNotNull(chain);
+
+        chain.run();
+        assertThrows(IllegalStateException.class, chain::run);
+        assertEquals(1, executor.activeChains());
+
+        assertEquals(Collections.singletonList("a"), tick(executor, log));
+        assertEquals(Collections.emptyList(), tick(executor, log));
+        assertEquals(Arrays.asList("b", "c", "c"), tick(executor, log));
+        assertEquals(Collections.singletonList("d"), tick(executor, log));
+        assertFalse(chain.isRunning());
+        assertEquals(0, executor.activeChains());
+
+        // finished chains can be run again
+        chain.run();
+        assertEquals(Collections.singletonList("a"), tick(executor, log));
+    }
+
+    @Test
+    void testPauseResumeAndCancellation() {
+        val executor = new SchedulerChainExecutor();
+        val log = new ArrayList<String>();
+        val chain = SchedulerChainExecutor.compiled(executor.builder()
+                .then(() -> log.add("a"), 1)
+                .then(() -> log.add("b"), 1)
+                .build()
+        );
+        assertNotNull(chain);
+
+        chain.run();
+        chain.pause();
+        assertEquals(Collections.emptyList(), tick(executor, log));
+        chain.resume();
+        assertEquals(Collections.singletonList("a"), tick(executor, log));
+
+        chain.restart();
+        assertEquals(Collections.singletonList("a"), tick(executor, log));
+
+        executor.pauseAll();
+        assertEquals(Collections.emptyList(), tick(executor, log));
+        executor.resumeAll();
+
+        executor.cancelAll();
+        assertFalse(chain.isRunning());
+        assertEquals(Collections.emptyList(), tick(executor, log));
+
+        assertSame(SchedulerChain.EmptyStub.INSTANCE, executor.builder().build());
+    }
+
+    @Test
+    void testStepsChangingActiveChains() {
+        val executor = new SchedulerChainExecutor();
+        val log = new ArrayList<String>();
+        val fillers = new ArrayList<SchedulerChainExecutor.CompiledChain>();
+        for (int i = 0; i < 20; i++) fillers.add(SchedulerChainExecutor.compiled(executor.builder()
+                .then(() -> {}, 1)
+                .build()
+        ));
+        val victim = SchedulerChainExecutor.compiled(executor.builder()
+                .then(() -> log.add("victim"))
+                .build()
+        );
+        val grower = SchedulerChainExecutor.compiled(executor.builder()
+                .then(() -> {
+                    // growing the array of active chains before interrupting the chain which follows this one
+                    for (val filler : fillers) filler.run();
+                    victim.interrupt();
+                })
+                .build()
+        );
+        assertNotNull(victim);
+        assertNotNull(grower);
+
+        grower.run();
+        victim.run();
+        assertEquals(Collections.emptyList(), tick(executor, log));
+        assertFalse(victim.isRunning());
+        assertEquals(20, executor.activeChains());
+
+        executor.cancelAll();
+        val started = SchedulerChainExecutor.compiled(executor.builder()
+                .then(() -> log.add("started"))
+                .build()
+        );
+        val canceller = SchedulerChainExecutor.compiled(executor.builder()
+                .then(() -> {
+                    // chains started after the cancellation take the slots which are yet to be advanced
+                    executor.cancelAll();
+                    fillers.get(0).run();
+                    started.run();
+                })
+                .build()
+        );
+        assertNotNull(started);
+        assertNotNull(canceller);
+
+        canceller.run();
+        victim.run();
+        assertEquals(Collections.emptyList(), tick(executor, log));
+        assertFalse(victim.isRunning());
+        assertEquals(2, executor.activeChains());
+        assertEquals(Collections.singletonList("started"), tick(executor, log));
+    }
+}
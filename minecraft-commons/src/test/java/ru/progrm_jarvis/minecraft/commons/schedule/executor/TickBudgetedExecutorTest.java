@@ -0,0 +1,90 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.executor;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import ru.progrm_jarvis.minecraft.commons.schedule.executor.TickBudgetedExecutor.Priority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickBudgetedExecutorTest {
+
+    @Test
+    void testBudgetIsRespected() {
+        val time = new AtomicLong();
+        val executor = new TickBudgetedExecutor(10, time::get);
+        val executed = new ArrayList<String>();
+        // each task takes 4 nanoseconds
+        executor.execute(() -> {
+            executed.add("normal1");
+            time.addAndGet(4);
+        });
+        executor.execute(() -> {
+            executed.add("low");
+            time.addAndGet(4);
+        }, Priority.LOW);
+        executor.withPriority(Priority.HIGH).execute(() -> {
+            executed.add("high");
+            time.addAndGet(4);
+        });
+        executor.execute(() -> {
+            executed.add("normal2");
+            time.addAndGet(4);
+        });
+
+        executor.run();
+        assertEquals(Arrays.asList("high", "normal1", "normal2"), executed);
+        val statistics = executor.getStatistics();
+        assertEquals(12, statistics.getLastTickUsedNanos());
+        assertEquals(3, statistics.getLastTickExecuted());
+        assertEquals(1, statistics.getQueued());
+        assertEquals(1, statistics.getOverBudgetTicks());
+
+        // the remaining task is carried over to the next tick
+        executor.run();
+        assertEquals(Arrays.asList("high", "normal1", "normal2", "low"), executed);
+        assertEquals(0, executor.getStatistics().getQueued());
+        assertEquals(4, executor.getStatistics().getExecuted());
+
+        executor.run();
+        assertEquals(0, executor.getStatistics().getLastTickExecuted());
+    }
+
+    @Test
+    void testLongTaskDoesNotStall() {
+        val time = new AtomicLong();
+        val executor = new TickBudgetedExecutor(10, time::get);
+        val executed = new AtomicLong();
+        for (int i = 0; i < 3; i++) executor.execute(() -> time.addAndGet(executed.incrementAndGet() * 100));
+
+        for (int tick = 1; tick <= 3; tick++) {
+            executor.run();
+            assertEquals(tick, executed.get());
+        }
+
+        executor.execute(executed::incrementAndGet);
+        executor.shutdown();
+        assertEquals(0, executor.getStatistics().getQueued());
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopDraining() {
+        val executor = new TickBudgetedExecutor(10, () -> 0);
+        val executed = new ArrayList<String>();
+        executor.execute(() -> executed.add("first"));
+        executor.execute(() -> {
+            throw new IllegalStateException("Failing task");
+        });
+        executor.execute(() -> executed.add("second"));
+        executor.execute(() -> executed.add("low"), Priority.LOW);
+
+        assertDoesNotThrow(executor::run);
+        assertEquals(Arrays.asList("first", "second", "low"), executed);
+        val statistics = executor.getStatistics();
+        assertEquals(4, statistics.getLastTickExecuted());
+        assertEquals(0, statistics.getQueued());
+    }
+}
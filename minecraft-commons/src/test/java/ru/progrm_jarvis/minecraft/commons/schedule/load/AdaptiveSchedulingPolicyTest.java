@@ -0,0 +1,114 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.load;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveSchedulingPolicyTest {
+
+    private TickLoadMonitor monitor;
+    private AdaptiveSchedulingPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new TickLoadMonitor(TickLoadMonitor.Source.TICK_TIME, () -> 0, 4);
+        policy = new AdaptiveSchedulingPolicy(monitor, 100, 200);
+    }
+
+    private void load(final long tickNanos) {
+        for (int i = 0; i < 4; i++) monitor.record(tickNanos);
+    }
+
+    @Test
+    void testInvalidThresholds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveSchedulingPolicy(monitor, 0, 200));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveSchedulingPolicy(monitor, 200, 200));
+        assertThrows(IllegalArgumentException.class, () -> new TickLoadMonitor(
+                TickLoadMonitor.Source.TICK_TIME, () -> 0, 0
+        ));
+    }
+
+    @Test
+    void testAverageOverWindow() {
+        assertEquals(0, monitor.getAverageTickNanos());
+
+        monitor.record(100);
+        monitor.record(200);
+        assertEquals(150, monitor.getAverageTickNanos());
+
+        load(40);
+        assertEquals(40, monitor.getAverageTickNanos());
+
+        monitor.record(80);
+        assertEquals(50, monitor.getAverageTickNanos());
+    }
+
+    @Test
+    void testFailingSamplerFallsBackToTickIntervals() {
+        val samples = new AtomicInteger();
+        val failingMonitor = new TickLoadMonitor(TickLoadMonitor.Source.TICK_TIME, () -> {
+            samples.incrementAndGet();
+            throw new IllegalStateException("Expected exception");
+        }, 1);
+
+        for (int i = 0; i < 3; i++) failingMonitor.run();
+        assertEquals(1, samples.get());
+        assertEquals(TickLoadMonitor.Source.TICK_INTERVAL, failingMonitor.getSource());
+        assertTrue(failingMonitor.getAverageTickNanos() > 0);
+    }
+
+    @Test
+    void testStretch() {
+        load(50);
+        for (val criticality : Criticality.values()) assertEquals(1, policy.stretch(criticality));
+
+        load(110);
+        assertEquals(1, policy.stretch(Criticality.CRITICAL));
+        assertEquals(2, policy.stretch(Criticality.NORMAL));
+        assertEquals(2, policy.stretch(Criticality.COSMETIC));
+
+        load(150);
+        assertEquals(1, policy.stretch(Criticality.CRITICAL));
+        assertEquals(2, policy.stretch(Criticality.NORMAL));
+        assertEquals(3, policy.stretch(Criticality.COSMETIC));
+
+        load(1000);
+        for (val criticality : Criticality.values()) assertEquals(
+                criticality.getMaxStretch(), policy.stretch(criticality)
+        );
+    }
+
+    @Test
+    void testPeriodAndBatchSize() {
+        load(1000);
+        assertEquals(10, policy.period(10, Criticality.CRITICAL));
+        assertEquals(40, policy.period(10, Criticality.COSMETIC));
+        assertEquals(16, policy.batchSize(16, Criticality.CRITICAL));
+        assertEquals(4, policy.batchSize(16, Criticality.COSMETIC));
+        assertEquals(1, policy.batchSize(2, Criticality.COSMETIC));
+    }
+
+    @Test
+    void testThrottle() {
+        val runs = new AtomicInteger();
+        val task = policy.throttle(runs::incrementAndGet, Criticality.COSMETIC);
+
+        load(50);
+        for (int i = 0; i < 8; i++) task.run();
+        assertEquals(8, runs.get());
+
+        load(1000);
+        runs.set(0);
+        for (int i = 0; i < 8; i++) task.run();
+        assertEquals(2, runs.get());
+
+        val critical = policy.throttle(runs::incrementAndGet, Criticality.CRITICAL);
+        runs.set(0);
+        for (int i = 0; i < 8; i++) critical.run();
+        assertEquals(8, runs.get());
+    }
+}
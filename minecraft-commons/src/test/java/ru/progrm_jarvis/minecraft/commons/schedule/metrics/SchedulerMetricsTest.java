@@ -0,0 +1,111 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.metrics;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerMetricsTest {
+
+    @AfterEach
+    void disableMetrics() {
+        SchedulerMetrics.disable();
+    }
+
+    @Test
+    void testNothingIsRecordedWhileDisabled() {
+        val metrics = SchedulerMetrics.task("SchedulerMetricsTest", "disabled");
+        val runs = new AtomicInteger();
+
+        assertFalse(SchedulerMetrics.isEnabled());
+        assertEquals(TaskMetrics.NOT_SAMPLED, metrics.start());
+        metrics.instrument(runs::incrementAndGet).run();
+
+        assertEquals(1, runs.get());
+        assertEquals(0, metrics.snapshot().getSamples());
+    }
+
+    @Test
+    void testRunsAreSampled() {
+        val sink = new RecordingSink();
+        SchedulerMetrics.enable(sink, 4);
+        val metrics = SchedulerMetrics.task("SchedulerMetricsTest", "sampled");
+        assertSame(metrics, SchedulerMetrics.task("SchedulerMetricsTest", "sampled"));
+
+        val runs = new AtomicInteger();
+        for (int i = 0; i < 16; i++) metrics.run(runs::incrementAndGet);
+        assertEquals(16, runs.get());
+        assertEquals(4, metrics.snapshot().getSamples());
+
+        SchedulerMetrics.publish();
+        assertEquals(4, sink.tasks.get(MetricKey.of("SchedulerMetricsTest", "sampled")).getSamples());
+    }
+
+    @Test
+    void testHistogram() {
+        val metrics = SchedulerMetrics.task("SchedulerMetricsTest", "histogram", 1000);
+        for (int i = 0; i < 98; i++) metrics.record(100);
+        metrics.record(1500);
+        metrics.record(3000);
+
+        val snapshot = metrics.snapshot();
+        assertEquals(100, snapshot.getSamples());
+        assertEquals(98, snapshot.getBuckets()[TaskMetrics.bucketOf(100)]);
+        assertEquals(2, snapshot.getOverruns());
+        assertEquals(3000, snapshot.getMaxNanos());
+        assertEquals(143, snapshot.meanNanos());
+        // 100 belongs to [64; 128)
+        assertEquals(127, snapshot.percentileNanos(50));
+        assertEquals(2047, snapshot.percentileNanos(99));
+        assertEquals(3000, snapshot.percentileNanos(100));
+    }
+
+    @Test
+    void testGaugesAreSummed() {
+        val sink = new RecordingSink();
+        SchedulerMetrics.enable(sink, 1);
+        val key = MetricKey.of("SchedulerMetricsTest", "queue");
+
+        val firstRemover = SchedulerMetrics.gauge(key.getOwner(), key.getName(), () -> 2);
+        val secondRemover = SchedulerMetrics.gauge(key.getOwner(), key.getName(), () -> 3);
+        SchedulerMetrics.publish();
+        assertEquals(5L, sink.gauges.get(key));
+
+        firstRemover.run();
+        SchedulerMetrics.publish();
+        assertEquals(3L, sink.gauges.get(key));
+
+        secondRemover.run();
+        sink.gauges.clear();
+        SchedulerMetrics.publish();
+        assertFalse(sink.gauges.containsKey(key));
+    }
+
+    @Test
+    void testInvalidSampleInterval() {
+        assertThrows(IllegalArgumentException.class, () -> SchedulerMetrics.enable(snapshot -> {}, 3));
+        assertThrows(IllegalArgumentException.class, () -> SchedulerMetrics.enable(snapshot -> {}, 0));
+    }
+
+    private static final class RecordingSink implements MetricsSink {
+
+        private final Map<MetricKey, TaskMetrics.Snapshot> tasks = new HashMap<>();
+        private final Map<MetricKey, Long> gauges = new HashMap<>();
+
+        @Override
+        public void task(final @NotNull TaskMetrics.Snapshot snapshot) {
+            tasks.put(snapshot.getKey(), snapshot);
+        }
+
+        @Override
+        public void gauge(final @NotNull MetricKey key, final long value) {
+            gauges.put(key, value);
+        }
+    }
+}
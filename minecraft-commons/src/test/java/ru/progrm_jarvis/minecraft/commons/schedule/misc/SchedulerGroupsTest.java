@@ -0,0 +1,78 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.misc;
+
+import lombok.val;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchedulerGroupsTest {
+
+    @Test
+    void testConcurrentKeyedSchedulerGroup() {
+        val plugin = mock(Plugin.class, RETURNS_DEEP_STUBS);
+        when(plugin.getName()).thenReturn("SchedulerGroupsTest");
+        final KeyedSchedulerGroup<Runnable, String> group = SchedulerGroups.concurrentKeyedSchedulerGroup(
+                plugin, false, 1, 1
+        );
+        val runs = new AtomicInteger();
+        final Runnable first = runs::incrementAndGet, second = runs::incrementAndGet, third = runs::incrementAndGet;
+
+        group.addTask("a", first);
+        group.addTask("a", first);
+        group.addTask("b", second);
+        group.addTask(third);
+        assertEquals(4, group.size());
+
+        group.run();
+        assertEquals(4, runs.get());
+
+        assertEquals(2, group.removeTasks(first));
+        assertEquals(2, group.size());
+        assertEquals(new HashSet<>(Arrays.asList(second, third)), new HashSet<>(group.tasks()));
+
+        assertSame(third, group.removeTask(task -> task == third));
+        assertEquals(1, group.size());
+
+        group.addTask(null, third);
+        assertEquals(Arrays.asList(third), group.removeTasks((String) null));
+        assertEquals(Arrays.asList(second), group.clearTasks());
+        assertEquals(0, group.size());
+    }
+
+    @Test
+    void testExecutorRunsAreCoalesced() {
+        val plugin = mock(Plugin.class, RETURNS_DEEP_STUBS);
+        when(plugin.getName()).thenReturn("SchedulerGroupsTest");
+        val queue = new ArrayDeque<Runnable>();
+        for (val group : Arrays.<KeyedSchedulerGroup<Runnable, String>>asList(
+                SchedulerGroups.keyedSchedulerGroup(plugin, 1, 1, queue::add),
+                SchedulerGroups.concurrentKeyedSchedulerGroup(plugin, 1, 1, queue::add)
+        )) {
+            val runs = new AtomicInteger();
+            group.addTask("a", runs::incrementAndGet);
+            group.addTask("b", runs::incrementAndGet);
+
+            // the executor does not run anything so the first run stays queued
+            for (int i = 0; i < 10; i++) group.run();
+            assertEquals(1, queue.size());
+
+            Runnable task;
+            while ((task = queue.poll()) != null) task.run();
+            assertEquals(2, runs.get());
+
+            // the completed run allows the next one
+            group.run();
+            assertEquals(1, queue.size());
+            queue.clear();
+        }
+    }
+}
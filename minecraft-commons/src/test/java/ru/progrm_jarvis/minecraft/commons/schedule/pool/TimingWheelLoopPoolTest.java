@@ -0,0 +1,122 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.pool;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelLoopPoolTest {
+
+    @Test
+    void testTasksWithEqualPeriodsAreSpread() {
+        val pool = new TimingWheelLoopPool(Runnable::run);
+        val runsByTick = new ArrayList<AtomicInteger>();
+        for (int tick = 0; tick < 40; tick++) runsByTick.add(new AtomicInteger());
+        val currentTick = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) pool.addTask(() -> runsByTick.get(currentTick.get()).incrementAndGet(), 10, false);
+        for (int tick = 0; tick < 40; tick++) {
+            currentTick.set(tick);
+            pool.run();
+        }
+
+        // each task runs once per period and no tick runs more than one of them
+        for (val runs : runsByTick) assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testTasksAddedOnDifferentTicksAreSpread() {
+        val pool = new TimingWheelLoopPool(Runnable::run);
+        val runsByTick = new ArrayList<AtomicInteger>();
+        for (int tick = 0; tick < 40; tick++) runsByTick.add(new AtomicInteger());
+        val currentTick = new AtomicInteger();
+
+        for (int tick = 0; tick < 40; tick++) {
+            // a new task is added on each of the first ticks of the period
+            if (tick < 4) pool.addTask(() -> runsByTick.get(currentTick.get()).incrementAndGet(), 4, false);
+            currentTick.set(tick);
+            pool.run();
+        }
+
+        // once all tasks are added no tick runs more than one of them
+        for (int tick = 4; tick < 40; tick++) assertEquals(1, runsByTick.get(tick).get(), "Tick " + tick);
+    }
+
+    @Test
+    void testPhasesAreReleasedWithTasks() {
+        val pool = new TimingWheelLoopPool(Runnable::run);
+        val firstRun = new AtomicInteger(-1);
+        val currentTick = new AtomicInteger();
+
+        pool.addTask(() -> {}, 4, false).close();
+        pool.run();
+        currentTick.set(1);
+        // the period has no tasks so the new one gets the first phase again
+        pool.addTask(() -> firstRun.compareAndSet(-1, currentTick.get()), 4, false);
+        for (int tick = 1; tick < 10; tick++) {
+            currentTick.set(tick);
+            pool.run();
+        }
+
+        assertEquals(4, firstRun.get());
+    }
+
+    @Test
+    void testFailingTaskDoesNotAffectOthers() {
+        val pool = new TimingWheelLoopPool(Runnable::run);
+        val runs = new AtomicInteger();
+        pool.addTask(() -> {
+            throw new IllegalStateException("Expected exception");
+        }, 1, false);
+        pool.addTask(runs::incrementAndGet, 1, false);
+        pool.addTask(runs::incrementAndGet, 1, false);
+
+        for (int tick = 0; tick < 10; tick++) pool.run();
+
+        assertEquals(20, runs.get());
+        assertEquals(3, pool.size());
+    }
+
+    @Test
+    void testQueuedSyncRunsAreCoalesced() {
+        val queue = new ArrayDeque<Runnable>();
+        val pool = new TimingWheelLoopPool(queue::add, Runnable::run);
+        val runs = new AtomicInteger();
+        pool.addTask(runs::incrementAndGet, 1, false);
+
+        // the executor does not run anything so the first run stays queued
+        for (int tick = 0; tick < 10; tick++) pool.run();
+        assertEquals(1, queue.size());
+
+        queue.poll().run();
+        assertEquals(1, runs.get());
+
+        for (int tick = 0; tick < 10; tick++) pool.run();
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void testTaskCancellation() {
+        val pool = new TimingWheelLoopPool(Runnable::run);
+        val syncRuns = new AtomicInteger();
+        val asyncRuns = new AtomicInteger();
+        val hook = pool.addTask(syncRuns::incrementAndGet, 1, false);
+        pool.addTask(asyncRuns::incrementAndGet, 2, true);
+
+        for (int tick = 0; tick < 10; tick++) pool.run();
+        assertEquals(10, syncRuns.get());
+        assertEquals(5, asyncRuns.get());
+
+        hook.close();
+        assertEquals(1, pool.size());
+        for (int tick = 0; tick < 10; tick++) pool.run();
+        assertEquals(10, syncRuns.get());
+
+        pool.shutdown();
+        assertEquals(0, pool.size());
+    }
+}
@@ -0,0 +1,61 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.pool;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void testTimeoutsExpireOnTheirDeadlines() {
+        val wheel = new TimingWheel<Long>();
+        val random = new Random(42);
+        val timeouts = new ArrayList<TimingWheel.Timeout<Long>>();
+        for (int i = 0; i < 10_000; i++) {
+            // some delays exceed the range of the wheel
+            final long delay = random.nextInt(8) == 0 ? random.nextInt(1 << 25) : random.nextInt(5000);
+            timeouts.add(wheel.schedule(delay, delay));
+        }
+        assertEquals(10_000, wheel.size());
+
+        val cancelled = timeouts.get(0);
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertFalse(cancelled.isScheduled());
+
+        final List<TimingWheel.Timeout<Long>> expired = new ArrayList<>();
+        while (wheel.size() != 0) {
+            final long tick = wheel.getTick();
+            wheel.advance(timeout -> {
+                assertEquals(tick, (long) timeout.getValue());
+                assertEquals(tick, timeout.getDeadline());
+                expired.add(timeout);
+            });
+        }
+        assertEquals(9_999, expired.size());
+        assertFalse(expired.contains(cancelled));
+    }
+
+    @Test
+    void testRescheduling() {
+        val wheel = new TimingWheel<String>();
+        val timeout = wheel.schedule("task", 0);
+        assertThrows(IllegalArgumentException.class, () -> wheel.reschedule(timeout, 1));
+
+        val expirations = new int[1];
+        for (int tick = 0; tick < 100; tick++) wheel.advance(expired -> {
+            expirations[0]++;
+            wheel.reschedule(expired, 9);
+        });
+        assertEquals(10, expirations[0]);
+
+        wheel.clear(cleared -> assertSame(timeout, cleared));
+        assertEquals(0, wheel.size());
+        assertFalse(timeout.isScheduled());
+    }
+}
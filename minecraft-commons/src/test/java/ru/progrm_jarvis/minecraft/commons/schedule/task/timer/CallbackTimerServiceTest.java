@@ -0,0 +1,93 @@
+package ru.progrm_jarvis.minecraft.commons.schedule.task.timer;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallbackTimerServiceTest {
+
+    private static CallbackTimerService.Callback recording(final String name, final List<String> log) {
+        return new CallbackTimerService.Callback() {
+            @Override
+            public void onTick(final long counter) {
+                log.add(name + counter);
+            }
+
+            @Override
+            public void onAbort() {
+                log.add(name + "-abort");
+            }
+
+            @Override
+            public void onOver() {
+                log.add(name + "-over");
+            }
+        };
+    }
+
+    @Test
+    void testTimersBehaveAsCallbackTimers() {
+        val service = new CallbackTimerService();
+        val log = new ArrayList<String>();
+
+        val a = service.start(recording("a", log), 3);
+        service.start(recording("b", log), 1);
+        assertEquals(2, service.size());
+
+        service.run();
+        assertEquals(Arrays.asList("b-over", "b0", "a2"), log);
+        assertEquals(1, service.size());
+
+        log.clear();
+        service.run();
+        service.run();
+        assertEquals(Arrays.asList("a1", "a-over", "a0"), log);
+        assertFalse(a.isActive());
+        assertFalse(a.cancel());
+
+        log.clear();
+        service.run();
+        assertTrue(log.isEmpty());
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void testCancellation() {
+        val service = new CallbackTimerService();
+        val log = new ArrayList<String>();
+
+        val a = service.start(recording("a", log), 5);
+        val b = service.start(recording("b", log), 5);
+        service.start(counter -> {
+            if (counter == 3) b.cancel();
+        }, 5);
+
+        service.run();
+        log.clear();
+        service.run();
+        assertTrue(log.contains("b-abort"));
+        assertFalse(b.isActive());
+        assertEquals(2, service.size());
+
+        assertTrue(a.cancel());
+        assertFalse(a.cancel());
+
+        log.clear();
+        service.run();
+        assertTrue(log.isEmpty());
+        assertEquals(1, service.size());
+
+        service.cancelAll();
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void testInvalidCounter() {
+        assertThrows(IllegalArgumentException.class, () -> new CallbackTimerService().start(counter -> {}, 0));
+    }
+}
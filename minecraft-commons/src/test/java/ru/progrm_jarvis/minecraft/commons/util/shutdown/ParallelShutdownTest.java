@@ -0,0 +1,70 @@
+package ru.progrm_jarvis.minecraft.commons.util.shutdown;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelShutdownTest {
+
+    @Test
+    void testAllShutdownablesAreShutDown() {
+        val shutDown = ConcurrentHashMap.<Integer>newKeySet();
+        val shutdownables = new ArrayList<Shutdownable>();
+        for (int i = 0; i < 32; i++) {
+            final int id = i;
+            shutdownables.add(() -> shutDown.add(id));
+        }
+        val failure = new IllegalStateException("Expected failure");
+        final Shutdownable failing = () -> {
+            throw failure;
+        };
+        shutdownables.add(failing);
+
+        val report = ParallelShutdown.of(4, 1, TimeUnit.MINUTES).shutdown(shutdownables);
+
+        assertEquals(32, shutDown.size());
+        assertTrue(report.getOverruns().isEmpty());
+        assertEquals(1, report.getFailures().size());
+        assertSame(failing, report.getFailures().get(0).getShutdownable());
+        assertSame(failure, report.getFailures().get(0).getCause());
+    }
+
+    @Test
+    void testOverrunsAreReported() {
+        val blocker = new CountDownLatch(1);
+        final Shutdownable blocking = () -> {
+            try {
+                blocker.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        val shutDown = new CountDownLatch(3);
+        val shutdownables = new ArrayList<Shutdownable>();
+        shutdownables.add(blocking);
+        for (int i = 0; i < 3; i++) shutdownables.add(shutDown::countDown);
+
+        val report = ParallelShutdown.of(1, 50, TimeUnit.MILLISECONDS).shutdown(shutdownables);
+
+        assertEquals(0, shutDown.getCount());
+        assertEquals(1, report.getOverruns().size());
+        val overrun = report.getOverruns().get(0);
+        assertSame(blocking, overrun.getShutdownable());
+        assertTrue(overrun.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(overrun.isCompleted());
+    }
+
+    @Test
+    void testEmpty() {
+        val report = ParallelShutdown.of(1, 1, TimeUnit.SECONDS).shutdown(Collections.emptyList());
+        assertTrue(report.getOverruns().isEmpty());
+        assertTrue(report.getFailures().isEmpty());
+    }
+}